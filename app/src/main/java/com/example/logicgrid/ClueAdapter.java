@@ -0,0 +1,83 @@
+package com.example.logicgrid;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.logicgrid.clue.CompiledClue;
+import java.util.List;
+
+/**
+ * Clue rows for a RecyclerView: only visible rows exist, and they are rebound as they
+ * scroll in. Backgrounds come from shared drawable resources, one per clue status, so a
+ * row costs no allocation beyond its text. Status changes rebind just the background of
+ * the rows that changed.
+ */
+public class ClueAdapter extends RecyclerView.Adapter<ClueAdapter.Holder> {
+    // Partial rebind: the status changed, the text did not
+    private static final Object STATUS = new Object();
+
+    private String[] clues = new String[0];
+    // CompiledClue.UNDECIDED / SATISFIED / VIOLATED per clue
+    private byte[] status = new byte[0];
+
+    public void setClues(String[] clues) {
+        this.clues = clues;
+        this.status = new byte[clues.length];
+        notifyDataSetChanged();
+    }
+
+    public void setStatus(int index, int value) {
+        if (status[index] == value) return;
+        status[index] = (byte) value;
+        notifyItemChanged(index, STATUS);
+    }
+
+    @Override
+    public int getItemCount() {
+        return clues.length;
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView view = (TextView) LayoutInflater.from(parent.getContext()).inflate(R.layout.item_clue, parent, false);
+        return new Holder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        holder.text.setText((position + 1) + ". " + clues[position]);
+        bindStatus(holder, position);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+        } else {
+            bindStatus(holder, position);
+        }
+    }
+
+    private void bindStatus(Holder holder, int position) {
+        int value = status[position];
+        if (holder.boundStatus == value) return;
+        holder.boundStatus = value;
+        holder.text.setBackgroundResource(value == CompiledClue.SATISFIED ? R.drawable.clue_item_satisfied
+                : value == CompiledClue.VIOLATED ? R.drawable.clue_item_violated
+                : R.drawable.clue_item_background);
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        final TextView text;
+        // What the background currently shows, so rebinding an unchanged row is free
+        int boundStatus = CompiledClue.UNDECIDED;
+
+        Holder(TextView text) {
+            super(text);
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.logicgrid;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Draws the whole board, headers included, as one view. Blocks use the usual
+ * logic-grid layout: category 0 then k-1 .. 2 down the side, 1 .. k-1 across the
+ * top, one block per category pair. Paints and rects are created once, so a redraw
+ * after a tap allocates nothing, and taps are hit-tested here. Down and up on one cell
+ * is a tap; from one cell to another in the same block, a single drag gesture. Anything
+ * else, or a cancelled gesture, is ignored.
+ */
+public class LogicGridView extends View {
+    public interface OnCellTapListener {
+        void onCellTap(int categoryA, int itemA, int categoryB, int itemB);
+    }
+
+    public interface OnCellDragListener {
+        // Finger went down on (fromRow, fromCol) and up on (toRow, toCol) of one block
+        void onCellDrag(int rowCategory, int colCategory, int fromRow, int fromCol, int toRow, int toCol);
+    }
+
+    private static final float CELL_DP = 56;
+    private static final float MIN_CELL_DP = 20;
+    private static final float HEADER_DP = 88;
+    private static final float GAP_DP = 3;
+
+    private final Paint cellPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint borderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint headerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF rect = new RectF();
+
+    private final int emptyColor;
+    private final int yesColor;
+    private final int noColor;
+    private final int yesMarkColor;
+    private final int noMarkColor;
+    private final float density;
+
+    private GameLogic game;
+    private OnCellTapListener listener;
+    private OnCellDragListener dragListener;
+    // Where the current touch went down: groups, then the cell, or -1 off the blocks
+    private final int[] downAt = {-1, -1, -1, -1};
+    private final int[] upAt = new int[4];
+    // Category shown in each row group / column group
+    private int[] rowCategories = new int[0];
+    private int[] colCategories = new int[0];
+    private int items;
+    private float cellSize;
+    private float headerSize;
+    private float gap;
+
+    public LogicGridView(Context context) {
+        this(context, null);
+    }
+
+    public LogicGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+        emptyColor = ContextCompat.getColor(context, R.color.cell_empty);
+        yesColor = ContextCompat.getColor(context, R.color.cell_yes);
+        noColor = ContextCompat.getColor(context, R.color.cell_no);
+        yesMarkColor = ContextCompat.getColor(context, R.color.button_green);
+        noMarkColor = ContextCompat.getColor(context, R.color.error);
+
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(2 * density);
+        borderPaint.setColor(ContextCompat.getColor(context, R.color.grid_border));
+        headerPaint.setColor(ContextCompat.getColor(context, R.color.header_background));
+        labelPaint.setColor(ContextCompat.getColor(context, R.color.header_text));
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        markPaint.setTextAlign(Paint.Align.CENTER);
+        markPaint.setFakeBoldText(true);
+        gap = GAP_DP * density;
+    }
+
+    public void setOnCellTapListener(OnCellTapListener listener) {
+        this.listener = listener;
+    }
+
+    public void setOnCellDragListener(OnCellDragListener dragListener) {
+        this.dragListener = dragListener;
+    }
+
+    public void setGame(GameLogic game) {
+        this.game = game;
+        int k = game.getCategoryCount();
+        items = game.getSize();
+        rowCategories = new int[k - 1];
+        colCategories = new int[k - 1];
+        rowCategories[0] = 0;
+        for (int i = 1; i < k - 1; i++) {
+            rowCategories[i] = k - i;
+        }
+        for (int j = 0; j < k - 1; j++) {
+            colCategories[j] = j + 1;
+        }
+        requestLayout();
+        invalidate();
+    }
+
+    // Row group i shows column groups whose pair with it has not been drawn higher up
+    private boolean hasBlock(int rowGroup, int colGroup) {
+        return rowGroup == 0 || colCategories[colGroup] < rowCategories[rowGroup];
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int groups = colCategories.length;
+        headerSize = HEADER_DP * density;
+        cellSize = CELL_DP * density;
+        int available = MeasureSpec.getSize(widthMeasureSpec);
+        if (groups > 0 && MeasureSpec.getMode(widthMeasureSpec) != MeasureSpec.UNSPECIFIED) {
+            float fit = (available - headerSize - groups * gap) / (groups * items);
+            cellSize = Math.max(MIN_CELL_DP * density, Math.min(cellSize, fit));
+        }
+        labelPaint.setTextSize(Math.min(14 * density, headerSize / 6));
+        markPaint.setTextSize(cellSize * 0.55f);
+
+        int size = (int) Math.ceil(headerSize + groups * (items * cellSize + gap));
+        setMeasuredDimension(resolveSize(size, widthMeasureSpec), resolveSize(size, heightMeasureSpec));
+    }
+
+    private float groupLeft(int colGroup) {
+        return headerSize + colGroup * (items * cellSize + gap);
+    }
+
+    private float groupTop(int rowGroup) {
+        return headerSize + rowGroup * (items * cellSize + gap);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (game == null) return;
+        String[][] categories = game.getCategories();
+        float inset = 2 * density;
+
+        for (int j = 0; j < colCategories.length; j++) {
+            String[] names = categories[colCategories[j]];
+            for (int c = 0; c < items; c++) {
+                float left = groupLeft(j) + c * cellSize;
+                rect.set(left + inset, inset, left + cellSize - inset, headerSize - inset);
+                canvas.drawRoundRect(rect, 4 * density, 4 * density, headerPaint);
+                // Column labels run bottom-to-top so long names fit narrow cells
+                canvas.save();
+                canvas.rotate(-90, rect.centerX(), rect.centerY());
+                canvas.drawText(names[c], rect.centerX(), rect.centerY() - labelBaseline(), labelPaint);
+                canvas.restore();
+            }
+        }
+        for (int i = 0; i < rowCategories.length; i++) {
+            String[] names = categories[rowCategories[i]];
+            for (int r = 0; r < items; r++) {
+                float top = groupTop(i) + r * cellSize;
+                rect.set(inset, top + inset, headerSize - inset, top + cellSize - inset);
+                canvas.drawRoundRect(rect, 4 * density, 4 * density, headerPaint);
+                canvas.drawText(names[r], rect.centerX(), rect.centerY() - labelBaseline(), labelPaint);
+            }
+        }
+
+        for (int i = 0; i < rowCategories.length; i++) {
+            for (int j = 0; j < colCategories.length; j++) {
+                if (!hasBlock(i, j)) continue;
+                for (int r = 0; r < items; r++) {
+                    for (int c = 0; c < items; c++) {
+                        drawCell(canvas, i, j, r, c);
+                    }
+                }
+            }
+        }
+    }
+
+    private float labelBaseline() {
+        return (labelPaint.descent() + labelPaint.ascent()) / 2;
+    }
+
+    private void drawCell(Canvas canvas, int rowGroup, int colGroup, int row, int col) {
+        int rowCategory = rowCategories[rowGroup];
+        int colCategory = colCategories[colGroup];
+        int state = game.getCellState(rowCategory, row, colCategory, col);
+        boolean inferred = false;
+        if (state == GameLogic.EMPTY) {
+            state = game.getInferredState(rowCategory, row, colCategory, col);
+            inferred = state != GameLogic.EMPTY;
+        }
+
+        cellRect(rowGroup, colGroup, row, col);
+        cellPaint.setColor(state == GameLogic.YES ? yesColor : state == GameLogic.NO ? noColor : emptyColor);
+        // Marks implied by other blocks are drawn faded
+        cellPaint.setAlpha(inferred ? 110 : 255);
+        float radius = 6 * density;
+        canvas.drawRoundRect(rect, radius, radius, cellPaint);
+        canvas.drawRoundRect(rect, radius, radius, borderPaint);
+
+        if (state == GameLogic.EMPTY) return;
+        markPaint.setColor(state == GameLogic.YES ? yesMarkColor : noMarkColor);
+        markPaint.setAlpha(inferred ? 110 : 255);
+        float baseline = rect.centerY() - (markPaint.descent() + markPaint.ascent()) / 2;
+        canvas.drawText(state == GameLogic.YES ? "✓" : "✗", rect.centerX(), baseline, markPaint);
+    }
+
+    private void cellRect(int rowGroup, int colGroup, int row, int col) {
+        float inset = 2 * density;
+        float left = groupLeft(colGroup) + col * cellSize;
+        float top = groupTop(rowGroup) + row * cellSize;
+        rect.set(left + inset, top + inset, left + cellSize - inset, top + cellSize - inset);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (game == null) return false;
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                if (!cellAt(event.getX(), event.getY(), downAt)) downAt[0] = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                // A parent took the gesture over, e.g. to scroll
+                downAt[0] = -1;
+                return true;
+            case MotionEvent.ACTION_UP:
+                break;
+            default:
+                return false;
+        }
+
+        // Both ends in one block; a gesture from a header or gap, or across blocks, is a
+        // slip and changes nothing
+        boolean sameBlock = downAt[0] >= 0 && cellAt(event.getX(), event.getY(), upAt)
+                && downAt[0] == upAt[0] && downAt[1] == upAt[1];
+        downAt[0] = -1;
+        if (!sameBlock) return false;
+        int rowGroup = upAt[0];
+        int colGroup = upAt[1];
+        if (downAt[2] == upAt[2] && downAt[3] == upAt[3]) {
+            if (listener != null) {
+                listener.onCellTap(rowCategories[rowGroup], upAt[2], colCategories[colGroup], upAt[3]);
+            }
+        } else if (dragListener != null) {
+            dragListener.onCellDrag(rowCategories[rowGroup], colCategories[colGroup],
+                    downAt[2], downAt[3], upAt[2], upAt[3]);
+        }
+        performClick();
+        return true;
+    }
+
+    // Fills out with row group, column group, row and column under (x, y); false off the blocks
+    private boolean cellAt(float x, float y, int[] out) {
+        int colGroup = groupAt(x);
+        int rowGroup = groupAt(y);
+        if (colGroup < 0 || rowGroup < 0 || !hasBlock(rowGroup, colGroup)) return false;
+        out[0] = rowGroup;
+        out[1] = colGroup;
+        out[2] = (int) ((y - groupTop(rowGroup)) / cellSize);
+        out[3] = (int) ((x - groupLeft(colGroup)) / cellSize);
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    // Group under a coordinate, or -1 over a header or a gap
+    private int groupAt(float position) {
+        float offset = position - headerSize;
+        if (offset < 0) return -1;
+        float stride = items * cellSize + gap;
+        int group = (int) (offset / stride);
+        if (group >= colCategories.length || offset - group * stride >= items * cellSize) return -1;
+        return group;
+    }
+}
@@ -1,58 +1,174 @@
 package com.example.logicgrid;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
-import android.widget.GridLayout;
 import android.widget.TextView;
-import android.widget.LinearLayout;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
-import android.graphics.drawable.GradientDrawable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import android.view.animation.AnimationUtils;
 import com.google.android.material.button.MaterialButton;
 import android.widget.Toast;
+import com.example.logicgrid.analytics.MoveLogWriter;
+import com.example.logicgrid.clue.CompiledClue;
+import com.example.logicgrid.hint.HintEngine;
+import com.example.logicgrid.loader.PuzzleLoader;
+import com.example.logicgrid.metrics.LatencyHistogram;
+import com.example.logicgrid.metrics.Metrics;
+import com.example.logicgrid.session.SessionJournal;
+import com.example.logicgrid.session.SessionState;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends AppCompatActivity {
-    private GridLayout gridLayout;
+    private static final String KEY_SESSION = "session";
+    // The move log starts over once it grows past this
+    private static final long MOVE_LOG_LIMIT = 4 << 20;
+    private static final LatencyHistogram INIT_GRID_TIMER = Metrics.timer("ui.initializeGrid");
+    private static final LatencyHistogram UPDATE_CLUES_TIMER = Metrics.timer("ui.updateClues");
+
+    private LogicGridView gridView;
     private TextView levelText;
     private TextView messageText;
     private Button checkButton;
     private Button newPuzzleButton;
+    private Button hintButton;
+    private Button undoButton;
+    private Button redoButton;
     private MaterialButton easyButton;
     private MaterialButton mediumButton;
     private MaterialButton hardButton;
-    private LinearLayout cluesList;
-    private Button[][] cells;
+    private RecyclerView cluesList;
+    private final ClueAdapter clueAdapter = new ClueAdapter();
     private int currentLevel = 1;
     private String currentDifficulty = "EASY";
-    private static final int GRID_SIZE = 3;
-    private static final int CELL_SIZE = 85;
-    private static final int CELL_MARGIN = 2;
     private GameLogic gameLogic;
+    private HintEngine hintEngine;
+    // Hints are searched off the UI thread, one at a time
+    private final ExecutorService hintExecutor = Executors.newSingleThreadExecutor();
+    // Survives process death; the saved-state Bundle covers rotation. One per process, so
+    // the activities before and after a rotation never write the file at the same time
+    private static SessionJournal journal;
+    // How games are played, for offline analysis with LogAggregator; one per process, like
+    // the journal, so only one writer ever appends to the file
+    private static MoveLogWriter moveLog;
+    // Restored marks waiting for their puzzle to finish loading
+    private SessionState pendingSession;
+    // Puzzles are built in the background, the next two levels ahead of the player
+    private final ExecutorService loaderExecutor = Executors.newSingleThreadExecutor();
+    private final PuzzleLoader puzzleLoader = new PuzzleLoader(PuzzleLoader.GENERATOR, loaderExecutor, 6, 2);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        // Timings are collected in debuggable builds; release builds pay a field read per site
+        Metrics.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
+
+        if (journal == null) journal = new SessionJournal(new File(getFilesDir(), "session.bin"));
+        if (moveLog == null) moveLog = new MoveLogWriter(new File(getFilesDir(), "moves.log"), MOVE_LOG_LIMIT);
 
         initializeViews();
         setupDifficultyButtons();
         setupActionButtons();
+        byte[] saved = savedInstanceState != null ? savedInstanceState.getByteArray(KEY_SESSION) : null;
+        if (saved != null) {
+            resume(decodeSession(saved));
+        } else {
+            loadJournal();
+        }
+    }
+
+    // Reads the journal on the loader thread, ahead of any puzzle, and resumes from it
+    private void loadJournal() {
+        final String difficulty = currentDifficulty;
+        final int level = currentLevel;
+        loaderExecutor.execute(() -> {
+            final SessionState session = decodeSession(journal.load());
+            runOnUiThread(() -> {
+                // A level picked while the journal loaded wins over the saved one
+                if (difficulty.equals(currentDifficulty) && level == currentLevel) resume(session);
+            });
+        });
+    }
+
+    // Starts the saved session's level, or the current one when there is none
+    private void resume(SessionState session) {
+        if (session != null) {
+            currentDifficulty = session.difficulty;
+            currentLevel = session.level;
+            pendingSession = session;
+            updateDifficultyButtons();
+        }
         initializeGame();
     }
 
+    private static SessionState decodeSession(byte[] encoded) {
+        if (encoded == null) return null;
+        try {
+            return SessionState.decode(encoded);
+        } catch (IOException | RuntimeException e) {
+            // An unreadable session just means a fresh start
+            return null;
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (gameLogic != null) {
+            outState.putByteArray(KEY_SESSION, SessionState.encode(currentDifficulty, currentLevel, gameLogic));
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        journal.flush();
+        moveLog.flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        hintExecutor.shutdownNow();
+        loaderExecutor.shutdownNow();
+    }
+
+    // Queues the current board for the journal; written in the background, moves batched
+    private void saveSession() {
+        journal.save(SessionState.encode(currentDifficulty, currentLevel, gameLogic));
+    }
+
     private void initializeViews() {
-        gridLayout = findViewById(R.id.gridLayout);
+        gridView = findViewById(R.id.gridView);
+        gridView.setOnCellTapListener(this::toggleCell);
+        gridView.setOnCellDragListener(this::markRange);
         levelText = findViewById(R.id.levelText);
+        levelText.setOnLongClickListener(v -> {
+            // On-demand dump for comparing percentiles across builds
+            Log.i("LogicGridMetrics", Metrics.reportJson());
+            return true;
+        });
         messageText = findViewById(R.id.messageText);
         checkButton = findViewById(R.id.checkButton);
         newPuzzleButton = findViewById(R.id.newPuzzleButton);
+        hintButton = findViewById(R.id.hintButton);
+        undoButton = findViewById(R.id.undoButton);
+        redoButton = findViewById(R.id.redoButton);
         easyButton = findViewById(R.id.easyButton);
         mediumButton = findViewById(R.id.mediumButton);
         hardButton = findViewById(R.id.hardButton);
         cluesList = findViewById(R.id.cluesList);
-        cells = new Button[GRID_SIZE][GRID_SIZE];
+        cluesList.setLayoutManager(new LinearLayoutManager(this));
+        cluesList.setAdapter(clueAdapter);
     }
 
     private void setupDifficultyButtons() {
@@ -64,24 +180,59 @@ public class MainActivity extends AppCompatActivity {
 
     private void setupActionButtons() {
         newPuzzleButton.setOnClickListener(v -> {
-            currentLevel = (currentLevel % 2) + 1;
+            // Levels are generated on demand, so every press is a fresh puzzle
+            currentLevel++;
             initializeGame();
         });
 
         checkButton.setOnClickListener(v -> checkSolution());
+        hintButton.setOnClickListener(v -> showHint());
+        undoButton.setOnClickListener(v -> stepHistory(true));
+        redoButton.setOnClickListener(v -> stepHistory(false));
     }
 
     private void initializeGame() {
-        GameLogic.PuzzleData puzzleData = GameLogic.generatePuzzle(currentDifficulty, currentLevel);
+        final String difficulty = currentDifficulty;
+        final int level = currentLevel;
+        if (hintEngine != null) hintEngine.cancel();
+        // The board ignores input until the puzzle is in; prefetched levels arrive at once
+        gameLogic = null;
+        puzzleLoader.load(difficulty, level, puzzleData -> runOnUiThread(() -> {
+            // Another level may have been picked while this one loaded
+            if (difficulty.equals(currentDifficulty) && level == currentLevel) startGame(puzzleData);
+        }));
+    }
+
+    private void startGame(GameLogic.PuzzleData puzzleData) {
         if (puzzleData == null) {
             Toast.makeText(this, "No puzzle available for this difficulty and level", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        gameLogic = new GameLogic(GRID_SIZE, puzzleData.categories, puzzleData.clues, puzzleData.solution);
+        gameLogic = new GameLogic(puzzleData);
+        hintEngine = new HintEngine(puzzleData, hintExecutor);
         levelText.setText("Level: " + currentDifficulty + " - Puzzle " + currentLevel);
         initializeGrid();
+        boolean resumed = false;
+        if (pendingSession != null) {
+            if (pendingSession.difficulty.equals(currentDifficulty) && pendingSession.level == currentLevel) {
+                try {
+                    resumed = pendingSession.applyTo(gameLogic);
+                } catch (IllegalArgumentException e) {
+                    // A damaged save leaves the board untouched; start fresh and drop it
+                    journal.clear();
+                }
+            }
+            pendingSession = null;
+        }
+        // A restored game is the one whose START is already logged, not a new play
+        if (resumed) {
+            moveLog.resumeGame(System.currentTimeMillis());
+        } else {
+            moveLog.startGame(currentDifficulty, currentLevel, gameLogic.getClues().length, System.currentTimeMillis());
+        }
         updateClues();
+        saveSession();
     }
 
     private void setDifficulty(String difficulty) {
@@ -115,182 +266,186 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void initializeGrid() {
-        gridLayout.removeAllViews();
-        gridLayout.setColumnCount(GRID_SIZE + 1);
-        gridLayout.setRowCount(GRID_SIZE + 1);
-        gridLayout.setBackgroundColor(ContextCompat.getColor(this, R.color.grid_background));
-        
-        // Add elevation to the grid
-        gridLayout.setElevation(8 * getResources().getDisplayMetrics().density);
-    
-        String[][] categories = gameLogic.getCategories();
-        int dpToPx = (int) (getResources().getDisplayMetrics().density);
-    
-        // Add empty top-left cell
-        addHeaderCell("");
-    
-        // Add column headers
-        for (int j = 0; j < GRID_SIZE; j++) {
-            addHeaderCell(categories[1][j]);
+        long start = Metrics.start();
+        gridView.setGame(gameLogic);
+        INIT_GRID_TIMER.recordSince(start);
+    }
+
+    private void toggleCell(int categoryA, int itemA, int categoryB, int itemB) {
+        if (gameLogic == null) return;
+        // A hint computed for the old board is stale now
+        hintEngine.cancel();
+        boolean isValid = gameLogic.toggleCell(categoryA, itemA, categoryB, itemB);
+        moveLog.move(gameLogic.packChange(categoryA, itemA, categoryB, itemB,
+                gameLogic.getCellState(categoryA, itemA, categoryB, itemB)), isValid, System.currentTimeMillis());
+        gridView.invalidate();
+        boolean newlyViolated = updateChangedClues();
+        saveSession();
+
+        if (!isValid) {
+            gridView.startAnimation(AnimationUtils.loadAnimation(this, R.anim.shake));
+            Toast.makeText(this, "Invalid move!", Toast.LENGTH_SHORT).show();
+        } else if (newlyViolated) {
+            showViolatedClues();
+        }
+    }
+
+    // A drag crosses out every empty cell it spans, or clears them if all are crossed out
+    // already; the whole range is one move with one redraw and at most one message
+    private void markRange(int rowCategory, int colCategory, int fromRow, int fromCol, int toRow, int toCol) {
+        if (gameLogic == null) return;
+        int top = Math.min(fromRow, toRow);
+        int bottom = Math.max(fromRow, toRow);
+        int left = Math.min(fromCol, toCol);
+        int right = Math.max(fromCol, toCol);
+        boolean allCrossed = true;
+        for (int row = top; row <= bottom && allCrossed; row++) {
+            for (int col = left; col <= right; col++) {
+                int state = gameLogic.getCellState(rowCategory, row, colCategory, col);
+                if (state != GameLogic.NO) {
+                    allCrossed = false;
+                    break;
+                }
+            }
         }
-    
-        // Add row headers and grid cells
-        for (int i = 0; i < GRID_SIZE; i++) {
-            addHeaderCell(categories[0][i]);
-            for (int j = 0; j < GRID_SIZE; j++) {
-                Button cell = new Button(this);
-                GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-                params.width = CELL_SIZE * dpToPx;
-                params.height = CELL_SIZE * dpToPx;
-                params.setMargins(CELL_MARGIN * dpToPx, CELL_MARGIN * dpToPx,
-                                CELL_MARGIN * dpToPx, CELL_MARGIN * dpToPx);
-                cell.setLayoutParams(params);
-    
-                GradientDrawable shape = new GradientDrawable();
-                shape.setShape(GradientDrawable.RECTANGLE);
-                shape.setColor(ContextCompat.getColor(this, R.color.cell_empty));
-                shape.setStroke(2 * dpToPx, ContextCompat.getColor(this, R.color.grid_border));
-                shape.setCornerRadius(8 * dpToPx);
-                cell.setBackground(shape);
-                cell.setElevation(4 * dpToPx);
-    
-                final int row = i;
-                final int col = j;
-                cell.setOnClickListener(v -> toggleCell(row, col));
-    
-                cells[i][j] = cell;
-                gridLayout.addView(cell);
+        int[] changes = new int[(bottom - top + 1) * (right - left + 1)];
+        int count = 0;
+        for (int row = top; row <= bottom; row++) {
+            for (int col = left; col <= right; col++) {
+                int state = gameLogic.getCellState(rowCategory, row, colCategory, col);
+                if (allCrossed) {
+                    changes[count++] = gameLogic.packChange(rowCategory, row, colCategory, col, GameLogic.EMPTY);
+                } else if (state == GameLogic.EMPTY) {
+                    changes[count++] = gameLogic.packChange(rowCategory, row, colCategory, col, GameLogic.NO);
+                }
             }
         }
+        if (count == 0) return;
+
+        hintEngine.cancel();
+        GameLogic.BatchResult result = gameLogic.applyChanges(Arrays.copyOf(changes, count));
+        moveLog.batch(result.changed, result.isValid(), System.currentTimeMillis());
+        gridView.invalidate();
+        boolean newlyViolated = updateChangedClues();
+        saveSession();
+
+        if (!result.isValid()) {
+            gridView.startAnimation(AnimationUtils.loadAnimation(this, R.anim.shake));
+            Toast.makeText(this, result.violations.length + " marks break the rules", Toast.LENGTH_SHORT).show();
+        } else if (newlyViolated) {
+            showViolatedClues();
+        }
+    }
+
+    private void stepHistory(boolean back) {
+        if (gameLogic == null) return;
+        if (!(back ? gameLogic.undo() : gameLogic.redo())) return;
+        if (back) {
+            moveLog.undo(System.currentTimeMillis());
+        } else {
+            moveLog.redo(System.currentTimeMillis());
+        }
+        hintEngine.cancel();
+        // One step can be a whole clear, so redraw everything
+        gridView.invalidate();
+        updateChangedClues();
+        saveSession();
     }
 
-    private void addHeaderCell(String text) {
-        TextView header = new TextView(this);
-        header.setText(text);
-        header.setTextColor(ContextCompat.getColor(this, R.color.header_text));
-        header.setTextSize(16);
-        header.setPadding(16, 16, 16, 16);
-        header.setBackgroundColor(ContextCompat.getColor(this, R.color.header_background));
-        header.setGravity(android.view.Gravity.CENTER);
-        
-        GridLayout.LayoutParams params = new GridLayout.LayoutParams();
-        params.width = CELL_SIZE * (int) (getResources().getDisplayMetrics().density);
-        params.height = CELL_SIZE * (int) (getResources().getDisplayMetrics().density);
-        params.setMargins(2, 2, 2, 2);
-        header.setLayoutParams(params);
-        
-        // Add rounded corners to headers
-        GradientDrawable shape = new GradientDrawable();
-        shape.setShape(GradientDrawable.RECTANGLE);
-        shape.setColor(ContextCompat.getColor(this, R.color.header_background));
-        shape.setCornerRadius(8 * (int) (getResources().getDisplayMetrics().density));
-        header.setBackground(shape);
-        
-        gridLayout.addView(header);
+    private void showHint() {
+        if (gameLogic == null) return;
+        final HintEngine engine = hintEngine;
+        moveLog.hint(System.currentTimeMillis());
+        engine.requestHint(gameLogic, hint -> runOnUiThread(() -> {
+            if (engine == hintEngine) displayHint(hint);
+        }));
     }
 
-    private void toggleCell(int row, int col) {
-        Button cell = cells[row][col];
-        boolean isValid = gameLogic.toggleCell(row, col);
-        
-        int state = gameLogic.getCellState(row, col);
-        GradientDrawable shape = new GradientDrawable();
-        shape.setShape(GradientDrawable.RECTANGLE);
-        shape.setStroke(2 * (int) (getResources().getDisplayMetrics().density), 
-                       ContextCompat.getColor(this, R.color.grid_border));
-        shape.setCornerRadius(8 * (int) (getResources().getDisplayMetrics().density));
-        
-        switch (state) {
-            case GameLogic.YES:
-                cell.setText("✓");
-                cell.setTextColor(ContextCompat.getColor(this, R.color.button_green));
-                shape.setColor(ContextCompat.getColor(this, R.color.cell_yes));
-                break;
-            case GameLogic.NO:
-                cell.setText("✗");
-                cell.setTextColor(ContextCompat.getColor(this, R.color.error));
-                shape.setColor(ContextCompat.getColor(this, R.color.cell_no));
-                break;
-            default:
-                cell.setText("");
-                shape.setColor(ContextCompat.getColor(this, R.color.cell_empty));
-                break;
+    private void displayHint(HintEngine.Hint hint) {
+        if (hint == null) {
+            Toast.makeText(this, "Every cell is marked - check your solution!", Toast.LENGTH_SHORT).show();
+            return;
         }
-        
-        cell.setBackground(shape);
-    
-        if (!isValid) {
-            cell.startAnimation(AnimationUtils.loadAnimation(this, R.anim.shake));
-            Toast.makeText(this, "Invalid move!", Toast.LENGTH_SHORT).show();
+        String[][] categories = gameLogic.getCategories();
+        String cell = categories[hint.categoryA][hint.itemA] + " / " + categories[hint.categoryB][hint.itemB];
+        String mark = hint.state == GameLogic.YES ? "YES" : "NO";
+        String message;
+        if (hint.kind == HintEngine.Hint.MISTAKE) {
+            message = "Check " + cell + " - it should be " + mark;
+        } else if (hint.kind == HintEngine.Hint.REVEAL) {
+            message = cell + " is " + mark;
+        } else if (hint.clue == HintEngine.GRID_RULE) {
+            message = cell + " must be " + mark + " (one match per row and column)";
+        } else {
+            message = "Clue " + (hint.clue + 1) + " means " + cell + " is " + mark;
         }
+        messageText.setText(message);
+        messageText.setTextColor(ContextCompat.getColor(this, R.color.primary));
     }
 
     private void updateClues() {
-        cluesList.removeAllViews();
-        String[] clues = gameLogic.getClues();
-        
-        for (int i = 0; i < clues.length; i++) {
-            TextView clueView = new TextView(this);
-            String clueNumber = (i + 1) + ". ";
-            clueView.setText(clueNumber + clues[i]);
-            clueView.setTextSize(16);
-            clueView.setPadding(24, 16, 24, 16);
-            clueView.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
-            clueView.setLineSpacing(8, 1);
-            
-            // Create rounded background for clue items
-            GradientDrawable shape = new GradientDrawable();
-            shape.setShape(GradientDrawable.RECTANGLE);
-            shape.setColor(ContextCompat.getColor(this, R.color.clue_item_background));
-            shape.setCornerRadius(12 * getResources().getDisplayMetrics().density);
-            shape.setStroke(1, ContextCompat.getColor(this, R.color.primary_light));
-            clueView.setBackground(shape);
-            
-            // Add elevation for a card-like effect
-            clueView.setElevation(4 * getResources().getDisplayMetrics().density);
-            
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            params.setMargins(16, 8, 16, 8);
-            clueView.setLayoutParams(params);
-            
-            // Add animation when clues appear
-            clueView.setAlpha(0f);
-            clueView.animate()
-                .alpha(1f)
-                .setDuration(300)
-                .setStartDelay(i * 100)
-                .start();
-            
-            cluesList.addView(clueView);
+        long start = Metrics.start();
+        clueAdapter.setClues(gameLogic.getClues());
+        updateClueStatus();
+        UPDATE_CLUES_TIMER.recordSince(start);
+        cluesList.scrollToPosition(0);
+        // One fade for the whole list rather than an animation per row
+        cluesList.setAlpha(0f);
+        cluesList.animate().alpha(1f).setDuration(300).start();
+    }
+
+    // Only rows whose status actually changed are rebound
+    private void updateClueStatus() {
+        int count = clueAdapter.getItemCount();
+        for (int i = 0; i < count; i++) {
+            clueAdapter.setStatus(i, gameLogic.getClueStatus(i));
+        }
+    }
+
+    // Rebinds just the clues the last move changed; true if any of them is now broken
+    private boolean updateChangedClues() {
+        boolean newlyViolated = false;
+        for (int clue : gameLogic.getChangedClues()) {
+            int status = gameLogic.getClueStatus(clue);
+            clueAdapter.setStatus(clue, status);
+            if (status == CompiledClue.VIOLATED) {
+                moveLog.clueViolated(clue, System.currentTimeMillis());
+            } else if (status == CompiledClue.SATISFIED) {
+                moveLog.clueSatisfied(clue, System.currentTimeMillis());
+            }
+            if (status == CompiledClue.VIOLATED) newlyViolated = true;
+        }
+        return newlyViolated;
+    }
+
+    private void showViolatedClues() {
+        StringBuilder message = new StringBuilder("Breaks clue");
+        int[] violated = gameLogic.getViolatedClues();
+        if (violated.length > 1) message.append('s');
+        for (int i = 0; i < violated.length; i++) {
+            message.append(i == 0 ? " " : ", ").append(violated[i] + 1);
         }
+        messageText.setText(message);
+        messageText.setTextColor(ContextCompat.getColor(this, R.color.error));
     }
 
     private void checkSolution() {
+        if (gameLogic == null) return;
         if (!gameLogic.isComplete()) {
             Toast.makeText(this, "Complete the puzzle first!", Toast.LENGTH_SHORT).show();
             return;
         }
 
         boolean isCorrect = gameLogic.checkSolution();
+        moveLog.checked(isCorrect, System.currentTimeMillis());
         messageText.setText(isCorrect ? "Congratulations! Level completed!" : "Try again!");
         messageText.setTextColor(ContextCompat.getColor(this, 
             isCorrect ? R.color.button_green : R.color.error));
 
         if (isCorrect) {
-            // Automatically move to next level or difficulty
-            if (currentLevel == 2) {
-                if (currentDifficulty.equals("EASY")) {
-                    setDifficulty("MEDIUM");
-                } else if (currentDifficulty.equals("MEDIUM")) {
-                    setDifficulty("HARD");
-                }
-            } else {
-                currentLevel++;
-                initializeGame();
-            }
+            // Levels are generated on demand, so there is always a next one at this difficulty
+            currentLevel++;
+            initializeGame();
         }
     }
 }
\ No newline at end of file
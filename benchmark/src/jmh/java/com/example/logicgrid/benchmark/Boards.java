@@ -0,0 +1,61 @@
+package com.example.logicgrid.benchmark;
+
+import com.example.logicgrid.GameLogic;
+
+import java.util.Random;
+
+// Two-category boards of any size with a random solution and a partial fill
+final class Boards {
+    private Boards() {
+    }
+
+    // permutation[row] is the solution column of each row
+    static int[] permutation(int size, long seed) {
+        Random random = new Random(seed);
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) permutation[i] = i;
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = t;
+        }
+        return permutation;
+    }
+
+    static GameLogic newGame(int[] permutation) {
+        int size = permutation.length;
+        String[][] categories = new String[2][size];
+        int[][] solution = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            categories[0][i] = "Row " + i;
+            categories[1][i] = "Col " + i;
+            solution[i][permutation[i]] = GameLogic.YES;
+        }
+        return new GameLogic(size, categories, new String[0], solution);
+    }
+
+    // Marks about `density` of the cells the way a correct player would: YES on
+    // solution cells, NO everywhere else
+    static void fill(GameLogic game, int[] permutation, double density, long seed) {
+        Random random = new Random(seed);
+        int size = permutation.length;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (random.nextDouble() >= density) continue;
+                game.toggleCell(row, col);
+                if (permutation[row] != col) game.toggleCell(row, col);
+            }
+        }
+    }
+
+    // Random cells to toggle, packed as row * size + col
+    static int[] cellOrder(int size, int length, long seed) {
+        Random random = new Random(seed);
+        int[] cells = new int[length];
+        for (int i = 0; i < length; i++) {
+            cells[i] = random.nextInt(size * size);
+        }
+        return cells;
+    }
+}
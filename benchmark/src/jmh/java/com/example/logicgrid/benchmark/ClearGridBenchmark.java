@@ -0,0 +1,51 @@
+package com.example.logicgrid.benchmark;
+
+import com.example.logicgrid.GameLogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * clearGrid on a board refilled before every call. The refill runs outside the
+ * measurement, but per-invocation setup adds timer noise, so compare sizes
+ * against each other rather than reading the absolute numbers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClearGridBenchmark {
+    @Param({"3", "8", "16", "32", "64"})
+    public int size;
+
+    @Param({"0.0", "0.5", "0.95"})
+    public double density;
+
+    private GameLogic game;
+    private int[] permutation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        permutation = Boards.permutation(size, 42);
+        game = Boards.newGame(permutation);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        Boards.fill(game, permutation, density, 7);
+    }
+
+    @Benchmark
+    public GameLogic clearGrid() {
+        game.clearGrid();
+        return game;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.logicgrid.benchmark;
+
+import com.example.logicgrid.GameLogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-move costs of the game core on boards of 3 to 64 items per side, from
+ * empty to nearly full. toggleCell includes validateMove, which it always calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameLogicBenchmark {
+    // Power of two so the cell cursor can wrap with a mask
+    private static final int CELL_ORDER_LENGTH = 4096;
+
+    @Param({"3", "8", "16", "32", "64"})
+    public int size;
+
+    // Fraction of cells marked before measuring
+    @Param({"0.0", "0.5", "0.95"})
+    public double density;
+
+    private GameLogic game;
+    private int[] cells;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        int[] permutation = Boards.permutation(size, 42);
+        game = Boards.newGame(permutation);
+        Boards.fill(game, permutation, density, 7);
+        cells = Boards.cellOrder(size, CELL_ORDER_LENGTH, 11);
+    }
+
+    // Each cell cycles EMPTY -> YES -> NO, so the fill drifts but stays near `density` on average
+    @Benchmark
+    public boolean toggleCell() {
+        int cell = cells[cursor++ & (CELL_ORDER_LENGTH - 1)];
+        return game.toggleCell(cell / size, cell % size);
+    }
+
+    @Benchmark
+    public boolean checkSolution() {
+        return game.checkSolution();
+    }
+
+    @Benchmark
+    public boolean isComplete() {
+        return game.isComplete();
+    }
+}
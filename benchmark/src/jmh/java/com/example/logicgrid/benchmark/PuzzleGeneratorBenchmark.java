@@ -0,0 +1,59 @@
+package com.example.logicgrid.benchmark;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puzzle generation. Generation time varies a lot between seeds, so every call
+ * uses the next seed and the score is the average over many different puzzles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PuzzleGeneratorBenchmark {
+    @State(Scope.Thread)
+    public static class Sized {
+        @Param({"3", "8", "16", "32", "64"})
+        public int size;
+
+        @Param({"EASY", "HARD"})
+        public String difficulty;
+
+        PuzzleGenerator generator;
+        long seed;
+
+        @Setup
+        public void setUp() {
+            generator = new PuzzleGenerator(2, size, difficulty);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Levels {
+        @Param({"EASY", "HARD"})
+        public String difficulty;
+
+        int level;
+    }
+
+    @Benchmark
+    public GameLogic.PuzzleData generate(Sized state) {
+        return state.generator.generate(state.seed++);
+    }
+
+    // The app's entry point, always a 2 x 3 puzzle
+    @Benchmark
+    public GameLogic.PuzzleData generatePuzzle(Levels state) {
+        return GameLogic.generatePuzzle(state.difficulty, ++state.level);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.logicgrid;
+
+import java.util.Arrays;
+
+public class BitGrid {
+    private final int size;
+    private final int words;
+
+    // Row masks are indexed [row * words + col / 64], column masks [col * words + row / 64]
+    private final long[] rowYes;
+    private final long[] rowNo;
+    private final long[] colYes;
+    private final long[] colNo;
+
+    private final int[] rowYesCount;
+    private final int[] colYesCount;
+    // Which rows/columns hold at least one YES, one bit per line
+    private final long[] rowsWithYes;
+    private final long[] colsWithYes;
+    private int yesCount;
+    // Number of rows/columns currently holding more than one YES
+    private int overfullRows;
+    private int overfullCols;
+
+    public BitGrid(int size) {
+        this.size = size;
+        this.words = (size + 63) >>> 6;
+        this.rowYes = new long[size * words];
+        this.rowNo = new long[size * words];
+        this.colYes = new long[size * words];
+        this.colNo = new long[size * words];
+        this.rowYesCount = new int[size];
+        this.colYesCount = new int[size];
+        this.rowsWithYes = new long[words];
+        this.colsWithYes = new long[words];
+    }
+
+    private BitGrid(BitGrid other) {
+        this.size = other.size;
+        this.words = other.words;
+        this.rowYes = other.rowYes.clone();
+        this.rowNo = other.rowNo.clone();
+        this.colYes = other.colYes.clone();
+        this.colNo = other.colNo.clone();
+        this.rowYesCount = other.rowYesCount.clone();
+        this.colYesCount = other.colYesCount.clone();
+        this.rowsWithYes = other.rowsWithYes.clone();
+        this.colsWithYes = other.colsWithYes.clone();
+        this.yesCount = other.yesCount;
+        this.overfullRows = other.overfullRows;
+        this.overfullCols = other.overfullCols;
+    }
+
+    public BitGrid copy() {
+        return new BitGrid(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int wordsPerLine() {
+        return words;
+    }
+
+    public int get(int row, int col) {
+        int index = row * words + (col >>> 6);
+        long bit = 1L << col;
+        if ((rowYes[index] & bit) != 0) return GameLogic.YES;
+        if ((rowNo[index] & bit) != 0) return GameLogic.NO;
+        return GameLogic.EMPTY;
+    }
+
+    public int set(int row, int col, int state) {
+        int old = get(row, col);
+        if (old == state) return old;
+
+        int rowIndex = row * words + (col >>> 6);
+        int colIndex = col * words + (row >>> 6);
+        long rowBit = 1L << col;
+        long colBit = 1L << row;
+
+        if (old == GameLogic.YES) {
+            rowYes[rowIndex] &= ~rowBit;
+            colYes[colIndex] &= ~colBit;
+            if (rowYesCount[row]-- == 2) overfullRows--;
+            if (colYesCount[col]-- == 2) overfullCols--;
+            if (rowYesCount[row] == 0) rowsWithYes[row >>> 6] &= ~colBit;
+            if (colYesCount[col] == 0) colsWithYes[col >>> 6] &= ~rowBit;
+            yesCount--;
+        } else if (old == GameLogic.NO) {
+            rowNo[rowIndex] &= ~rowBit;
+            colNo[colIndex] &= ~colBit;
+        }
+
+        if (state == GameLogic.YES) {
+            rowYes[rowIndex] |= rowBit;
+            colYes[colIndex] |= colBit;
+            if (++rowYesCount[row] == 2) overfullRows++;
+            if (++colYesCount[col] == 2) overfullCols++;
+            rowsWithYes[row >>> 6] |= colBit;
+            colsWithYes[col >>> 6] |= rowBit;
+            yesCount++;
+        } else if (state == GameLogic.NO) {
+            rowNo[rowIndex] |= rowBit;
+            colNo[colIndex] |= colBit;
+        }
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(rowYes, 0L);
+        Arrays.fill(rowNo, 0L);
+        Arrays.fill(colYes, 0L);
+        Arrays.fill(colNo, 0L);
+        Arrays.fill(rowYesCount, 0);
+        Arrays.fill(colYesCount, 0);
+        Arrays.fill(rowsWithYes, 0L);
+        Arrays.fill(colsWithYes, 0L);
+        yesCount = 0;
+        overfullRows = 0;
+        overfullCols = 0;
+    }
+
+    public int rowYesCount(int row) {
+        return rowYesCount[row];
+    }
+
+    public int colYesCount(int col) {
+        return colYesCount[col];
+    }
+
+    public int yesCount() {
+        return yesCount;
+    }
+
+    public boolean hasOverfullLine() {
+        return overfullRows != 0 || overfullCols != 0;
+    }
+
+    public long rowsWithYesWord(int word) {
+        return rowsWithYes[word];
+    }
+
+    public long colsWithYesWord(int word) {
+        return colsWithYes[word];
+    }
+
+    public long rowYesWord(int row, int word) {
+        return rowYes[row * words + word];
+    }
+
+    public long rowNoWord(int row, int word) {
+        return rowNo[row * words + word];
+    }
+
+    public long colYesWord(int col, int word) {
+        return colYes[col * words + word];
+    }
+
+    public long colNoWord(int col, int word) {
+        return colNo[col * words + word];
+    }
+
+    // Lowest column marked YES in the row, or -1
+    public int firstYesInRow(int row) {
+        for (int w = 0; w < words; w++) {
+            long word = rowYes[row * words + w];
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+
+    // Lowest row marked YES in the column, or -1
+    public int firstYesInCol(int col) {
+        for (int w = 0; w < words; w++) {
+            long word = colYes[col * words + w];
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.logicgrid;
+
+import com.example.logicgrid.clue.ClueGrid;
+
+/**
+ * Immutable view of a game's marks at one version, safe to read from any thread. The
+ * blocks are private copies taken by GameLogic.snapshot(), so the game's moves never
+ * touch them and taking a snapshot is the only time a reader costs an allocation.
+ */
+public final class BoardSnapshot implements ClueGrid {
+    private final long version;
+    private final long stateHash;
+    private final int categoryCount;
+    private final int size;
+    private final BitGrid[] blocks;
+
+    BoardSnapshot(long version, long stateHash, int categoryCount, int size, BitGrid[] blocks) {
+        this.version = version;
+        this.stateHash = stateHash;
+        this.categoryCount = categoryCount;
+        this.size = size;
+        this.blocks = blocks;
+    }
+
+    // Compare with GameLogic.getVersion() to see whether the board has moved on
+    public long getVersion() {
+        return version;
+    }
+
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCellState(int categoryA, int itemA, int categoryB, int itemB) {
+        if (categoryA > categoryB) return getCellState(categoryB, itemB, categoryA, itemA);
+        return block(categoryA, categoryB).get(itemA, itemB);
+    }
+
+    // Read-only: the snapshot stays valid only as long as nobody writes to its blocks
+    @Override
+    public BitGrid block(int categoryA, int categoryB) {
+        return blocks[categoryA * (2 * categoryCount - categoryA - 1) / 2 + (categoryB - categoryA - 1)];
+    }
+}
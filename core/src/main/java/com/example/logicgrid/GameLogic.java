@@ -0,0 +1,767 @@
+package com.example.logicgrid;
+
+import com.example.logicgrid.clue.Clue;
+import com.example.logicgrid.clue.ClueGrid;
+import com.example.logicgrid.clue.ClueIndex;
+import com.example.logicgrid.clue.ClueParser;
+import com.example.logicgrid.clue.CompiledClue;
+import com.example.logicgrid.generator.ClueMinimizer;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.metrics.Counter;
+import com.example.logicgrid.metrics.LatencyHistogram;
+import com.example.logicgrid.metrics.Metrics;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.DifficultyRater;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * One game in progress. Mutating calls (toggles, clears, undo/redo, checkpoints,
+ * restore) belong to a single writer thread, normally the UI thread. Other threads read
+ * through {@link #snapshot()}, which copies the board under a seqlock: writes hold it
+ * for the length of one move without allocating, and a reader that overlapped a write
+ * retries, so readers never see half a move and a tap never waits on them.
+ */
+public class GameLogic implements ClueGrid {
+    public static final int EMPTY = 0;
+    public static final int YES = 1;
+    public static final int NO = 2;
+    // Candidate puzzles generatePuzzle rates before settling for the closest one
+    private static final int TIER_ATTEMPTS = 64;
+    // Undo steps kept at least, more on boards where clearing alone would need more
+    private static final int MIN_HISTORY = 1024;
+    // Optimistic copies snapshot() tries before taking the read lock
+    private static final int OPTIMISTIC_READS = 4;
+
+    // Hot-path timings, recorded only while Metrics is enabled
+    private static final LatencyHistogram TOGGLE_TIMER = Metrics.timer("game.toggleCell");
+    private static final LatencyHistogram VALIDATE_TIMER = Metrics.timer("game.validateMove");
+    private static final LatencyHistogram CHECK_TIMER = Metrics.timer("game.checkSolution");
+    private static final LatencyHistogram GENERATE_TIMER = Metrics.timer("game.generatePuzzle");
+    private static final LatencyHistogram BATCH_TIMER = Metrics.timer("game.applyChanges");
+    private static final Counter INVALID_MOVES = Metrics.counter("game.invalidMoves");
+    
+    private final int size;
+    private final int categoryCount;
+    // One block per category pair (a < b), rows are items of a and columns items of b
+    private final BitGrid[] blocks;
+    // Blocks also held by a checkpoint; the next write to one copies it first
+    private final boolean[] shared;
+    // Categories of each block, by pair index
+    private final int[] pairCategoryA;
+    private final int[] pairCategoryB;
+    private final String[][] categories;
+    private final String[] clues;
+    private final int[][] solution;
+    // Solution YES cells of each block packed like its rows, and how many the player currently has
+    private final long[][] solutionRows;
+    private final int solutionYesCount;
+    private int solutionHits;
+    // Zobrist hash of every mark on the board, kept up to date by setCell
+    private long stateHash;
+    private final TransitiveLinks links;
+    // Parsed clues as grid checks; null entries are display-only text
+    private final CompiledClue[] compiledClues;
+    // Clue statuses, updated per move for just the clues that read the changed cells
+    private final ClueIndex clueIndex;
+    private final MoveHistory history;
+    // Held for writing by every change; snapshot() reads optimistically and validates
+    private final StampedLock lock = new StampedLock();
+    // Bumped by every change; read from any thread
+    private volatile long version;
+    private final Map<String, BitGrid[]> checkpoints = new HashMap<>();
+    // Row and column checks already made by the current applyChanges call, stamped with the
+    // call, at ((pair * size + line) * 2 + isColumn)
+    private final int[] lineStamp;
+    private final boolean[] lineBad;
+    private int batch;
+
+    public GameLogic(int size, String[][] categories, String[] clues, int[][] solution) {
+        this(categories, clues, toAssignment(size, solution), solution);
+    }
+
+    public GameLogic(PuzzleData data) {
+        this(data.categories, data.clues, data.assignment, data.solution);
+    }
+
+    private GameLogic(String[][] categories, String[] clues, int[][] assignment, int[][] solution) {
+        this.size = assignment[0].length;
+        this.categoryCount = categories.length;
+        this.categories = categories;
+        this.clues = clues;
+        this.solution = solution;
+
+        int pairs = categoryCount * (categoryCount - 1) / 2;
+        // Every move is recorded in MoveHistory after the board changes, so a board too big
+        // to record must be turned away here rather than fail halfway through a move
+        if (size > MoveHistory.MAX_SIZE || pairs > MoveHistory.MAX_PAIRS) {
+            throw new IllegalArgumentException("Board of " + categoryCount + " categories of " + size
+                    + " items is too large; at most " + MoveHistory.MAX_SIZE + " items and "
+                    + MoveHistory.MAX_PAIRS + " category pairs");
+        }
+        this.blocks = new BitGrid[pairs];
+        this.shared = new boolean[pairs];
+        this.solutionRows = new long[pairs][];
+        for (int i = 0; i < pairs; i++) {
+            blocks[i] = new BitGrid(size);
+        }
+        this.pairCategoryA = new int[pairs];
+        this.pairCategoryB = new int[pairs];
+
+        // Entity e pairs item assignment[a][e] with item assignment[b][e] in block (a, b)
+        int words = blocks[0].wordsPerLine();
+        for (int a = 0; a < categoryCount; a++) {
+            for (int b = a + 1; b < categoryCount; b++) {
+                pairCategoryA[pairIndex(a, b)] = a;
+                pairCategoryB[pairIndex(a, b)] = b;
+                long[] rows = new long[size * words];
+                for (int e = 0; e < size; e++) {
+                    int row = assignment[a][e];
+                    int col = assignment[b][e];
+                    rows[row * words + (col >>> 6)] |= 1L << col;
+                }
+                solutionRows[pairIndex(a, b)] = rows;
+            }
+        }
+        this.solutionYesCount = pairs * size;
+        this.links = new TransitiveLinks(categoryCount, size);
+        this.history = new MoveHistory(Math.max(MIN_HISTORY, 2 * pairs * size * size));
+        this.lineStamp = new int[2 * pairs * size];
+        this.lineBad = new boolean[2 * pairs * size];
+
+        Clue[] parsed = new ClueParser(categories).parseAll(clues);
+        this.compiledClues = new CompiledClue[parsed.length];
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] != null) compiledClues[i] = parsed[i].compile(size);
+        }
+        this.clueIndex = new ClueIndex(categoryCount, size, compiledClues);
+        clueIndex.refreshAll(this);
+        clueIndex.beginMove();
+    }
+
+    static int[][] toAssignment(int size, int[][] solution) {
+        int[][] assignment = new int[2][size];
+        for (int i = 0; i < size; i++) {
+            assignment[0][i] = i;
+            for (int j = 0; j < size; j++) {
+                if (solution[i][j] == YES) assignment[1][i] = j;
+            }
+        }
+        return assignment;
+    }
+
+    private int pairIndex(int a, int b) {
+        return a * (2 * categoryCount - a - 1) / 2 + (b - a - 1);
+    }
+
+    public boolean toggleCell(int row, int col) {
+        return toggleCell(0, row, 1, col);
+    }
+
+    public boolean toggleCell(int categoryA, int itemA, int categoryB, int itemB) {
+        if (categoryA > categoryB) return toggleCell(categoryB, itemB, categoryA, itemA);
+        if (!isCell(categoryA, itemA, categoryB, itemB)) {
+            throw new IllegalArgumentException("No such cell: " + categoryA + "/" + itemA + " x "
+                    + categoryB + "/" + itemB);
+        }
+        long stamp = lock.writeLock();
+        try {
+            long start = Metrics.start();
+            int pair = pairIndex(categoryA, categoryB);
+            int old = blocks[pair].get(itemA, itemB);
+            int state = (old + 1) % 3;
+            setCell(pair, itemA, itemB, state);
+            history.record(MoveHistory.pack(pair, itemA, itemB, old, state), false);
+            clueIndex.beginMove();
+            clueIndex.cellChanged(this, categoryA, categoryB, itemA, itemB);
+
+            int a = links.node(categoryA, itemA);
+            int b = links.node(categoryB, itemB);
+            boolean consistent = true;
+            if (state == YES) {
+                boolean apart = isApart(a, b);
+                consistent = links.union(a, b) && !apart;
+            } else if (old == YES) {
+                links.rebuild(blocks);
+                consistent = links.find(a) != links.find(b) || links.isClashed(a);
+            }
+            // Rule 4: with three or more categories a mark must also agree with what the
+            // other blocks imply; with two, rows and columns already say everything
+            boolean valid = validateMove(itemA, itemB, pair) && (categoryCount == 2 || consistent);
+            if (!valid) Metrics.count(INVALID_MOVES);
+            TOGGLE_TIMER.recordSince(start);
+            return valid;
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    // A change for applyChanges: set (categoryA, itemA) x (categoryB, itemB) to `state`
+    public int packChange(int categoryA, int itemA, int categoryB, int itemB, int state) {
+        if (categoryA > categoryB) return packChange(categoryB, itemB, categoryA, itemA, state);
+        if (!isCell(categoryA, itemA, categoryB, itemB) || state < EMPTY || state > NO) {
+            throw new IllegalArgumentException("No such change: " + categoryA + "/" + itemA + " x "
+                    + categoryB + "/" + itemB + " = " + state);
+        }
+        return MoveHistory.pack(pairIndex(categoryA, categoryB), itemA, itemB, EMPTY, state);
+    }
+
+    // Whether (categoryA, itemA) x (categoryB, itemB) is a cell of the board, with categoryA < categoryB
+    private boolean isCell(int categoryA, int itemA, int categoryB, int itemB) {
+        return categoryA < categoryB && categoryA >= 0 && categoryB < categoryCount
+                && itemA >= 0 && itemA < size && itemB >= 0 && itemB < size;
+    }
+
+    // Sets many cells as one move, e.g. a drag or "X out the rest of this row": one undo
+    // step, one clue pass, one snapshot, and each touched row and column checked once at
+    // the end rather than per cell. Later changes to the same cell win. Nothing is applied
+    // if any change is malformed
+    public BatchResult applyChanges(int[] changes) {
+        long start = Metrics.start();
+        for (int change : changes) {
+            if (MoveHistory.pair(change) >= blocks.length || MoveHistory.row(change) >= size
+                    || MoveHistory.col(change) >= size || MoveHistory.newState(change) > NO) {
+                throw new IllegalArgumentException("Not a change from packChange: " + Integer.toHexString(change));
+            }
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            clueIndex.beginMove();
+            boolean linked = false;
+            boolean yesRemoved = false;
+            int changed = 0;
+            for (int change : changes) {
+                int pair = MoveHistory.pair(change);
+                int row = MoveHistory.row(change);
+                int col = MoveHistory.col(change);
+                int state = MoveHistory.newState(change);
+                int old = blocks[pair].get(row, col);
+                if (old == state) continue;
+                setCell(pair, row, col, state);
+                history.record(MoveHistory.pack(pair, row, col, old, state), linked);
+                linked = true;
+                changed++;
+                if (old == YES) {
+                    yesRemoved = true;
+                } else if (state == YES && !yesRemoved) {
+                    links.union(links.node(pairCategoryA[pair], row), links.node(pairCategoryB[pair], col));
+                }
+            }
+            if (yesRemoved) links.rebuild(blocks);
+
+            batch++;
+            clueIndex.beginCheck();
+            int[] violations = new int[changes.length];
+            int count = 0;
+            for (int change : changes) {
+                int pair = MoveHistory.pair(change);
+                int row = MoveHistory.row(change);
+                int col = MoveHistory.col(change);
+                clueIndex.recheckCell(this, pairCategoryA[pair], pairCategoryB[pair], row, col);
+                if (!holds(pair, row, col)) violations[count++] = change;
+            }
+            if (count > 0) Metrics.count(INVALID_MOVES);
+            BATCH_TIMER.recordSince(start);
+            return new BatchResult(changed, Arrays.copyOf(violations, count));
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    // Whether the cell's current mark keeps the rules, judged on the whole board
+    private boolean holds(int pair, int row, int col) {
+        int state = blocks[pair].get(row, col);
+        if (state == EMPTY) return true;
+        int a = links.node(pairCategoryA[pair], row);
+        int b = links.node(pairCategoryB[pair], col);
+        if (state == NO) return categoryCount == 2 || links.find(a) != links.find(b) || links.isClashed(a);
+        if (lineBad(pair, row, false) || lineBad(pair, col, true)) return false;
+        return categoryCount == 2 || groupHolds(links.find(a));
+    }
+
+    private boolean lineBad(int pair, int line, boolean column) {
+        int slot = ((pair * size + line) << 1) + (column ? 1 : 0);
+        if (lineStamp[slot] != batch) {
+            lineStamp[slot] = batch;
+            BitGrid block = blocks[pair];
+            lineBad[slot] = (column ? block.colYesCount(line) : block.rowYesCount(line)) > 1;
+        }
+        return lineBad[slot];
+    }
+
+    // A YES group is fine unless it holds two items of a category or a NO between members
+    private boolean groupHolds(int root) {
+        if (links.isClashed(root)) return false;
+        for (int c = 0; c < categoryCount; c++) {
+            int mine = links.member(root, c);
+            if (mine < 0) continue;
+            for (int d = c + 1; d < categoryCount; d++) {
+                int theirs = links.member(root, d);
+                if (theirs >= 0 && getCellState(c, mine, d, theirs) == NO) return false;
+            }
+        }
+        return true;
+    }
+
+    private void setCell(int pair, int row, int col, int state) {
+        if (shared[pair]) {
+            blocks[pair] = blocks[pair].copy();
+            shared[pair] = false;
+        }
+        int old = blocks[pair].set(row, col, state);
+        account(pair, row, col, old, state);
+    }
+
+    // Keeps the hash and the solution count in step with a cell going from old to state
+    private void account(int pair, int row, int col, int old, int state) {
+        stateHash ^= Zobrist.key(pair, row, col, old) ^ Zobrist.key(pair, row, col, state);
+        if (old != YES && state != YES) return;
+        if ((solutionRows[pair][row * blocks[pair].wordsPerLine() + (col >>> 6)] & (1L << col)) == 0) return;
+        if (state == YES) solutionHits++;
+        else if (old == YES) solutionHits--;
+    }
+
+    private boolean validateMove(int row, int col, int pair) {
+        long start = Metrics.start();
+        BitGrid block = blocks[pair];
+        // Rule 1: Each row must have exactly one YES
+        // Rule 2: Each column must have exactly one YES
+        // Rule 3 (a YES forces the rest of its row and column to be non-YES) is
+        // implied by the two counts
+        boolean valid = block.rowYesCount(row) <= 1 && block.colYesCount(col) <= 1;
+        VALIDATE_TIMER.recordSince(start);
+        return valid;
+    }
+
+    public boolean checkSolution() {
+        long start = Metrics.start();
+        // Every solution YES is currently marked YES
+        boolean solved = solutionHits == solutionYesCount;
+        CHECK_TIMER.recordSince(start);
+        return solved;
+    }
+
+    public boolean isComplete() {
+        // Check if all cells are filled
+        int yesCount = 0;
+        for (BitGrid block : blocks) {
+            yesCount += block.yesCount();
+        }
+        return yesCount == size * blocks.length;
+    }
+
+    public void clearGrid() {
+        long stamp = lock.writeLock();
+        try {
+            // Recorded as one move so a clear can be undone
+            boolean linked = false;
+            for (int pair = 0; pair < blocks.length; pair++) {
+                linked = recordDiff(pair, blocks[pair], null, linked);
+                if (shared[pair]) {
+                    blocks[pair] = new BitGrid(size);
+                    shared[pair] = false;
+                } else {
+                    blocks[pair].clear();
+                }
+            }
+            solutionHits = 0;
+            stateHash = 0;
+            links.reset();
+            clueIndex.beginMove();
+            clueIndex.refreshAll(this);
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    // A copy of the board as of the last completed change; callable from any thread
+    public BoardSnapshot snapshot() {
+        for (int attempt = 0; attempt < OPTIMISTIC_READS; attempt++) {
+            // Zero while a move is being written
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) continue;
+            BoardSnapshot copy = copyBoard();
+            if (lock.validate(stamp)) return copy;
+        }
+        // Moves keep overlapping the copy; wait for a gap instead
+        long stamp = lock.readLock();
+        try {
+            return copyBoard();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // May see a move half written unless the caller validates or holds the read lock
+    private BoardSnapshot copyBoard() {
+        BitGrid[] copies = new BitGrid[blocks.length];
+        for (int pair = 0; pair < blocks.length; pair++) {
+            copies[pair] = blocks[pair].copy();
+        }
+        return new BoardSnapshot(version, stateHash, categoryCount, size, copies);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Ends a move started with lock.writeLock(); writer thread only
+    private void endWrite(long stamp) {
+        version++;
+        lock.unlockWrite(stamp);
+    }
+
+    // Every cell at 2 bits, four to a byte, block by block in row-major order
+    public byte[] getPackedCells() {
+        byte[] packed = new byte[(blocks.length * size * size + 3) / 4];
+        int cell = 0;
+        for (BitGrid block : blocks) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++, cell++) {
+                    packed[cell >>> 2] |= block.get(row, col) << ((cell & 3) << 1);
+                }
+            }
+        }
+        return packed;
+    }
+
+    // Up to `max` of the latest recorded changes, for restore()
+    public int[] getHistoryTail(int max) {
+        return history.tail(max);
+    }
+
+    // Replaces the board with packed cells from getPackedCells() and the undo history with a
+    // tail from getHistoryTail(); redo steps and checkpoints are dropped
+    public void restore(byte[] packedCells, int[] historyTail) {
+        if (packedCells.length != (blocks.length * size * size + 3) / 4) {
+            throw new IllegalArgumentException("Packed cells do not fit a " + categoryCount + "x" + size + " board");
+        }
+        // Everything is checked before the board is touched, so a bad save leaves it as it was
+        for (int cell = 0; cell < blocks.length * size * size; cell++) {
+            int state = (packedCells[cell >>> 2] >>> ((cell & 3) << 1)) & 3;
+            if (state > NO) throw new IllegalArgumentException("Bad cell state " + state + " at cell " + cell);
+        }
+        for (int change : historyTail) {
+            if (MoveHistory.pair(change) >= blocks.length || MoveHistory.row(change) >= size
+                    || MoveHistory.col(change) >= size || MoveHistory.oldState(change) > NO
+                    || MoveHistory.newState(change) > NO) {
+                throw new IllegalArgumentException("Bad history change " + Integer.toHexString(change));
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (int pair = 0; pair < blocks.length; pair++) {
+                blocks[pair] = new BitGrid(size);
+                shared[pair] = false;
+            }
+            solutionHits = 0;
+            stateHash = 0;
+            checkpoints.clear();
+            int cell = 0;
+            for (int pair = 0; pair < blocks.length; pair++) {
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++, cell++) {
+                        int state = (packedCells[cell >>> 2] >>> ((cell & 3) << 1)) & 3;
+                        if (state == EMPTY) continue;
+                        setCell(pair, row, col, state);
+                    }
+                }
+            }
+            links.rebuild(blocks);
+            history.load(historyTail);
+            clueIndex.beginMove();
+            clueIndex.refreshAll(this);
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    // Takes back the last move (a toggle, a clear or a checkpoint restore); false if there is none
+    public boolean undo() {
+        if (!history.canUndo()) return false;
+        long stamp = lock.writeLock();
+        try {
+            clueIndex.beginMove();
+            boolean rebuild = false;
+            int change;
+            do {
+                change = history.undo();
+                rebuild |= replay(change, MoveHistory.newState(change), MoveHistory.oldState(change));
+            } while (MoveHistory.isLinked(change) && history.canUndo());
+            if (rebuild) links.rebuild(blocks);
+            return true;
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    public boolean redo() {
+        if (!history.canRedo()) return false;
+        long stamp = lock.writeLock();
+        try {
+            clueIndex.beginMove();
+            boolean rebuild = false;
+            do {
+                int change = history.redo();
+                rebuild |= replay(change, MoveHistory.oldState(change), MoveHistory.newState(change));
+            } while (history.nextIsLinked());
+            if (rebuild) links.rebuild(blocks);
+            return true;
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    // Applies one recorded change; true when a YES went away and the links need a rebuild
+    private boolean replay(int change, int from, int to) {
+        int pair = MoveHistory.pair(change);
+        int row = MoveHistory.row(change);
+        int col = MoveHistory.col(change);
+        setCell(pair, row, col, to);
+        clueIndex.cellChanged(this, pairCategoryA[pair], pairCategoryB[pair], row, col);
+        if (to == YES) {
+            links.union(links.node(pairCategoryA[pair], row), links.node(pairCategoryB[pair], col));
+        }
+        return from == YES;
+    }
+
+    // Remembers the board under `name`. Blocks are shared with the live board until
+    // either side changes them, so a checkpoint costs nothing up front
+    public void saveCheckpoint(String name) {
+        checkpoints.put(name, blocks.clone());
+        Arrays.fill(shared, true);
+    }
+
+    public boolean hasCheckpoint(String name) {
+        return checkpoints.containsKey(name);
+    }
+
+    public void removeCheckpoint(String name) {
+        checkpoints.remove(name);
+    }
+
+    // Puts the board back to a checkpoint as one undoable move; false if there is no such checkpoint
+    public boolean restoreCheckpoint(String name) {
+        BitGrid[] saved = checkpoints.get(name);
+        if (saved == null) return false;
+        long stamp = lock.writeLock();
+        try {
+            boolean linked = false;
+            for (int pair = 0; pair < blocks.length; pair++) {
+                // Blocks nobody touched since the checkpoint are still the same object
+                if (blocks[pair] == saved[pair]) continue;
+                linked = recordDiff(pair, blocks[pair], saved[pair], linked);
+                blocks[pair] = saved[pair];
+                shared[pair] = true;
+            }
+            if (linked) links.rebuild(blocks);
+            clueIndex.beginMove();
+            clueIndex.refreshAll(this);
+            return true;
+        } finally {
+            endWrite(stamp);
+        }
+    }
+
+    // Records and accounts for every cell that differs between two versions of a block
+    // (null is an empty block); returns whether anything has been recorded in this move yet
+    private boolean recordDiff(int pair, BitGrid from, BitGrid to, boolean linked) {
+        int words = from.wordsPerLine();
+        for (int row = 0; row < size; row++) {
+            for (int w = 0; w < words; w++) {
+                long marked = from.rowYesWord(row, w) | from.rowNoWord(row, w);
+                if (to != null) marked |= to.rowYesWord(row, w) | to.rowNoWord(row, w);
+                for (; marked != 0; marked &= marked - 1) {
+                    int col = (w << 6) + Long.numberOfTrailingZeros(marked);
+                    int old = from.get(row, col);
+                    int state = to == null ? EMPTY : to.get(row, col);
+                    if (old == state) continue;
+                    if (to != null) account(pair, row, col, old, state);
+                    history.record(MoveHistory.pack(pair, row, col, old, state), linked);
+                    linked = true;
+                }
+            }
+        }
+        return linked;
+    }
+
+    // YES or NO when the player's marks in other blocks force this cell, else EMPTY
+    public int getInferredState(int categoryA, int itemA, int categoryB, int itemB) {
+        if (categoryA == categoryB) return itemA == itemB ? YES : NO;
+        int a = links.node(categoryA, itemA);
+        int b = links.node(categoryB, itemB);
+        if (links.find(a) == links.find(b)) return YES;
+        return isApart(a, b) ? NO : EMPTY;
+    }
+
+    // Groups of a and b hold different items of one category, or the player put a NO between them
+    private boolean isApart(int a, int b) {
+        int ra = links.find(a);
+        int rb = links.find(b);
+        if (ra == rb) return false;
+        for (int c = 0; c < categoryCount; c++) {
+            int mine = links.member(ra, c);
+            int theirs = links.member(rb, c);
+            if (mine >= 0 && theirs >= 0 && mine != theirs) return true;
+        }
+        for (int c = 0; c < categoryCount; c++) {
+            int mine = links.member(ra, c);
+            if (mine < 0) continue;
+            for (int d = 0; d < categoryCount; d++) {
+                int theirs = links.member(rb, d);
+                if (theirs < 0 || d == c) continue;
+                if (getCellState(c, mine, d, theirs) == NO) return true;
+            }
+        }
+        return false;
+    }
+
+    // CompiledClue.SATISFIED / VIOLATED / UNDECIDED for the current marks
+    public int getClueStatus(int index) {
+        return clueIndex.status(index);
+    }
+
+    // Ascending; costs only the number of violated clues
+    public int[] getViolatedClues() {
+        return clueIndex.violatedClues();
+    }
+
+    // Clues whose status the last move (toggle, undo, redo, clear or restore) changed
+    public int[] getChangedClues() {
+        return clueIndex.changedClues();
+    }
+
+    @Override
+    public BitGrid block(int categoryA, int categoryB) {
+        return blocks[pairIndex(categoryA, categoryB)];
+    }
+
+    // Names and clues never change after construction; callers must not modify them
+    public String[] getClues() {
+        return clues;
+    }
+
+    public String[][] getCategories() {
+        return categories;
+    }
+
+    public int getCellState(int row, int col) {
+        return blocks[0].get(row, col);
+    }
+
+    public int getCellState(int categoryA, int itemA, int categoryB, int itemB) {
+        if (categoryA > categoryB) return getCellState(categoryB, itemB, categoryA, itemA);
+        return blocks[pairIndex(categoryA, categoryB)].get(itemA, itemB);
+    }
+
+    // Identifies the current marks; equal boards of one puzzle always hash the same
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    public static class BatchResult {
+        // Cells whose mark actually changed
+        public final int changed;
+        // Changes, as passed in, whose cell now breaks a rule: a second YES in its row or
+        // column, or a mark the other blocks contradict
+        public final int[] violations;
+
+        BatchResult(int changed, int[] violations) {
+            this.changed = changed;
+            this.violations = violations;
+        }
+
+        public boolean isValid() {
+            return violations.length == 0;
+        }
+    }
+
+    public static class PuzzleData {
+        public final String[][] categories;
+        public final String[] clues;
+        public final int[][] solution;
+        // assignment[c][e]: item of category c belonging to entity e (item e of category 0)
+        public final int[][] assignment;
+        // Machine-readable form of the clues for the solver; empty for display-only puzzles
+        public final Constraint[] constraints;
+
+        public PuzzleData(String[][] categories, String[] clues, int[][] solution) {
+            this(categories, clues, solution, new Constraint[0]);
+        }
+
+        public PuzzleData(String[][] categories, String[] clues, int[][] solution, Constraint[] constraints) {
+            this(categories, clues, solution, toAssignment(solution.length, solution), constraints);
+        }
+
+        public PuzzleData(String[][] categories, String[] clues, int[][] solution, int[][] assignment,
+                          Constraint[] constraints) {
+            this.categories = categories;
+            this.clues = clues;
+            this.solution = solution;
+            this.assignment = assignment;
+            this.constraints = constraints;
+        }
+    }
+
+    public static PuzzleData generatePuzzle(String difficulty, int level) {
+        return generatePuzzleFromSeed(difficulty, levelSeed(difficulty, level));
+    }
+
+    // Each (difficulty, level) maps to a fixed run of seeds, so a level is the same puzzle on every run
+    public static long levelSeed(String difficulty, int level) {
+        return PuzzleGenerator.seedFor(difficulty.hashCode(), level);
+    }
+
+    public static PuzzleData generatePuzzleFromSeed(String difficulty, long seed) {
+        if (!difficulty.equals("EASY") && !difficulty.equals("MEDIUM") && !difficulty.equals("HARD")) {
+            return null;
+        }
+        long start = Metrics.start();
+        PuzzleData data = generateInTier(difficulty, seed);
+        GENERATE_TIMER.recordSince(start);
+        return data;
+    }
+
+    private static PuzzleData generateInTier(String difficulty, long seed) {
+        PuzzleGenerator generator = new PuzzleGenerator(2, 3, difficulty);
+        ClueMinimizer minimizer = new ClueMinimizer();
+        DifficultyRater rater = new DifficultyRater();
+        // The label is measured, not trusted: keep the first candidate the rater puts in this
+        // tier, or the closest one seen if none lands there
+        boolean easy = difficulty.equals("EASY");
+        PuzzleData best = null;
+        int bestScore = 0;
+        for (int attempt = 0; attempt < TIER_ATTEMPTS; attempt++) {
+            // Redundant clues go before rating, since dropping them can make a puzzle harder
+            PuzzleData data = minimizer.minimize(
+                    generator.generate(attempt == 0 ? seed : PuzzleGenerator.seedFor(seed, attempt)));
+            DifficultyRater.Rating rating = rater.rate(data);
+            if (rating.tier().equals(difficulty)) return data;
+            if (best == null || (easy ? rating.score < bestScore : rating.score > bestScore)) {
+                best = data;
+                bestScore = rating.score;
+            }
+        }
+        return best;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.logicgrid;
+
+/**
+ * Undo/redo log of cell changes, one packed int each, in a fixed ring. A move may
+ * change several cells (clearing the board, restoring a checkpoint); every change after
+ * the first carries the LINKED bit so the whole move is undone and redone together.
+ * Once the ring is full the oldest move is dropped, so memory stays the same however
+ * long a game runs.
+ *
+ * Change layout: pair index in bits 20-30, row 12-19, column 4-11, old state 2-3,
+ * new state 0-1.
+ */
+class MoveHistory {
+    private static final int LINKED = 1 << 31;
+    // Largest board a change can describe
+    static final int MAX_PAIRS = 0x800;
+    static final int MAX_SIZE = 0x100;
+
+    private final int[] ring;
+    private final int mask;
+    // Positions count up forever and are taken modulo the ring: oldest kept change,
+    // end of the applied changes, end of the changes that can be redone
+    private long start;
+    private long cursor;
+    private long end;
+
+    // Capacity is rounded up to a power of two
+    MoveHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.ring = new int[size];
+        this.mask = size - 1;
+    }
+
+    static int pack(int pair, int row, int col, int oldState, int newState) {
+        if (pair >= MAX_PAIRS || row >= MAX_SIZE || col >= MAX_SIZE) {
+            throw new IllegalArgumentException("Cell out of history range: " + pair + "/" + row + "/" + col);
+        }
+        return pair << 20 | row << 12 | col << 4 | oldState << 2 | newState;
+    }
+
+    static int pair(int change) {
+        return (change >>> 20) & 0x7FF;
+    }
+
+    static int row(int change) {
+        return (change >>> 12) & 0xFF;
+    }
+
+    static int col(int change) {
+        return (change >>> 4) & 0xFF;
+    }
+
+    static int oldState(int change) {
+        return (change >>> 2) & 3;
+    }
+
+    static int newState(int change) {
+        return change & 3;
+    }
+
+    static boolean isLinked(int change) {
+        return (change & LINKED) != 0;
+    }
+
+    // Appends a change, discarding anything that could have been redone. `linked` joins it
+    // to the move recorded just before
+    void record(int change, boolean linked) {
+        if (cursor - start == ring.length) dropOldest();
+        ring[(int) cursor & mask] = linked ? change | LINKED : change;
+        cursor++;
+        end = cursor;
+    }
+
+    // Drops a whole move, so undo never stops halfway through one
+    private void dropOldest() {
+        do {
+            start++;
+        } while (start < cursor && isLinked(ring[(int) start & mask]));
+    }
+
+    boolean canUndo() {
+        return cursor > start;
+    }
+
+    boolean canRedo() {
+        return end > cursor;
+    }
+
+    // Steps back over one change; call again while the returned change is linked
+    int undo() {
+        return ring[(int) --cursor & mask];
+    }
+
+    // Steps forward over one change; call again while nextIsLinked()
+    int redo() {
+        return ring[(int) cursor++ & mask];
+    }
+
+    boolean nextIsLinked() {
+        return cursor < end && isLinked(ring[(int) cursor & mask]);
+    }
+
+    // The last applied moves, at most `max` changes and never starting halfway through a move
+    int[] tail(int max) {
+        long from = Math.max(start, cursor - max);
+        while (from < cursor && isLinked(ring[(int) from & mask])) from++;
+        int[] changes = new int[(int) (cursor - from)];
+        for (int i = 0; i < changes.length; i++) changes[i] = ring[(int) (from + i) & mask];
+        return changes;
+    }
+
+    // Replaces the history with changes from tail(), link bits included
+    void load(int[] changes) {
+        clear();
+        for (int change : changes) record(change & ~LINKED, isLinked(change));
+    }
+
+    void clear() {
+        start = 0;
+        cursor = 0;
+        end = 0;
+    }
+
+    int capacity() {
+        return ring.length;
+    }
+}
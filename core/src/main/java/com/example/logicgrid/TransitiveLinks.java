@@ -0,0 +1,97 @@
+package com.example.logicgrid;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over (category, item) nodes joined by the player's YES marks. Adding a
+ * YES is an incremental union; removing one rebuilds from the packed YES masks, since
+ * union-find cannot split a group. NO consequences are read straight from the player's
+ * NO masks between group members, so NO marks never need a rebuild.
+ */
+class TransitiveLinks {
+    private final int categories;
+    private final int items;
+    private final int[] parent;
+    // memberOf[root * categories + c]: the group's item of category c, or -1
+    private final int[] memberOf;
+    // Roots of groups holding two different items of one category
+    private final boolean[] clashed;
+
+    TransitiveLinks(int categories, int items) {
+        this.categories = categories;
+        this.items = items;
+        this.parent = new int[categories * items];
+        this.memberOf = new int[categories * items * categories];
+        this.clashed = new boolean[categories * items];
+        reset();
+    }
+
+    void reset() {
+        Arrays.fill(memberOf, -1);
+        Arrays.fill(clashed, false);
+        for (int node = 0; node < parent.length; node++) {
+            parent[node] = node;
+            memberOf[node * categories + node / items] = node % items;
+        }
+    }
+
+    int node(int category, int item) {
+        return category * items + item;
+    }
+
+    int find(int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    // Returns false if the merged group now holds two items of one category
+    boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) return !clashed[ra];
+        parent[rb] = ra;
+        boolean clash = clashed[ra] || clashed[rb];
+        for (int c = 0; c < categories; c++) {
+            int mine = memberOf[ra * categories + c];
+            int theirs = memberOf[rb * categories + c];
+            if (mine < 0) {
+                memberOf[ra * categories + c] = theirs;
+            } else if (theirs >= 0 && theirs != mine) {
+                clash = true;
+            }
+        }
+        clashed[ra] = clash;
+        return !clash;
+    }
+
+    boolean isClashed(int node) {
+        return clashed[find(node)];
+    }
+
+    int member(int root, int category) {
+        return memberOf[root * categories + category];
+    }
+
+    void rebuild(BitGrid[] blocks) {
+        reset();
+        int pair = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++, pair++) {
+                BitGrid block = blocks[pair];
+                if (block.yesCount() == 0) continue;
+                for (int row = 0; row < items; row++) {
+                    if (block.rowYesCount(row) == 0) continue;
+                    for (int w = 0; w < block.wordsPerLine(); w++) {
+                        for (long bits = block.rowYesWord(row, w); bits != 0; bits &= bits - 1) {
+                            int col = (w << 6) + Long.numberOfTrailingZeros(bits);
+                            union(node(a, row), node(b, col));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
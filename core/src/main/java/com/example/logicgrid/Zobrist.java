@@ -0,0 +1,27 @@
+package com.example.logicgrid;
+
+/**
+ * Zobrist keys for board states. A board's hash is the XOR of the keys of its marked
+ * cells, so a toggle updates it with two XORs and an empty board hashes to 0. Keys are
+ * derived from the cell coordinates on the fly instead of being kept in a table, so
+ * boards of any size cost no memory.
+ */
+public final class Zobrist {
+    private Zobrist() {
+    }
+
+    // Key of one cell holding a state; EMPTY cells contribute nothing
+    public static long key(int pair, int row, int col, int state) {
+        if (state == GameLogic.EMPTY) return 0;
+        long index = ((((long) pair << 21) | ((long) row << 10) | col) << 2) | state;
+        return mix(index);
+    }
+
+    // SplitMix64 finalizer
+    public static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
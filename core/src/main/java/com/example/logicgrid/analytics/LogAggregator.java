@@ -0,0 +1,272 @@
+package com.example.logicgrid.analytics;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Folds move logs into per-puzzle PuzzleStats in one pass. Only the game being read is
+ * held beyond the stats themselves, so memory grows with the number of distinct puzzles,
+ * never with the size of the logs. Aggregators over different logs merge exactly, which
+ * is how aggregate() spreads many files over every core:
+ *
+ * <pre>
+ * java -cp core.jar com.example.logicgrid.analytics.LogAggregator logs/*.bin &gt; stats.jsonl
+ * </pre>
+ */
+public class LogAggregator {
+    private final Map<String, PuzzleStats> puzzles = new HashMap<>();
+    private long events;
+
+    public static LogAggregator aggregate(File[] logs) throws IOException {
+        if (logs.length == 0) return new LogAggregator();
+        try {
+            return ForkJoinPool.commonPool().invoke(new MergeTask(logs, 0, logs.length));
+        } catch (UncheckedIOException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+    }
+
+    private static class MergeTask extends RecursiveTask<LogAggregator> {
+        private static final long serialVersionUID = 1L;
+
+        private final File[] logs;
+        private final int from;
+        private final int to;
+
+        MergeTask(File[] logs, int from, int to) {
+            this.logs = logs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LogAggregator compute() {
+            if (to - from == 1) {
+                LogAggregator partial = new LogAggregator();
+                try (InputStream in = new FileInputStream(logs[from])) {
+                    partial.add(in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(logs[from] + ": " + e.getMessage(), e);
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            MergeTask right = new MergeTask(logs, mid, to);
+            right.fork();
+            LogAggregator left = new MergeTask(logs, from, mid).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+
+    // Reads one log to its end
+    public void add(InputStream in) throws IOException {
+        MoveLogReader reader = new MoveLogReader(in);
+        Game game = null;
+        while (reader.next()) {
+            events++;
+            if (reader.type == LogFormat.START) {
+                if (game != null) game.finish();
+                game = new Game(stats(reader.difficulty, reader.level), reader.clueCount);
+            } else if (game != null) {
+                game.on(reader);
+            }
+        }
+        if (game != null) game.finish();
+    }
+
+    public void merge(LogAggregator other) {
+        events += other.events;
+        for (PuzzleStats theirs : other.puzzles.values()) {
+            stats(theirs.difficulty, theirs.level).merge(theirs);
+        }
+    }
+
+    private PuzzleStats stats(String difficulty, int level) {
+        String key = difficulty + '/' + level;
+        PuzzleStats stats = puzzles.get(key);
+        if (stats == null) {
+            stats = new PuzzleStats(difficulty, level);
+            puzzles.put(key, stats);
+        }
+        return stats;
+    }
+
+    // Null if no log mentions the puzzle
+    public PuzzleStats getStats(String difficulty, int level) {
+        return puzzles.get(difficulty + '/' + level);
+    }
+
+    public int getPuzzleCount() {
+        return puzzles.size();
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    // One game from its START to the next START or the end of the log
+    private static class Game {
+        private final PuzzleStats stats;
+        private final boolean[] satisfied;
+        private long elapsed;
+        private long moves;
+        private long invalid;
+        private long solvedAt = -1;
+
+        Game(PuzzleStats stats, int clueCount) {
+            this.stats = stats;
+            this.satisfied = new boolean[clueCount];
+            stats.ensureClues(clueCount);
+        }
+
+        void on(MoveLogReader event) {
+            elapsed += event.elapsed;
+            switch (event.type) {
+                case LogFormat.INVALID_MOVE:
+                    invalid++;
+                    moves++;
+                    break;
+                case LogFormat.MOVE:
+                    moves++;
+                    break;
+                case LogFormat.INVALID_BATCH:
+                    invalid++;
+                    stats.batches++;
+                    moves++;
+                    break;
+                case LogFormat.BATCH:
+                    stats.batches++;
+                    moves++;
+                    break;
+                case LogFormat.UNDO:
+                    stats.undos++;
+                    break;
+                case LogFormat.HINT:
+                    stats.hints++;
+                    break;
+                case LogFormat.CHECK_FAILED:
+                    stats.failedChecks++;
+                    break;
+                case LogFormat.SOLVED:
+                    if (solvedAt < 0) solvedAt = elapsed;
+                    break;
+                case LogFormat.CLUE_VIOLATED:
+                    if (event.value >= 0 && event.value < satisfied.length) stats.clueViolations[event.value]++;
+                    break;
+                case LogFormat.CLUE_SATISFIED:
+                    int clue = event.value;
+                    if (clue >= 0 && clue < satisfied.length && !satisfied[clue]) {
+                        satisfied[clue] = true;
+                        stats.clueSatisfiedGames[clue]++;
+                        stats.clueSatisfiedMillis[clue] += elapsed;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        void finish() {
+            stats.games++;
+            stats.moves += moves;
+            stats.invalidMoves += invalid;
+            if (solvedAt >= 0) {
+                stats.solved++;
+                stats.solveMillis.add(solvedAt);
+            }
+            if (moves > 0) stats.errorPermille.add(invalid * 1000 / moves);
+        }
+    }
+
+    // One JSON line per puzzle, by difficulty then level
+    public void writeReport(Writer out) throws IOException {
+        List<PuzzleStats> sorted = new ArrayList<>(puzzles.values());
+        Collections.sort(sorted, new Comparator<PuzzleStats>() {
+            @Override
+            public int compare(PuzzleStats x, PuzzleStats y) {
+                int byDifficulty = x.difficulty.compareTo(y.difficulty);
+                return byDifficulty != 0 ? byDifficulty : Integer.compare(x.level, y.level);
+            }
+        });
+        StringBuilder line = new StringBuilder(256);
+        for (PuzzleStats s : sorted) {
+            line.setLength(0);
+            line.append("{\"difficulty\":");
+            appendQuoted(line, s.difficulty);
+            line.append(",\"level\":").append(s.level)
+                    .append(",\"games\":").append(s.games)
+                    .append(",\"solved\":").append(s.solved)
+                    .append(",\"moves\":").append(s.moves)
+                    .append(",\"invalidMoves\":").append(s.invalidMoves)
+                    .append(",\"batches\":").append(s.batches)
+                    .append(",\"undos\":").append(s.undos)
+                    .append(",\"hints\":").append(s.hints)
+                    .append(",\"failedChecks\":").append(s.failedChecks);
+            appendSketch(line, "solveMillis", s.solveMillis);
+            appendSketch(line, "errorPermille", s.errorPermille);
+            line.append(",\"clueViolations\":").append(Arrays.toString(s.clueViolations).replace(" ", ""));
+            line.append(",\"clueMeanMillis\":[");
+            for (int i = 0; i < s.getClueCount(); i++) {
+                if (i > 0) line.append(',');
+                line.append(s.getClueMeanMillis(i));
+            }
+            out.write(line.append("]}\n").toString());
+        }
+        out.flush();
+    }
+
+    // Difficulty names come from the logs, so they are escaped like any other text
+    private static void appendQuoted(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                line.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                line.append(String.format("\\u%04x", (int) ch));
+            } else {
+                line.append(ch);
+            }
+        }
+        line.append('"');
+    }
+
+    private static void appendSketch(StringBuilder line, String name, QuantileSketch sketch) {
+        line.append(",\"").append(name).append("\":{\"count\":").append(sketch.getCount())
+                .append(",\"p50\":").append(sketch.quantile(0.5))
+                .append(",\"p90\":").append(sketch.quantile(0.9))
+                .append(",\"p99\":").append(sketch.quantile(0.99))
+                .append(",\"max\":").append(sketch.getMax()).append('}');
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LogAggregator log...");
+            System.exit(2);
+        }
+        File[] logs = new File[args.length];
+        for (int i = 0; i < args.length; i++) logs[i] = new File(args[i]);
+        long start = System.nanoTime();
+        LogAggregator aggregator = aggregate(logs);
+        aggregator.writeReport(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        System.err.printf("%d events from %d logs, %d puzzles in %.2f s%n", aggregator.getEvents(), logs.length,
+                aggregator.getPuzzleCount(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.logicgrid.analytics;
+
+/**
+ * Layout of a move log: a plain sequence of events, appended as they happen, so a log
+ * can be cut off anywhere and still read up to its last whole event. Every event is a
+ * type byte and the milliseconds since the previous event of its game as a varint:
+ * <pre>
+ * START          byte version, difficulty (varint length, UTF-8), varint level, varint clueCount
+ * MOVE           varint change (GameLogic.packChange layout), valid or not by type
+ * BATCH          varint cells, valid or not by type
+ * UNDO, REDO, HINT, CHECK_FAILED, SOLVED
+ * CLUE_VIOLATED  varint clue
+ * CLUE_SATISFIED varint clue
+ * </pre>
+ * A START begins a new game; the elapsed time of a START is always 0. A restored game
+ * carries on under its original START. Readers treat a difficulty name longer than
+ * MAX_NAME bytes or more than MAX_CLUES clues as corruption.
+ */
+final class LogFormat {
+    static final int VERSION = 1;
+    static final int MAX_NAME = 64;
+    static final int MAX_CLUES = 4096;
+
+    static final int START = 1;
+    static final int MOVE = 2;
+    static final int INVALID_MOVE = 3;
+    static final int BATCH = 4;
+    static final int INVALID_BATCH = 5;
+    static final int UNDO = 6;
+    static final int REDO = 7;
+    static final int HINT = 8;
+    static final int CLUE_VIOLATED = 9;
+    static final int CLUE_SATISFIED = 10;
+    static final int CHECK_FAILED = 11;
+    static final int SOLVED = 12;
+
+    private LogFormat() {
+    }
+}
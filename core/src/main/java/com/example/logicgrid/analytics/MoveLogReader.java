@@ -0,0 +1,98 @@
+package com.example.logicgrid.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a LogFormat event stream one event at a time into its public fields, which are
+ * overwritten by every next(). Nothing is allocated per event except a START's
+ * difficulty name, so arbitrarily long logs stream through in constant memory. A log
+ * cut off mid-event (the app was killed while writing) ends at its last whole event.
+ */
+public class MoveLogReader {
+    private final InputStream in;
+    private long offset;
+
+    public int type;
+    // Milliseconds since the previous event of the same game
+    public int elapsed;
+    // The change, cell count or clue, for events that carry one
+    public int value;
+    // Set by START
+    public String difficulty;
+    public int level;
+    public int clueCount;
+
+    public MoveLogReader(InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+    }
+
+    // False at the end of the log
+    public boolean next() throws IOException {
+        int first = in.read();
+        if (first < 0) return false;
+        offset++;
+        type = first;
+        try {
+            elapsed = readVarint();
+            switch (type) {
+                case LogFormat.START:
+                    int version = readByte();
+                    if (version != LogFormat.VERSION) throw new IOException("Unknown move log version " + version);
+                    // Both sizes are bounded before anything is allocated from them
+                    int length = readVarint();
+                    if (length < 0 || length > LogFormat.MAX_NAME) throw corrupt("difficulty length " + length);
+                    byte[] name = new byte[length];
+                    for (int i = 0; i < name.length; i++) name[i] = (byte) readByte();
+                    difficulty = new String(name, StandardCharsets.UTF_8);
+                    level = readVarint();
+                    clueCount = readVarint();
+                    if (clueCount < 0 || clueCount > LogFormat.MAX_CLUES) throw corrupt("clue count " + clueCount);
+                    break;
+                case LogFormat.MOVE:
+                case LogFormat.INVALID_MOVE:
+                case LogFormat.BATCH:
+                case LogFormat.INVALID_BATCH:
+                case LogFormat.CLUE_VIOLATED:
+                case LogFormat.CLUE_SATISFIED:
+                    value = readVarint();
+                    break;
+                case LogFormat.UNDO:
+                case LogFormat.REDO:
+                case LogFormat.HINT:
+                case LogFormat.CHECK_FAILED:
+                case LogFormat.SOLVED:
+                    break;
+                default:
+                    throw new IOException("Corrupt move log: event type " + type + " at byte " + (offset - 1));
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private IOException corrupt(String what) {
+        return new IOException("Corrupt move log: " + what + " at byte " + offset);
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException();
+        offset++;
+        return b;
+    }
+
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80) return value;
+        }
+        throw new IOException("Corrupt move log: overlong varint at byte " + offset);
+    }
+}
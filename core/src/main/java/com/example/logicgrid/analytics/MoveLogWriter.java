@@ -0,0 +1,205 @@
+package com.example.logicgrid.analytics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how a game is played as a LogFormat event stream: a move costs two to six bytes
+ * in a buffer that, once full or on flush(), is handed to a background thread for
+ * writing, so recording on the UI thread never touches storage. Buffers are recycled,
+ * so once a game is under way the only allocation is a task per handover. Times are
+ * passed in (wall clock milliseconds), which keeps recording testable. Analytics must
+ * never break a game, so a failed open or write turns the writer off instead of
+ * throwing; getError() says why. Recording is not thread-safe.
+ */
+public class MoveLogWriter implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    // Buffers in rotation at most, allocated as bursts need them; with all of them
+    // queued for writing, new events are dropped
+    private static final int MAX_BUFFERS = 16;
+    // Room for any event but START, whose difficulty name is bounded separately
+    private static final int MAX_EVENT = 16;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private final ArrayBlockingQueue<byte[]> spare = new ArrayBlockingQueue<>(MAX_BUFFERS);
+    private int buffers = 1;
+    // Used only on the writer thread
+    private OutputStream out;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private long lastEvent;
+    private boolean started;
+    private volatile IOException error;
+
+    // Appends to the file, or starts it over once it has grown past `limit` bytes; the
+    // file is opened on the writer thread
+    public MoveLogWriter(final File file, final long limit) {
+        writer.execute(() -> {
+            try {
+                out = new FileOutputStream(file, file.length() < limit);
+            } catch (IOException e) {
+                error = e;
+            }
+        });
+    }
+
+    public MoveLogWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void startGame(String difficulty, int level, int clueCount, long now) {
+        byte[] name = difficulty.getBytes(StandardCharsets.UTF_8);
+        if (name.length > LogFormat.MAX_NAME) {
+            throw new IllegalArgumentException("Difficulty name too long: " + difficulty);
+        }
+        if (clueCount > LogFormat.MAX_CLUES) throw new IllegalArgumentException("Too many clues: " + clueCount);
+        reserve(MAX_EVENT + name.length);
+        buffer[length++] = LogFormat.START;
+        writeVarint(0);
+        buffer[length++] = LogFormat.VERSION;
+        writeVarint(name.length);
+        System.arraycopy(name, 0, buffer, length, name.length);
+        length += name.length;
+        writeVarint(level);
+        writeVarint(clueCount);
+        lastEvent = now;
+        started = true;
+    }
+
+    // Carries on the game last started in this log, e.g. after a restore, without counting
+    // as a new one; time since its last event is not counted when the writer is new
+    public void resumeGame(long now) {
+        if (!started) lastEvent = now;
+        started = true;
+    }
+
+    // `change` as from GameLogic.packChange, with the cell's new state
+    public void move(int change, boolean valid, long now) {
+        event(valid ? LogFormat.MOVE : LogFormat.INVALID_MOVE, now);
+        writeVarint(change);
+    }
+
+    public void batch(int cells, boolean valid, long now) {
+        event(valid ? LogFormat.BATCH : LogFormat.INVALID_BATCH, now);
+        writeVarint(cells);
+    }
+
+    public void undo(long now) {
+        event(LogFormat.UNDO, now);
+    }
+
+    public void redo(long now) {
+        event(LogFormat.REDO, now);
+    }
+
+    public void hint(long now) {
+        event(LogFormat.HINT, now);
+    }
+
+    public void clueViolated(int clue, long now) {
+        event(LogFormat.CLUE_VIOLATED, now);
+        writeVarint(clue);
+    }
+
+    public void clueSatisfied(int clue, long now) {
+        event(LogFormat.CLUE_SATISFIED, now);
+        writeVarint(clue);
+    }
+
+    public void checked(boolean solved, long now) {
+        event(solved ? LogFormat.SOLVED : LogFormat.CHECK_FAILED, now);
+    }
+
+    private void event(int type, long now) {
+        // Events before any START would be attributed to no puzzle
+        if (!started) throw new IllegalStateException("No game started");
+        reserve(MAX_EVENT);
+        buffer[length++] = (byte) type;
+        // A clock that steps backwards records as no time passing
+        writeVarint((int) Math.min(Integer.MAX_VALUE, Math.max(0, now - lastEvent)));
+        lastEvent = Math.max(lastEvent, now);
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void reserve(int bytes) {
+        if (length + bytes > buffer.length) drain();
+    }
+
+    // Hands the buffer to the writer thread and carries on in a spare one
+    private void drain() {
+        if (length == 0) return;
+        byte[] next = null;
+        if (error == null) {
+            next = spare.poll();
+            if (next == null && buffers < MAX_BUFFERS) {
+                next = new byte[BUFFER_SIZE];
+                buffers++;
+            }
+        }
+        if (next != null) {
+            final byte[] full = buffer;
+            final int count = length;
+            writer.execute(() -> {
+                try {
+                    if (error == null) out.write(full, 0, count);
+                } catch (IOException e) {
+                    error = e;
+                }
+                spare.add(full);
+            });
+            buffer = next;
+        }
+        // Otherwise storage is failing or far behind, and the events are dropped
+        length = 0;
+    }
+
+    // Hands buffered events to storage, e.g. when the app goes to the background
+    public void flush() {
+        drain();
+        writer.execute(() -> {
+            try {
+                if (error == null) out.flush();
+            } catch (IOException e) {
+                error = e;
+            }
+        });
+    }
+
+    // The failure that turned recording off, or null
+    public IOException getError() {
+        return error;
+    }
+
+    // Flushes and stops the writer thread; the last writes still complete in the background
+    @Override
+    public void close() {
+        flush();
+        writer.execute(() -> {
+            try {
+                if (out != null) out.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        });
+        writer.shutdown();
+    }
+
+    boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        return writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.logicgrid.analytics;
+
+import java.util.Arrays;
+
+/**
+ * What the move logs say about one puzzle (difficulty and level): how many games were
+ * started and solved, how long solving took and how error-prone it was as quantile
+ * sketches, and per clue how often it was broken and how long players took to first
+ * satisfy it, which is where they stall. Stats from disjoint logs merge exactly.
+ */
+public class PuzzleStats {
+    public final String difficulty;
+    public final int level;
+
+    long games;
+    long solved;
+    long moves;
+    long invalidMoves;
+    long batches;
+    long undos;
+    long hints;
+    long failedChecks;
+    // Per solved game: milliseconds from start to SOLVED
+    final QuantileSketch solveMillis = new QuantileSketch();
+    // Per game with moves: invalid moves per thousand
+    final QuantileSketch errorPermille = new QuantileSketch();
+    long[] clueViolations = new long[0];
+    // Per clue: games in which it was satisfied, and the time that took, summed
+    long[] clueSatisfiedGames = new long[0];
+    long[] clueSatisfiedMillis = new long[0];
+
+    PuzzleStats(String difficulty, int level) {
+        this.difficulty = difficulty;
+        this.level = level;
+    }
+
+    // Clue counts can differ between app versions; keep the largest
+    void ensureClues(int count) {
+        if (count <= clueViolations.length) return;
+        clueViolations = Arrays.copyOf(clueViolations, count);
+        clueSatisfiedGames = Arrays.copyOf(clueSatisfiedGames, count);
+        clueSatisfiedMillis = Arrays.copyOf(clueSatisfiedMillis, count);
+    }
+
+    void merge(PuzzleStats other) {
+        games += other.games;
+        solved += other.solved;
+        moves += other.moves;
+        invalidMoves += other.invalidMoves;
+        batches += other.batches;
+        undos += other.undos;
+        hints += other.hints;
+        failedChecks += other.failedChecks;
+        solveMillis.merge(other.solveMillis);
+        errorPermille.merge(other.errorPermille);
+        ensureClues(other.clueViolations.length);
+        for (int i = 0; i < other.clueViolations.length; i++) {
+            clueViolations[i] += other.clueViolations[i];
+            clueSatisfiedGames[i] += other.clueSatisfiedGames[i];
+            clueSatisfiedMillis[i] += other.clueSatisfiedMillis[i];
+        }
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getSolved() {
+        return solved;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getInvalidMoves() {
+        return invalidMoves;
+    }
+
+    public QuantileSketch getSolveMillis() {
+        return solveMillis;
+    }
+
+    public QuantileSketch getErrorPermille() {
+        return errorPermille;
+    }
+
+    public long getClueViolations(int clue) {
+        return clue < clueViolations.length ? clueViolations[clue] : 0;
+    }
+
+    // Mean time to first satisfy the clue over the games that did, or -1 if none did
+    public long getClueMeanMillis(int clue) {
+        if (clue >= clueSatisfiedGames.length || clueSatisfiedGames[clue] == 0) return -1;
+        return clueSatisfiedMillis[clue] / clueSatisfiedGames[clue];
+    }
+
+    public int getClueCount() {
+        return clueViolations.length;
+    }
+}
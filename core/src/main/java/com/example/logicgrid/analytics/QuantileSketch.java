@@ -0,0 +1,111 @@
+package com.example.logicgrid.analytics;
+
+import com.example.logicgrid.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over non-negative values, using LatencyHistogram's bucket
+ * layout (every reported quantile within about 3% of the true value). Only the range of
+ * buckets between the smallest and largest value seen is stored, so a sketch of solve
+ * times spanning a few minutes is a few hundred bytes. Merging adds counts bucket by
+ * bucket: the result is exactly what one sketch fed every value would hold, whatever
+ * the split and merge order.
+ */
+public class QuantileSketch {
+    private long[] counts = new long[0];
+    // Bucket index of counts[0]
+    private int offset;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void add(long value) {
+        long clamped = value < 0 ? 0 : Math.min(value, LatencyHistogram.MAX_VALUE);
+        int index = LatencyHistogram.index(clamped);
+        cover(index, index);
+        counts[index - offset]++;
+        count++;
+        sum += clamped;
+        min = Math.min(min, clamped);
+        max = Math.max(max, clamped);
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) return;
+        cover(other.offset, other.offset + other.counts.length - 1);
+        for (int i = 0; i < other.counts.length; i++) counts[other.offset + i - offset] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // Grows the stored range to include buckets from..to
+    private void cover(int from, int to) {
+        if (counts.length == 0) {
+            counts = new long[to - from + 1];
+            offset = from;
+            return;
+        }
+        int low = Math.min(from, offset);
+        int high = Math.max(to, offset + counts.length - 1);
+        if (low == offset && high == offset + counts.length - 1) return;
+        long[] grown = new long[high - low + 1];
+        System.arraycopy(counts, 0, grown, offset - low, counts.length);
+        counts = grown;
+        offset = low;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    // Upper edge of the bucket holding quantile q (0-1), kept within the values seen
+    public long quantile(double q) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.max(min, Math.min(LatencyHistogram.highest(offset + i), max));
+        }
+        return max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof QuantileSketch)) return false;
+        QuantileSketch other = (QuantileSketch) o;
+        if (count != other.count || sum != other.sum || min != other.min || max != other.max) return false;
+        // Ranges may differ only by empty buckets at either end
+        for (int index = Math.min(offset, other.offset); index < Math.max(offset + counts.length,
+                other.offset + other.counts.length); index++) {
+            if (bucket(index) != other.bucket(index)) return false;
+        }
+        return true;
+    }
+
+    private long bucket(int index) {
+        int i = index - offset;
+        return i >= 0 && i < counts.length ? counts[i] : 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(new long[] {count, sum, min, max});
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.logicgrid.batch;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.dedup.Fingerprint;
+import com.example.logicgrid.dedup.FingerprintIndex;
+import com.example.logicgrid.dedup.PuzzleCanonicalizer;
+import com.example.logicgrid.generator.ClueMinimizer;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.metrics.LatencyHistogram;
+import com.example.logicgrid.metrics.Metrics;
+import com.example.logicgrid.solver.DifficultyRater;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless bulk generation: generates puzzles on every core, re-checks each one with
+ * the solver, rates it and streams them out as JSON lines, in index order. Only a small window
+ * of finished puzzles is held in memory, so batches of any length run in constant space.
+ *
+ * <pre>
+ * ./gradlew :core:run --args="--count 100000 --categories 4 --items 5 --out puzzles.jsonl"
+ * </pre>
+ */
+public class BatchDriver {
+    // Puzzles in flight per worker thread before the writer blocks
+    private static final int WINDOW_PER_THREAD = 4;
+    private static final LatencyHistogram GENERATE_TIMER = Metrics.timer("batch.generate");
+    private static final LatencyHistogram SOLVE_TIMER = Metrics.timer("batch.solve");
+
+    private final int categories;
+    private final int items;
+    private final String difficulty;
+    private final int threads;
+    private final PuzzleGenerator generator;
+    private final DifficultyRater rater = new DifficultyRater();
+    private final ClueMinimizer minimizer = new ClueMinimizer();
+    private final PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+    private boolean minimize;
+    private boolean dedup;
+    private int duplicates;
+
+    public BatchDriver(int categories, int items, String difficulty, int threads) {
+        this.categories = categories;
+        this.items = items;
+        this.difficulty = difficulty;
+        this.threads = threads;
+        this.generator = new PuzzleGenerator(categories, items, difficulty);
+    }
+
+    // Drops redundant clues from every puzzle before it is checked and written
+    public void setMinimize(boolean minimize) {
+        this.minimize = minimize;
+    }
+
+    // Skips puzzles that repeat an earlier one up to renaming and reordering
+    public void setDedup(boolean dedup) {
+        this.dedup = dedup;
+    }
+
+    // Puzzles the last run skipped as duplicates
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    // Writes `count` puzzles seeded from `seed`; returns how many failed validation
+    public int run(long seed, int count, Writer out) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int failures = 0;
+        duplicates = 0;
+        // Workers fingerprint in parallel; only this thread touches the index
+        FingerprintIndex seen = dedup ? new FingerprintIndex(count) : null;
+        try {
+            ArrayDeque<Future<Line>> window = new ArrayDeque<>();
+            int next = 0;
+            while (next < count || !window.isEmpty()) {
+                while (next < count && window.size() < threads * WINDOW_PER_THREAD) {
+                    final int index = next++;
+                    final long puzzleSeed = PuzzleGenerator.seedFor(seed, index);
+                    window.add(pool.submit(new Callable<Line>() {
+                        @Override
+                        public Line call() {
+                            return process(index, puzzleSeed);
+                        }
+                    }));
+                }
+                Line line = await(window.poll());
+                if (seen != null && line.fingerprint != null && !seen.add(line.fingerprint)) {
+                    duplicates++;
+                    continue;
+                }
+                if (!line.valid) failures++;
+                out.write(line.json);
+                out.write('\n');
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return failures;
+    }
+
+    private static Line await(Future<Line> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        }
+    }
+
+    private Line process(int index, long seed) {
+        long start = System.nanoTime();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"index\":").append(index).append(",\"seed\":").append(seed);
+        try {
+            GameLogic.PuzzleData data = generator.generate(seed);
+            if (minimize) data = minimizer.minimize(data);
+            long generated = System.nanoTime();
+            PuzzleSolver.Result result = new PuzzleSolver(data.categories, data.constraints).solve(2);
+            boolean valid = result.isUnique() && Arrays.deepEquals(result.solutions.get(0), data.assignment);
+
+            json.append(",\"difficulty\":").append(quote(difficulty));
+            json.append(",\"categories\":");
+            appendStrings(json, data.categories);
+            json.append(",\"clues\":");
+            appendStrings(json, data.clues);
+            json.append(",\"assignment\":");
+            appendInts(json, data.assignment);
+            json.append(",\"unique\":").append(valid);
+            DifficultyRater.Rating rating = rater.rate(data);
+            json.append(",\"tier\":").append(quote(rating.tier()));
+            json.append(",\"score\":").append(rating.score);
+            json.append(",\"generateMicros\":").append((generated - start) / 1000);
+            json.append(",\"solveMicros\":").append(result.elapsedNanos / 1000);
+            if (Metrics.isEnabled()) {
+                GENERATE_TIMER.record(generated - start);
+                SOLVE_TIMER.record(result.elapsedNanos);
+            }
+            Fingerprint fingerprint = dedup ? canonicalizer.fingerprint(data) : null;
+            return new Line(json.append('}').toString(), valid, fingerprint);
+        } catch (RuntimeException e) {
+            json.append(",\"error\":").append(quote(String.valueOf(e)));
+            return new Line(json.append('}').toString(), false, null);
+        }
+    }
+
+    private static void appendStrings(StringBuilder json, String[][] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) json.append(',');
+            appendStrings(json, values[i]);
+        }
+        json.append(']');
+    }
+
+    private static void appendStrings(StringBuilder json, String[] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(quote(values[i]));
+        }
+        json.append(']');
+    }
+
+    private static void appendInts(StringBuilder json, int[][] values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) json.append(',');
+            json.append('[');
+            for (int j = 0; j < values[i].length; j++) {
+                if (j > 0) json.append(',');
+                json.append(values[i][j]);
+            }
+            json.append(']');
+        }
+        json.append(']');
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                quoted.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) ch));
+            } else {
+                quoted.append(ch);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static class Line {
+        final String json;
+        final boolean valid;
+        final Fingerprint fingerprint;
+
+        Line(String json, boolean valid, Fingerprint fingerprint) {
+            this.json = json;
+            this.valid = valid;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = 1000;
+        int categories = 3;
+        int items = 4;
+        String difficulty = "HARD";
+        long seed = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = "-";
+        boolean minimize = false;
+        boolean dedup = false;
+        boolean metrics = false;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--count": count = Integer.parseInt(value); i++; break;
+                case "--categories": categories = Integer.parseInt(value); i++; break;
+                case "--items": items = Integer.parseInt(value); i++; break;
+                case "--difficulty": difficulty = value; i++; break;
+                case "--seed": seed = Long.parseLong(value); i++; break;
+                case "--threads": threads = Integer.parseInt(value); i++; break;
+                case "--out": out = value; i++; break;
+                case "--minimize": minimize = true; break;
+                case "--dedup": dedup = true; break;
+                case "--metrics": metrics = true; break;
+                default:
+                    System.err.println("Usage: BatchDriver [--count n] [--categories k] [--items n]"
+                            + " [--difficulty EASY|MEDIUM|HARD] [--seed s] [--threads t] [--out file|-] [--minimize]"
+                            + " [--dedup] [--metrics]");
+                    System.exit(2);
+            }
+        }
+
+        Metrics.setEnabled(metrics);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                "-".equals(out) ? System.out : new FileOutputStream(out), StandardCharsets.UTF_8), 1 << 16);
+        long start = System.nanoTime();
+        BatchDriver driver = new BatchDriver(categories, items, difficulty, threads);
+        driver.setMinimize(minimize);
+        driver.setDedup(dedup);
+        int failures = driver.run(seed, count, writer);
+        if (!"-".equals(out)) writer.close();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // Progress goes to stderr so stdout stays pure JSON lines
+        System.err.printf("%d puzzles (%dx%d %s) in %.2f s, %.0f/s on %d threads, %d failed, %d duplicates%n",
+                count, categories, items, difficulty, seconds, count / seconds, threads, failures,
+                driver.getDuplicates());
+        if (metrics) System.err.print(Metrics.report());
+        if (failures > 0) System.exit(1);
+    }
+}
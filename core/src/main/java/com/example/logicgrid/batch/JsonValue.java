@@ -0,0 +1,167 @@
+package com.example.logicgrid.batch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Just enough JSON for one puzzle record per line: objects become maps, arrays lists,
+ * numbers Long or Double, plus String, Boolean and null. Malformed input throws
+ * IllegalArgumentException with the offset, which the importer turns into a reject.
+ */
+final class JsonValue {
+    private final String text;
+    private int pos;
+
+    private JsonValue(String text) {
+        this.text = text;
+    }
+
+    static Object parse(String text) {
+        JsonValue parser = new JsonValue(text);
+        Object value = parser.value();
+        parser.skipSpace();
+        if (parser.pos != text.length()) throw parser.error("trailing characters");
+        return value;
+    }
+
+    private Object value() {
+        skipSpace();
+        if (pos >= text.length()) throw error("unexpected end");
+        char ch = text.charAt(pos);
+        switch (ch) {
+            case '{': return object();
+            case '[': return array();
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (ch == '-' || (ch >= '0' && ch <= '9')) return number();
+                throw error("unexpected '" + ch + "'");
+        }
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        skipSpace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipSpace();
+            if (peek() != '"') throw error("expected a key");
+            String key = string();
+            skipSpace();
+            expect(':');
+            map.put(key, value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                return map;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        skipSpace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            list.add(value());
+            skipSpace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                return list;
+            }
+        }
+    }
+
+    private String string() {
+        pos++;
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) throw error("unterminated string");
+            char ch = text.charAt(pos++);
+            if (ch == '"') return out.toString();
+            if (ch != '\\') {
+                out.append(ch);
+                continue;
+            }
+            if (pos >= text.length()) throw error("unterminated escape");
+            char escape = text.charAt(pos++);
+            switch (escape) {
+                case 'n': out.append('\n'); break;
+                case 't': out.append('\t'); break;
+                case 'r': out.append('\r'); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) throw error("short \\u escape");
+                    try {
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("bad \\u escape");
+                    }
+                    pos += 4;
+                    break;
+                default: out.append(escape);
+            }
+        }
+    }
+
+    private Object number() {
+        int start = pos;
+        if (peek() == '-') pos++;
+        boolean fraction = false;
+        while (pos < text.length()) {
+            char ch = text.charAt(pos);
+            if (ch == '.' || ch == 'e' || ch == 'E' || ch == '+' || ch == '-') {
+                fraction = true;
+            } else if (ch < '0' || ch > '9') {
+                break;
+            }
+            pos++;
+        }
+        String digits = text.substring(start, pos);
+        try {
+            return fraction ? (Object) Double.parseDouble(digits) : (Object) Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            throw error("bad number " + digits);
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) throw error("unexpected '" + text.charAt(pos) + "'");
+        pos += word.length();
+        return value;
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : 0;
+    }
+
+    private void expect(char ch) {
+        if (peek() != ch) throw error("expected '" + ch + "'");
+        pos++;
+    }
+
+    private void skipSpace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON " + message + " at " + pos);
+    }
+}
@@ -0,0 +1,510 @@
+package com.example.logicgrid.batch;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.clue.Clue;
+import com.example.logicgrid.clue.ClueParser;
+import com.example.logicgrid.pack.PuzzlePackWriter;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.DifficultyRater;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import of hand-written or third-party puzzles, one record per line. Lines are
+ * read one at a time and validated on every core through a bounded window, like
+ * BatchDriver, so files of any length import in constant heap (a pack spills to temp
+ * files as it fills, and its dedup index lives off-heap). Each record is checked
+ * for shape (equal-sized categories, distinct names), that its answer is a permutation
+ * per category, and, when its clues all parse, that they have exactly that answer as
+ * their only solution. Good puzzles go to a Sink in input order; bad ones go to the
+ * reject stream as JSON lines with their line number and the reason.
+ *
+ * <p>JSON lines use BatchDriver's fields: {@code difficulty} (optional, rated when
+ * missing), {@code categories}, {@code clues} and either {@code assignment} or, for two
+ * categories, a 0/1 {@code solution} grid. CSV has the same four columns, with
+ * categories and grid rows separated by ';' and items, clues and cells by '|':
+ *
+ * <pre>
+ * HARD,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob is not Green,0|1|2;0|1|2
+ * </pre>
+ */
+public class PuzzleImporter {
+    public enum Format {
+        JSON_LINES, CSV;
+
+        public static Format forFile(String name) {
+            return name.toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSON_LINES;
+        }
+    }
+
+    // Receives valid puzzles on the reading thread, in input order
+    public interface Sink {
+        // False if the puzzle was turned away, e.g. as a duplicate
+        boolean accept(String difficulty, GameLogic.PuzzleData puzzle) throws IOException;
+    }
+
+    private static final int WINDOW_PER_THREAD = 4;
+    // The solver keeps a category's domain in one long
+    private static final int MAX_ITEMS = 64;
+    // Category and item counts are stored in a byte each in pack files
+    private static final int MAX_CATEGORIES = 127;
+    // A record whose clues take longer than this to settle is rejected, not waited on
+    private static final long NODE_LIMIT = 1000000;
+
+    private final int threads;
+    private int imported;
+    private int rejected;
+
+    public PuzzleImporter(int threads) {
+        this.threads = threads;
+    }
+
+    // Adds every valid puzzle to a pack; puzzles it already holds count as rejects
+    public static Sink into(final PuzzlePackWriter pack) {
+        return new Sink() {
+            @Override
+            public boolean accept(String difficulty, GameLogic.PuzzleData puzzle) throws IOException {
+                return pack.add(difficulty, puzzle);
+            }
+        };
+    }
+
+    // Puzzles the last run passed to the sink and it kept
+    public int getImported() {
+        return imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    // Reads records to the end of `in`; returns how many the sink kept
+    public int run(Reader in, final Format format, Sink sink, Writer rejects)
+            throws IOException, InterruptedException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        imported = 0;
+        rejected = 0;
+        try {
+            ArrayDeque<Future<Checked>> window = new ArrayDeque<>();
+            int lineNumber = 0;
+            boolean more = true;
+            while (more || !window.isEmpty()) {
+                while (more && window.size() < threads * WINDOW_PER_THREAD) {
+                    final String line = reader.readLine();
+                    if (line == null) {
+                        more = false;
+                        break;
+                    }
+                    final int number = ++lineNumber;
+                    if (line.trim().isEmpty() || (format == Format.CSV && number == 1 && isHeader(line))) continue;
+                    window.add(pool.submit(new Callable<Checked>() {
+                        @Override
+                        public Checked call() {
+                            return check(number, line, format);
+                        }
+                    }));
+                }
+                if (window.isEmpty()) continue;
+                Checked checked = await(window.poll());
+                if (checked.reason == null && !sink.accept(checked.difficulty, checked.puzzle)) {
+                    checked.reason = "duplicate of an earlier puzzle";
+                }
+                if (checked.reason == null) {
+                    imported++;
+                } else {
+                    rejected++;
+                    reject(rejects, checked);
+                }
+            }
+            rejects.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        return imported;
+    }
+
+    private static Checked await(Future<Checked> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Import worker failed", e.getCause());
+        }
+    }
+
+    private static void reject(Writer rejects, Checked checked) throws IOException {
+        rejects.write("{\"line\":" + checked.line + ",\"reason\":" + BatchDriver.quote(checked.reason)
+                + ",\"record\":" + BatchDriver.quote(checked.raw) + "}\n");
+    }
+
+    private static boolean isHeader(String line) {
+        return line.trim().toLowerCase(Locale.ROOT).startsWith("difficulty");
+    }
+
+    static Checked check(int line, String raw, Format format) {
+        Checked checked = new Checked(line, raw);
+        try {
+            Record record = format == Format.CSV ? parseCsv(raw) : parseJson(raw);
+            validate(record, checked);
+        } catch (IllegalArgumentException e) {
+            checked.reason = e.getMessage();
+        } catch (RuntimeException e) {
+            checked.reason = String.valueOf(e);
+        }
+        return checked;
+    }
+
+    private static void validate(Record record, Checked checked) {
+        String[][] categories = record.categories;
+        if (categories == null) throw new IllegalArgumentException("missing categories");
+        if (categories.length < 2 || categories.length > MAX_CATEGORIES) {
+            throw new IllegalArgumentException("needs 2 to " + MAX_CATEGORIES + " categories, has " + categories.length);
+        }
+        int items = categories[0].length;
+        if (items < 2 || items > MAX_ITEMS) {
+            throw new IllegalArgumentException("needs 2 to " + MAX_ITEMS + " items per category, has " + items);
+        }
+        // Clues name items without saying which category they are in
+        Set<String> names = new HashSet<>();
+        for (int c = 0; c < categories.length; c++) {
+            if (categories[c].length != items) {
+                throw new IllegalArgumentException("category " + c + " has " + categories[c].length
+                        + " items, expected " + items);
+            }
+            for (String name : categories[c]) {
+                if (name.trim().isEmpty()) throw new IllegalArgumentException("empty item name in category " + c);
+                if (!names.add(name.trim().toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("item name used twice: " + name);
+                }
+            }
+        }
+
+        int[][] assignment = record.assignment;
+        if (assignment == null && record.solution != null) {
+            if (categories.length != 2) throw new IllegalArgumentException("a solution grid needs exactly 2 categories");
+            assignment = fromGrid(record.solution, items);
+        }
+        if (assignment == null) throw new IllegalArgumentException("missing assignment");
+        assignment = normalize(assignment, categories.length, items);
+        int[][] solution = PuzzleSolver.toGrid(assignment, 0, 1);
+        if (record.solution != null && !Arrays.deepEquals(solution, record.solution)) {
+            throw new IllegalArgumentException("solution grid disagrees with the assignment");
+        }
+
+        String[] clues = record.clues;
+        if (clues == null || clues.length == 0) throw new IllegalArgumentException("no clues");
+        Clue[] parsed = new ClueParser(categories).parseAll(clues);
+        List<Constraint> constraints = new ArrayList<>();
+        int firstUnparsed = -1;
+        for (int i = 0; i < parsed.length; i++) {
+            if (parsed[i] != null) {
+                constraints.add(parsed[i].toConstraint());
+            } else if (firstUnparsed < 0) {
+                firstUnparsed = i;
+            }
+        }
+        // All clues readable: the solver must agree. None: a display-only puzzle. Some: a typo
+        if (firstUnparsed >= 0 && !constraints.isEmpty()) {
+            throw new IllegalArgumentException("clue " + (firstUnparsed + 1) + " not understood: " + clues[firstUnparsed]);
+        }
+        Constraint[] compiled = constraints.toArray(new Constraint[0]);
+        if (compiled.length > 0) {
+            PuzzleSolver solver = new PuzzleSolver(categories, compiled);
+            solver.setNodeLimit(NODE_LIMIT);
+            PuzzleSolver.Result result = solver.solve(2);
+            if (!result.complete) throw new IllegalArgumentException("solver gave up after " + result.nodes + " nodes");
+            if (result.solutionCount == 0) throw new IllegalArgumentException("clues contradict each other");
+            if (result.solutionCount > 1) throw new IllegalArgumentException("clues allow more than one solution");
+            if (!Arrays.deepEquals(result.solutions.get(0), assignment)) {
+                throw new IllegalArgumentException("clues solve to a different answer than the one given");
+            }
+        }
+
+        GameLogic.PuzzleData puzzle = new GameLogic.PuzzleData(categories, clues, solution, assignment, compiled);
+        String difficulty = record.difficulty;
+        if (difficulty == null || difficulty.isEmpty()) {
+            if (compiled.length == 0) throw new IllegalArgumentException("missing difficulty");
+            difficulty = levelFor(new DifficultyRater().rate(puzzle).tier());
+        } else {
+            difficulty = levelFor(difficulty.toUpperCase(Locale.ROOT));
+            if (difficulty == null) throw new IllegalArgumentException("unknown difficulty " + record.difficulty);
+        }
+        checked.difficulty = difficulty;
+        checked.puzzle = puzzle;
+    }
+
+    // The app's difficulty for a rater tier; it has no EXPERT levels, so those play as HARD
+    static String levelFor(String tier) {
+        switch (tier) {
+            case "EASY":
+            case "MEDIUM":
+            case "HARD":
+                return tier;
+            case "EXPERT":
+                return "HARD";
+            default:
+                return null;
+        }
+    }
+
+    // Reorders entities so category 0 reads 0..n-1, the form GameLogic and packs expect
+    private static int[][] normalize(int[][] assignment, int categories, int items) {
+        if (assignment.length != categories) {
+            throw new IllegalArgumentException("assignment has " + assignment.length + " rows, expected " + categories);
+        }
+        for (int c = 0; c < categories; c++) {
+            if (assignment[c].length != items) {
+                throw new IllegalArgumentException("assignment row " + c + " has " + assignment[c].length
+                        + " entries, expected " + items);
+            }
+            boolean[] used = new boolean[items];
+            for (int value : assignment[c]) {
+                if (value < 0 || value >= items || used[value]) {
+                    throw new IllegalArgumentException("assignment row " + c + " is not a permutation of 0.." + (items - 1));
+                }
+                used[value] = true;
+            }
+        }
+        int[][] normalized = new int[categories][items];
+        for (int e = 0; e < items; e++) {
+            int entity = assignment[0][e];
+            for (int c = 0; c < categories; c++) normalized[c][entity] = assignment[c][e];
+        }
+        return normalized;
+    }
+
+    private static int[][] fromGrid(int[][] grid, int items) {
+        if (grid.length != items) throw new IllegalArgumentException("solution has " + grid.length + " rows, expected " + items);
+        int[][] assignment = new int[2][items];
+        boolean[] columnUsed = new boolean[items];
+        for (int row = 0; row < items; row++) {
+            if (grid[row].length != items) throw new IllegalArgumentException("solution row " + row + " is not " + items + " wide");
+            int yes = -1;
+            for (int col = 0; col < items; col++) {
+                int cell = grid[row][col];
+                if (cell != 0 && cell != 1) throw new IllegalArgumentException("solution cells must be 0 or 1");
+                if (cell == 0) continue;
+                if (yes >= 0 || columnUsed[col]) {
+                    throw new IllegalArgumentException("solution is not a permutation at row " + row);
+                }
+                yes = col;
+                columnUsed[col] = true;
+            }
+            if (yes < 0) throw new IllegalArgumentException("solution row " + row + " has no match");
+            assignment[0][row] = row;
+            assignment[1][row] = yes;
+        }
+        return assignment;
+    }
+
+    private static Record parseJson(String line) {
+        Object parsed = JsonValue.parse(line);
+        if (!(parsed instanceof Map)) throw new IllegalArgumentException("record is not a JSON object");
+        Map<?, ?> json = (Map<?, ?>) parsed;
+        Record record = new Record();
+        Object difficulty = json.get("difficulty");
+        if (difficulty != null && !(difficulty instanceof String)) throw new IllegalArgumentException("difficulty must be a string");
+        record.difficulty = (String) difficulty;
+        if (json.get("categories") != null) {
+            List<?> rows = list(json.get("categories"), "categories");
+            record.categories = new String[rows.size()][];
+            for (int i = 0; i < rows.size(); i++) record.categories[i] = strings(rows.get(i), "categories");
+        }
+        if (json.get("clues") != null) record.clues = strings(json.get("clues"), "clues");
+        if (json.get("assignment") != null) record.assignment = ints(json.get("assignment"), "assignment");
+        if (json.get("solution") != null) record.solution = ints(json.get("solution"), "solution");
+        return record;
+    }
+
+    private static List<?> list(Object value, String field) {
+        if (!(value instanceof List)) throw new IllegalArgumentException(field + " must be an array");
+        return (List<?>) value;
+    }
+
+    private static String[] strings(Object value, String field) {
+        List<?> list = list(value, field);
+        String[] out = new String[list.size()];
+        for (int i = 0; i < out.length; i++) {
+            if (!(list.get(i) instanceof String)) throw new IllegalArgumentException(field + " must hold strings");
+            out[i] = (String) list.get(i);
+        }
+        return out;
+    }
+
+    private static int[][] ints(Object value, String field) {
+        List<?> rows = list(value, field);
+        int[][] out = new int[rows.size()][];
+        for (int r = 0; r < out.length; r++) {
+            List<?> row = list(rows.get(r), field);
+            out[r] = new int[row.size()];
+            for (int i = 0; i < out[r].length; i++) {
+                Object cell = row.get(i);
+                if (!(cell instanceof Long) || (Long) cell != (int) (long) (Long) cell) {
+                    throw new IllegalArgumentException(field + " must hold integers");
+                }
+                out[r][i] = (int) (long) (Long) cell;
+            }
+        }
+        return out;
+    }
+
+    private static Record parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 4) throw new IllegalArgumentException("expected 4 CSV fields, found " + fields.size());
+        Record record = new Record();
+        record.difficulty = fields.get(0).trim();
+        String[] categories = split(fields.get(1), ';');
+        record.categories = new String[categories.length][];
+        for (int c = 0; c < categories.length; c++) record.categories[c] = split(categories[c], '|');
+        record.clues = fields.get(2).trim().isEmpty() ? new String[0] : split(fields.get(2), '|');
+        String[] rows = split(fields.get(3), ';');
+        record.assignment = new int[rows.length][];
+        for (int r = 0; r < rows.length; r++) {
+            String[] cells = split(rows[r], '|');
+            record.assignment[r] = new int[cells.length];
+            for (int i = 0; i < cells.length; i++) {
+                try {
+                    record.assignment[r][i] = Integer.parseInt(cells[i]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("assignment must hold integers, found " + cells[i]);
+                }
+            }
+        }
+        return record;
+    }
+
+    // RFC 4180 fields within one line: quoted fields may hold commas and doubled quotes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch != '"') {
+                    field.append(ch);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("unterminated quote");
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String[] split(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == separator) {
+                parts.add(value.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        return parts.toArray(new String[0]);
+    }
+
+    private static class Record {
+        String difficulty;
+        String[][] categories;
+        String[] clues;
+        int[][] assignment;
+        int[][] solution;
+    }
+
+    static class Checked {
+        final int line;
+        final String raw;
+        String difficulty;
+        GameLogic.PuzzleData puzzle;
+        // Null for a puzzle that passed
+        String reason;
+
+        Checked(int line, String raw) {
+            this.line = line;
+            this.raw = raw;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String in = "-";
+        Format format = null;
+        String pack = null;
+        String rejectsPath = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--in": in = value; i++; break;
+                case "--format": format = "csv".equalsIgnoreCase(value) ? Format.CSV : Format.JSON_LINES; i++; break;
+                case "--pack": pack = value; i++; break;
+                case "--rejects": rejectsPath = value; i++; break;
+                case "--threads": threads = Integer.parseInt(value); i++; break;
+                default:
+                    System.err.println("Usage: PuzzleImporter [--in file|-] [--format jsonl|csv] [--pack out.pack]"
+                            + " [--rejects file] [--threads t]");
+                    System.exit(2);
+            }
+        }
+        if (format == null) format = Format.forFile(in);
+
+        Reader reader = new InputStreamReader("-".equals(in) ? System.in : new FileInputStream(in), StandardCharsets.UTF_8);
+        Writer rejects = new BufferedWriter(new OutputStreamWriter(
+                rejectsPath == null ? System.err : new FileOutputStream(rejectsPath), StandardCharsets.UTF_8));
+        // Without --pack this is a dry run that only reports what would be rejected
+        final PuzzlePackWriter writer = pack != null ? new PuzzlePackWriter() : null;
+        Sink sink = writer != null ? into(writer) : new Sink() {
+            @Override
+            public boolean accept(String difficulty, GameLogic.PuzzleData puzzle) {
+                return true;
+            }
+        };
+        long start = System.nanoTime();
+        PuzzleImporter importer = new PuzzleImporter(threads);
+        importer.run(reader, format, sink, rejects);
+        if (writer != null) {
+            writer.write(new File(pack));
+            writer.close();
+        }
+        if (rejectsPath != null) rejects.close();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d imported, %d rejected in %.2f s on %d threads%n",
+                importer.getImported(), importer.getRejected(), seconds, threads);
+        if (importer.getRejected() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.logicgrid.clue;
+
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+
+/**
+ * Structured form of a clue. {@link #toConstraint()} feeds the solver and
+ * {@link #compile(int)} produces a mask-based check against the player's grid.
+ */
+public abstract class Clue {
+    public abstract Constraint toConstraint();
+
+    public abstract CompiledClue compile(int items);
+
+    public static final class Item {
+        public final int category;
+        public final int item;
+
+        public Item(int category, int item) {
+            this.category = category;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item)) return false;
+            Item other = (Item) o;
+            return category == other.category && item == other.item;
+        }
+
+        @Override
+        public int hashCode() {
+            return category * 31 + item;
+        }
+
+        @Override
+        public String toString() {
+            return category + ":" + item;
+        }
+    }
+
+    public static final class Is extends Clue {
+        public final Item a;
+        public final Item b;
+
+        public Is(Item a, Item b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public Constraint toConstraint() {
+            return Constraints.same(a.category, a.item, b.category, b.item);
+        }
+
+        @Override
+        public CompiledClue compile(int items) {
+            return CompiledClue.cell(a, b, true);
+        }
+
+        @Override
+        public String toString() {
+            return a + " is " + b;
+        }
+    }
+
+    public static final class IsNot extends Clue {
+        public final Item a;
+        public final Item b;
+
+        public IsNot(Item a, Item b) {
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        public Constraint toConstraint() {
+            return Constraints.different(a.category, a.item, b.category, b.item);
+        }
+
+        @Override
+        public CompiledClue compile(int items) {
+            return CompiledClue.cell(a, b, false);
+        }
+
+        @Override
+        public String toString() {
+            return a + " is not " + b;
+        }
+    }
+
+    // a's item in orderCategory comes strictly before b's ("earlier", "cheaper", ...)
+    public static final class Before extends Clue {
+        public final Item a;
+        public final Item b;
+        public final int orderCategory;
+
+        public Before(Item a, Item b, int orderCategory) {
+            this.a = a;
+            this.b = b;
+            this.orderCategory = orderCategory;
+        }
+
+        @Override
+        public Constraint toConstraint() {
+            return Constraints.before(a.category, a.item, b.category, b.item, orderCategory);
+        }
+
+        @Override
+        public CompiledClue compile(int items) {
+            return CompiledClue.order(a, b, orderCategory, items);
+        }
+
+        @Override
+        public String toString() {
+            return a + " before " + b + " by " + orderCategory;
+        }
+    }
+
+    public static final class IfThen extends Clue {
+        public final Clue condition;
+        public final Clue consequence;
+
+        public IfThen(Clue condition, Clue consequence) {
+            this.condition = condition;
+            this.consequence = consequence;
+        }
+
+        @Override
+        public Constraint toConstraint() {
+            return Constraints.ifThen(condition.toConstraint(), consequence.toConstraint());
+        }
+
+        @Override
+        public CompiledClue compile(int items) {
+            return CompiledClue.ifThen(condition.compile(items), consequence.compile(items));
+        }
+
+        @Override
+        public String toString() {
+            return "if " + condition + " then " + consequence;
+        }
+    }
+
+    // Exactly one of the two holds
+    public static final class EitherOr extends Clue {
+        public final Clue first;
+        public final Clue second;
+
+        public EitherOr(Clue first, Clue second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Constraint toConstraint() {
+            return Constraints.eitherOr(first.toConstraint(), second.toConstraint());
+        }
+
+        @Override
+        public CompiledClue compile(int items) {
+            return CompiledClue.eitherOr(first.compile(items), second.compile(items));
+        }
+
+        @Override
+        public String toString() {
+            return "either " + first + " or " + second;
+        }
+    }
+}
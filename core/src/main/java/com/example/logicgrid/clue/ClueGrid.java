@@ -0,0 +1,8 @@
+package com.example.logicgrid.clue;
+
+import com.example.logicgrid.BitGrid;
+
+// Player marks for each pair of categories; rows are items of the lower category
+public interface ClueGrid {
+    BitGrid block(int categoryA, int categoryB);
+}
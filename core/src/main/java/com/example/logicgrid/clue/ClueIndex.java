@@ -0,0 +1,190 @@
+package com.example.logicgrid.clue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the status of every clue current as the board changes, re-evaluating only the
+ * clues that read a changed cell. Each clue registers the block rows and columns it
+ * reads (whole blocks for ordering clues, which look at every YES in their block), so
+ * a change at (row, col) re-checks the clues on that row, that column and that block.
+ * Violated clues are kept as an indexed set, so listing them costs only their number.
+ */
+public class ClueIndex {
+    private final int categories;
+    private final CompiledClue[] clues;
+    // Per block: clues reading each row, each column, and the block as a whole
+    private final int[][][] byRow;
+    private final int[][][] byCol;
+    private final int[][] byBlock;
+
+    private final byte[] status;
+    // slot[clue] is the clue's place in `violated`, or -1
+    private final int[] violated;
+    private final int[] slot;
+    private int violatedCount;
+
+    // Clues whose status changed during the current move, deduplicated by stamp, and
+    // their status when the move began
+    private final int[] changed;
+    private final int[] changedStamp;
+    private final byte[] statusBefore;
+    private int changedCount;
+    private int move = 1;
+    // Clues already checked for the current cell, deduplicated by stamp
+    private final int[] checkedStamp;
+    private int check;
+
+    // Null entries are display-only clues and stay UNDECIDED
+    public ClueIndex(int categories, int items, CompiledClue[] clues) {
+        this.categories = categories;
+        this.clues = clues;
+        int pairs = categories * (categories - 1) / 2;
+        final List<List<Integer>> rows = new ArrayList<>();
+        final List<List<Integer>> cols = new ArrayList<>();
+        final List<List<Integer>> blocks = new ArrayList<>();
+        for (int i = 0; i < pairs * items; i++) {
+            rows.add(new ArrayList<Integer>());
+            cols.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < pairs; i++) blocks.add(new ArrayList<Integer>());
+
+        final int lineCount = items;
+        for (int i = 0; i < clues.length; i++) {
+            if (clues[i] == null) continue;
+            final int clue = i;
+            clues[i].dependsOn(new CompiledClue.Dependencies() {
+                @Override
+                public void lines(int categoryA, int categoryB, int row, int col) {
+                    int pair = pairIndex(categoryA, categoryB);
+                    addOnce(rows.get(pair * lineCount + row), clue);
+                    addOnce(cols.get(pair * lineCount + col), clue);
+                }
+
+                @Override
+                public void block(int categoryA, int categoryB) {
+                    addOnce(blocks.get(pairIndex(categoryA, categoryB)), clue);
+                }
+            });
+        }
+
+        this.byRow = new int[pairs][items][];
+        this.byCol = new int[pairs][items][];
+        this.byBlock = new int[pairs][];
+        for (int pair = 0; pair < pairs; pair++) {
+            for (int line = 0; line < items; line++) {
+                byRow[pair][line] = toArray(rows.get(pair * items + line));
+                byCol[pair][line] = toArray(cols.get(pair * items + line));
+            }
+            byBlock[pair] = toArray(blocks.get(pair));
+        }
+
+        this.status = new byte[clues.length];
+        this.violated = new int[clues.length];
+        this.slot = new int[clues.length];
+        Arrays.fill(slot, -1);
+        this.changed = new int[clues.length];
+        this.changedStamp = new int[clues.length];
+        this.statusBefore = new byte[clues.length];
+        this.checkedStamp = new int[clues.length];
+    }
+
+    private int pairIndex(int a, int b) {
+        return a * (2 * categories - a - 1) / 2 + (b - a - 1);
+    }
+
+    private static void addOnce(List<Integer> list, int clue) {
+        // Clues register in index order, so a repeat can only be the last entry
+        if (list.isEmpty() || list.get(list.size() - 1) != clue) list.add(clue);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+
+    // Starts collecting the clues a new move changes
+    public void beginMove() {
+        move++;
+        changedCount = 0;
+    }
+
+    // Re-checks the clues that read cell (row, col) of block (categoryA, categoryB), a < b
+    public void cellChanged(ClueGrid grid, int categoryA, int categoryB, int row, int col) {
+        beginCheck();
+        recheckCell(grid, categoryA, categoryB, row, col);
+    }
+
+    // For moves that change many cells: call beginCheck() once, once the cells are all set,
+    // then recheckCell() per cell; a clue reading several of them is evaluated only once
+    public void beginCheck() {
+        check++;
+    }
+
+    public void recheckCell(ClueGrid grid, int categoryA, int categoryB, int row, int col) {
+        int pair = pairIndex(categoryA, categoryB);
+        recheck(grid, byRow[pair][row]);
+        recheck(grid, byCol[pair][col]);
+        recheck(grid, byBlock[pair]);
+    }
+
+    // Re-checks everything, for moves that change many cells at once
+    public void refreshAll(ClueGrid grid) {
+        for (int clue = 0; clue < clues.length; clue++) {
+            if (clues[clue] != null) update(clue, clues[clue].evaluate(grid));
+        }
+    }
+
+    private void recheck(ClueGrid grid, int[] dependents) {
+        for (int clue : dependents) {
+            if (checkedStamp[clue] == check) continue;
+            checkedStamp[clue] = check;
+            update(clue, clues[clue].evaluate(grid));
+        }
+    }
+
+    private void update(int clue, int value) {
+        if (status[clue] == value) return;
+        if (status[clue] == CompiledClue.VIOLATED) {
+            // Swap the last violated clue into this one's slot
+            int last = violated[--violatedCount];
+            violated[slot[clue]] = last;
+            slot[last] = slot[clue];
+            slot[clue] = -1;
+        } else if (value == CompiledClue.VIOLATED) {
+            slot[clue] = violatedCount;
+            violated[violatedCount++] = clue;
+        }
+        if (changedStamp[clue] != move) {
+            changedStamp[clue] = move;
+            statusBefore[clue] = status[clue];
+            changed[changedCount++] = clue;
+        }
+        status[clue] = (byte) value;
+    }
+
+    public int status(int clue) {
+        return status[clue];
+    }
+
+    // Violated clues in ascending order
+    public int[] violatedClues() {
+        int[] result = Arrays.copyOf(violated, violatedCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Clues whose status differs from what it was at beginMove()
+    public int[] changedClues() {
+        int[] result = new int[changedCount];
+        int count = 0;
+        for (int i = 0; i < changedCount; i++) {
+            int clue = changed[i];
+            // A multi-cell move can flip a clue and flip it back
+            if (status[clue] != statusBefore[clue]) result[count++] = clue;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.logicgrid.clue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns clue sentences into {@link Clue} trees. Recognised forms, with item names
+ * taken from the puzzle's categories and an optional "the" before each one:
+ * <pre>
+ *   X is Y / X is not Y
+ *   X is earlier|cheaper|later|... than Y / X was ordered before|after Y
+ *   If X is Y, then Z is [not] W
+ *   Either X is Y or Z is W
+ * </pre>
+ * Ordering uses the last category that holds neither X nor Y, in list order.
+ * Anything else (flavour text), or a clue naming an item whose name another item
+ * shares, parses to null and stays display-only.
+ */
+public class ClueParser {
+    private static final Set<String> LESS = new HashSet<>(Arrays.asList(
+            "earlier", "before", "cheaper", "smaller", "lower", "younger", "shorter", "fewer", "less"));
+    private static final Set<String> MORE = new HashSet<>(Arrays.asList(
+            "later", "after", "pricier", "larger", "bigger", "higher", "older", "taller", "more", "darker"));
+
+    private final String[][] categories;
+    private final Map<String, Clue.Item> itemsByName = new HashMap<>();
+    private final Pattern isNot;
+    private final Pattern is;
+    private final Pattern comparative;
+    private final Pattern sequence;
+    private static final Pattern IF_THEN = Pattern.compile("if (.+?),? then (.+)");
+    private static final Pattern EITHER_OR = Pattern.compile("either (.+?) or (.+)");
+
+    public ClueParser(String[][] categories) {
+        this.categories = categories;
+        for (int c = 0; c < categories.length; c++) {
+            for (int i = 0; i < categories[c].length; i++) {
+                // A name shared by two items is ambiguous: clues using it stay unparsed
+                String name = categories[c][i].toLowerCase(Locale.ROOT);
+                itemsByName.put(name, itemsByName.containsKey(name) ? null : new Clue.Item(c, i));
+            }
+        }
+        String[] names = itemsByName.keySet().toArray(new String[0]);
+        // Longest names first so "Sweet Tea" wins over "Tea"
+        Arrays.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String x, String y) {
+                return y.length() - x.length();
+            }
+        });
+        StringBuilder alternatives = new StringBuilder();
+        for (String name : names) {
+            if (alternatives.length() > 0) alternatives.append('|');
+            alternatives.append(Pattern.quote(name));
+        }
+        String ref = "(?:the )?(" + alternatives + ")";
+        isNot = Pattern.compile(ref + " (?:is not|isn't|was not|wasn't) " + ref);
+        is = Pattern.compile(ref + " (?:is|was) " + ref);
+        comparative = Pattern.compile(ref + " (?:is|was) (\\w+) than " + ref);
+        sequence = Pattern.compile(ref + " (?:is|was|comes)(?: \\w+)? (before|after) " + ref);
+    }
+
+    public Clue[] parseAll(String[] clues) {
+        Clue[] parsed = new Clue[clues.length];
+        for (int i = 0; i < clues.length; i++) {
+            parsed[i] = parse(clues[i]);
+        }
+        return parsed;
+    }
+
+    public Clue parse(String text) {
+        String sentence = text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        if (sentence.endsWith(".")) sentence = sentence.substring(0, sentence.length() - 1);
+
+        Matcher m = IF_THEN.matcher(sentence);
+        if (m.matches()) {
+            Clue condition = parseSimple(m.group(1));
+            Clue consequence = parseSimple(m.group(2));
+            return condition == null || consequence == null ? null : new Clue.IfThen(condition, consequence);
+        }
+        m = EITHER_OR.matcher(sentence);
+        if (m.matches()) {
+            Clue first = parseSimple(m.group(1));
+            Clue second = parseSimple(m.group(2));
+            return first == null || second == null ? null : new Clue.EitherOr(first, second);
+        }
+        return parseSimple(sentence);
+    }
+
+    private Clue parseSimple(String sentence) {
+        Matcher m = isNot.matcher(sentence);
+        if (m.matches()) return isNot(item(m.group(1)), item(m.group(2)));
+        m = is.matcher(sentence);
+        if (m.matches()) return is(item(m.group(1)), item(m.group(2)));
+        m = comparative.matcher(sentence);
+        if (!m.matches()) m = sequence.matcher(sentence);
+        if (m.matches()) {
+            Clue.Item a = item(m.group(1));
+            Clue.Item b = item(m.group(3));
+            if (a == null || b == null) return null;
+            String word = m.group(2);
+            int order = orderCategory(a, b);
+            if (order < 0) return null;
+            if (LESS.contains(word)) return new Clue.Before(a, b, order);
+            if (MORE.contains(word)) return new Clue.Before(b, a, order);
+        }
+        return null;
+    }
+
+    // Null for an ambiguous name
+    private Clue.Item item(String name) {
+        return itemsByName.get(name);
+    }
+
+    private static Clue is(Clue.Item a, Clue.Item b) {
+        return a == null || b == null ? null : new Clue.Is(a, b);
+    }
+
+    private static Clue isNot(Clue.Item a, Clue.Item b) {
+        return a == null || b == null ? null : new Clue.IsNot(a, b);
+    }
+
+    private int orderCategory(Clue.Item a, Clue.Item b) {
+        for (int c = categories.length - 1; c >= 0; c--) {
+            if (c != a.category && c != b.category) return c;
+        }
+        return -1;
+    }
+}
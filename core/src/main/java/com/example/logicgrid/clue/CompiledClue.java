@@ -0,0 +1,216 @@
+package com.example.logicgrid.clue;
+
+import com.example.logicgrid.BitGrid;
+
+/**
+ * A clue reduced to bit tests on the player's grid. Word indices and bit masks are
+ * fixed at compile time, so evaluation is a handful of loads and compares.
+ */
+public abstract class CompiledClue {
+    public static final int UNDECIDED = 0;
+    public static final int SATISFIED = 1;
+    public static final int VIOLATED = 2;
+
+    public abstract int evaluate(ClueGrid grid);
+
+    // Reports every part of the grid evaluate() reads, for ClueIndex
+    abstract void dependsOn(Dependencies out);
+
+    interface Dependencies {
+        // Row `row` and column `col` of block (categoryA, categoryB)
+        void lines(int categoryA, int categoryB, int row, int col);
+
+        // Any cell of block (categoryA, categoryB)
+        void block(int categoryA, int categoryB);
+    }
+
+    static CompiledClue cell(Clue.Item a, Clue.Item b, boolean positive) {
+        if (a.category == b.category) {
+            boolean same = a.item == b.item;
+            return new Constant(same == positive ? SATISFIED : VIOLATED);
+        }
+        Clue.Item low = a.category < b.category ? a : b;
+        Clue.Item high = low == a ? b : a;
+        return new Cell(low.category, high.category, low.item, high.item, positive);
+    }
+
+    static CompiledClue order(Clue.Item a, Clue.Item b, int orderCategory, int items) {
+        if (items > 64 || a.category == orderCategory || b.category == orderCategory) {
+            // Ordering is only tracked through single-word masks of a third category
+            return new Constant(UNDECIDED);
+        }
+        long full = items == 64 ? -1L : (1L << items) - 1;
+        return new Order(new Line(a, orderCategory), new Line(b, orderCategory), full);
+    }
+
+    static CompiledClue ifThen(CompiledClue condition, CompiledClue consequence) {
+        return new IfThen(condition, consequence);
+    }
+
+    static CompiledClue eitherOr(CompiledClue first, CompiledClue second) {
+        return new EitherOr(first, second);
+    }
+
+    private static final class Constant extends CompiledClue {
+        private final int result;
+
+        Constant(int result) {
+            this.result = result;
+        }
+
+        @Override
+        public int evaluate(ClueGrid grid) {
+            return result;
+        }
+
+        @Override
+        void dependsOn(Dependencies out) {
+        }
+    }
+
+    private static final class Cell extends CompiledClue {
+        private final int rowCategory;
+        private final int colCategory;
+        private final int row;
+        private final int col;
+        private final int word;
+        private final long bit;
+        private final int holds;
+        private final int fails;
+
+        Cell(int rowCategory, int colCategory, int row, int col, boolean positive) {
+            this.rowCategory = rowCategory;
+            this.colCategory = colCategory;
+            this.row = row;
+            this.col = col;
+            this.word = col >>> 6;
+            this.bit = 1L << col;
+            this.holds = positive ? SATISFIED : VIOLATED;
+            this.fails = positive ? VIOLATED : SATISFIED;
+        }
+
+        @Override
+        public int evaluate(ClueGrid grid) {
+            BitGrid block = grid.block(rowCategory, colCategory);
+            if ((block.rowYesWord(row, word) & bit) != 0) return holds;
+            if ((block.rowNoWord(row, word) & bit) != 0) return fails;
+            // A YES elsewhere in the row or column rules this pairing out
+            if (block.rowYesCount(row) != 0 || block.colYesCount(col) != 0) return fails;
+            return UNDECIDED;
+        }
+
+        @Override
+        void dependsOn(Dependencies out) {
+            out.lines(rowCategory, colCategory, row, col);
+        }
+    }
+
+    // Where an item's value in the order category lives: a row or a column of one block
+    private static final class Line {
+        final int blockA;
+        final int blockB;
+        final int index;
+        final boolean isRow;
+
+        Line(Clue.Item item, int orderCategory) {
+            this.isRow = item.category < orderCategory;
+            this.blockA = Math.min(item.category, orderCategory);
+            this.blockB = Math.max(item.category, orderCategory);
+            this.index = item.item;
+        }
+
+        // Order-category items still open to this item given the player's marks
+        long possible(ClueGrid grid, long full) {
+            BitGrid block = grid.block(blockA, blockB);
+            if (isRow) {
+                if (block.rowYesCount(index) != 0) return block.rowYesWord(index, 0);
+                return full & ~block.rowNoWord(index, 0) & ~block.colsWithYesWord(0);
+            }
+            if (block.colYesCount(index) != 0) return block.colYesWord(index, 0);
+            return full & ~block.colNoWord(index, 0) & ~block.rowsWithYesWord(0);
+        }
+    }
+
+    private static final class Order extends CompiledClue {
+        private final Line a;
+        private final Line b;
+        private final long full;
+
+        Order(Line a, Line b, long full) {
+            this.a = a;
+            this.b = b;
+            this.full = full;
+        }
+
+        @Override
+        public int evaluate(ClueGrid grid) {
+            long valuesA = a.possible(grid, full);
+            long valuesB = b.possible(grid, full);
+            // An empty set is a row/column conflict, which validateMove reports instead
+            if (valuesA == 0 || valuesB == 0) return UNDECIDED;
+            int minA = Long.numberOfTrailingZeros(valuesA);
+            int maxA = 63 - Long.numberOfLeadingZeros(valuesA);
+            int minB = Long.numberOfTrailingZeros(valuesB);
+            int maxB = 63 - Long.numberOfLeadingZeros(valuesB);
+            if (maxA < minB) return SATISFIED;
+            if (minA >= maxB) return VIOLATED;
+            return UNDECIDED;
+        }
+
+        @Override
+        void dependsOn(Dependencies out) {
+            // Open values depend on which lines hold a YES anywhere in the block
+            out.block(a.blockA, a.blockB);
+            out.block(b.blockA, b.blockB);
+        }
+    }
+
+    private static final class IfThen extends CompiledClue {
+        private final CompiledClue condition;
+        private final CompiledClue consequence;
+
+        IfThen(CompiledClue condition, CompiledClue consequence) {
+            this.condition = condition;
+            this.consequence = consequence;
+        }
+
+        @Override
+        public int evaluate(ClueGrid grid) {
+            int c = condition.evaluate(grid);
+            if (c == VIOLATED) return SATISFIED;
+            int t = consequence.evaluate(grid);
+            if (t == SATISFIED) return SATISFIED;
+            return c == SATISFIED && t == VIOLATED ? VIOLATED : UNDECIDED;
+        }
+
+        @Override
+        void dependsOn(Dependencies out) {
+            condition.dependsOn(out);
+            consequence.dependsOn(out);
+        }
+    }
+
+    private static final class EitherOr extends CompiledClue {
+        private final CompiledClue first;
+        private final CompiledClue second;
+
+        EitherOr(CompiledClue first, CompiledClue second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int evaluate(ClueGrid grid) {
+            int a = first.evaluate(grid);
+            int b = second.evaluate(grid);
+            if (a == UNDECIDED || b == UNDECIDED) return UNDECIDED;
+            return a != b ? SATISFIED : VIOLATED;
+        }
+
+        @Override
+        void dependsOn(Dependencies out) {
+            first.dependsOn(out);
+            second.dependsOn(out);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.logicgrid.dedup;
+
+import com.example.logicgrid.Zobrist;
+
+/**
+ * 128-bit hash of a canonical puzzle form: two independently seeded 64-bit lanes.
+ */
+public final class Fingerprint {
+    public final long high;
+    public final long low;
+
+    public Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static Fingerprint of(int[] form) {
+        long high = 0x243F6A8885A308D3L;
+        long low = 0x13198A2E03707344L;
+        for (int value : form) {
+            high = Zobrist.mix(high ^ value);
+            low = Zobrist.mix(low + value * 0x9E3779B97F4A7C15L);
+        }
+        return new Fingerprint(high, Zobrist.mix(low ^ form.length));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Fingerprint)) return false;
+        Fingerprint other = (Fingerprint) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
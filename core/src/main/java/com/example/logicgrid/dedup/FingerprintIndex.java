@@ -0,0 +1,102 @@
+package com.example.logicgrid.dedup;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Set of fingerprints in an open-addressed table outside the Java heap, 16 bytes per
+ * slot, so deduplicating millions of puzzles costs no GC time. Memory is reserved up
+ * front for the expected number of puzzles; past that the table doubles and rehashes,
+ * so an estimate that is too small costs one copy rather than a failure.
+ * Not thread-safe; feed it from the single thread that writes the output.
+ */
+public class FingerprintIndex {
+    private static final int SLOT_BYTES = 16;
+
+    // Largest table a direct ByteBuffer can address
+    private static final long MAX_SLOTS = 1L << 27;
+
+    private ByteBuffer table;
+    private int mask;
+    // Entries the table takes before it grows
+    private int capacity;
+    private int size;
+    // (0, 0) marks empty slots, so that one fingerprint is tracked on the side
+    private boolean hasZero;
+
+    public FingerprintIndex(int capacity) {
+        // Keep the load factor at or below 3/4 so probe runs stay short
+        long wanted = Math.max(16, (long) capacity * 4 / 3 + 1);
+        long slots = Long.highestOneBit(wanted - 1) << 1;
+        if (slots > MAX_SLOTS) throw new IllegalArgumentException("Capacity too large: " + capacity);
+        allocate((int) slots);
+    }
+
+    private void allocate(int slots) {
+        this.table = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+        this.mask = slots - 1;
+        this.capacity = slots / 4 * 3;
+    }
+
+    // True if the fingerprint was new
+    public boolean add(Fingerprint fingerprint) {
+        return add(fingerprint.high, fingerprint.low);
+    }
+
+    public boolean add(long high, long low) {
+        if (high == 0 && low == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int slot = find(high, low);
+        int offset = slot * SLOT_BYTES;
+        if (table.getLong(offset) != 0 || table.getLong(offset + 8) != 0) return false;
+        if (size >= capacity) {
+            grow();
+            offset = find(high, low) * SLOT_BYTES;
+        }
+        table.putLong(offset, high);
+        table.putLong(offset + 8, low);
+        size++;
+        return true;
+    }
+
+    public boolean contains(Fingerprint fingerprint) {
+        if (fingerprint.high == 0 && fingerprint.low == 0) return hasZero;
+        int offset = find(fingerprint.high, fingerprint.low) * SLOT_BYTES;
+        return table.getLong(offset) != 0 || table.getLong(offset + 8) != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Moves every entry into a table twice the size
+    private void grow() {
+        long slots = 2L * (mask + 1);
+        if (slots > MAX_SLOTS) throw new IllegalStateException("Fingerprint index full at " + size);
+        ByteBuffer old = table;
+        allocate((int) slots);
+        for (int offset = 0; offset < old.capacity(); offset += SLOT_BYTES) {
+            long high = old.getLong(offset);
+            long low = old.getLong(offset + 8);
+            if (high == 0 && low == 0) continue;
+            int slot = find(high, low) * SLOT_BYTES;
+            table.putLong(slot, high);
+            table.putLong(slot + 8, low);
+        }
+    }
+
+    // Slot holding the fingerprint, or the empty slot where it would go
+    private int find(long high, long low) {
+        int slot = (int) (low ^ (low >>> 32)) & mask;
+        while (true) {
+            int offset = slot * SLOT_BYTES;
+            long h = table.getLong(offset);
+            long l = table.getLong(offset + 8);
+            if ((h == high && l == low) || (h == 0 && l == 0)) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.logicgrid.dedup;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.Zobrist;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Puts a puzzle in a form that does not depend on names, on the order of its
+ * categories, items or clues, or on which category happens to be category 0.
+ *
+ * Every item is replaced by the entity that owns it in the solution, so clues become
+ * statements about (category, entity) pairs. Categories are then ranked by how the
+ * clues use them and entities by the value of the first ordered category (or, without
+ * one, by how the clues use them); the form is the smallest clue encoding over every
+ * ordering the ranking leaves tied. Items of ordered categories keep their positions,
+ * since "earlier" depends on them. Past {@link #MAX_CANDIDATES} tied orderings the
+ * search stops early: such very symmetric puzzles may then miss a duplicate, but two
+ * different puzzles never share a form.
+ */
+public class PuzzleCanonicalizer {
+    public static final int MAX_CANDIDATES = 5040;
+
+    private static final int SAME = 1;
+    private static final int DIFFERENT = 2;
+    private static final int BEFORE = 3;
+    private static final int NOT_AFTER = 4;
+    private static final int IF_THEN = 5;
+    private static final int EITHER_OR = 6;
+    private static final int BOTH = 7;
+
+    private static final Comparator<int[]> LEXICOGRAPHIC = new Comparator<int[]>() {
+        @Override
+        public int compare(int[] a, int[] b) {
+            return PuzzleCanonicalizer.compare(a, b);
+        }
+    };
+
+    public Fingerprint fingerprint(GameLogic.PuzzleData data) {
+        return Fingerprint.of(canonicalForm(data));
+    }
+
+    public int[] canonicalForm(GameLogic.PuzzleData data) {
+        if (data.constraints.length != data.clues.length) {
+            throw new IllegalArgumentException("Puzzles without machine-readable clues have no canonical form");
+        }
+        return new Search(data).run();
+    }
+
+    static int compare(int[] a, int[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) return a[i] < b[i] ? -1 : 1;
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    // State for canonicalizing one puzzle; the canonicalizer itself stays stateless and thread-safe
+    private static class Search {
+        private final int categories;
+        private final int items;
+        private final Constraint[] constraints;
+        private final int[][] assignment;
+        // owner[c][item] is the entity holding that item in the solution
+        private final int[][] owner;
+        private final boolean[] ordered;
+        private final long[] categorySignature;
+        // Every (category, item, usage) occurrence in the clues, flattened in threes
+        private final List<long[]> atoms = new ArrayList<>();
+
+        private final int[] position;
+        private final int[] rank;
+        private int[] best;
+        private int candidates;
+
+        Search(GameLogic.PuzzleData data) {
+            this.categories = data.categories.length;
+            this.items = data.assignment[0].length;
+            this.constraints = data.constraints;
+            this.assignment = data.assignment;
+            this.owner = new int[categories][items];
+            for (int c = 0; c < categories; c++) {
+                for (int e = 0; e < items; e++) owner[c][assignment[c][e]] = e;
+            }
+            this.ordered = new boolean[categories];
+            this.categorySignature = new long[categories];
+            this.position = new int[categories];
+            this.rank = new int[items];
+        }
+
+        int[] run() {
+            for (Constraint constraint : constraints) collect(constraint, 0);
+            for (long[] atom : atoms) {
+                categorySignature[(int) atom[0]] += Zobrist.mix(atom[2]);
+            }
+            for (int c = 0; c < categories; c++) {
+                if (ordered[c]) categorySignature[c] += Zobrist.mix(-1);
+            }
+
+            int[] categoryOrder = sortedBy(categorySignature);
+            int[] categoryGroups = groups(categoryOrder, categorySignature);
+            do {
+                for (int i = 0; i < categories; i++) position[categoryOrder[i]] = i;
+                searchEntities();
+            } while (candidates < MAX_CANDIDATES && nextArrangement(categoryOrder, categoryGroups));
+            return best;
+        }
+
+        // Records every item occurrence with a code for where in which kind of clue it sits
+        private void collect(Constraint constraint, long context) {
+            if (constraint instanceof Constraints.Same) {
+                Constraints.Same same = (Constraints.Same) constraint;
+                atom(same.categoryA, same.itemA, context * 64 + SAME * 4);
+                atom(same.categoryB, same.itemB, context * 64 + SAME * 4);
+            } else if (constraint instanceof Constraints.Different) {
+                Constraints.Different different = (Constraints.Different) constraint;
+                atom(different.categoryA, different.itemA, context * 64 + DIFFERENT * 4);
+                atom(different.categoryB, different.itemB, context * 64 + DIFFERENT * 4);
+            } else if (constraint instanceof Constraints.Order) {
+                Constraints.Order order = (Constraints.Order) constraint;
+                int kind = order.orEqual ? NOT_AFTER : BEFORE;
+                atom(order.categoryA, order.itemA, context * 64 + kind * 4 + 1);
+                atom(order.categoryB, order.itemB, context * 64 + kind * 4 + 2);
+                ordered[order.orderCategory] = true;
+                categorySignature[order.orderCategory] += Zobrist.mix(context * 64 + kind * 4 + 3);
+            } else if (constraint instanceof Constraints.IfThen) {
+                Constraints.IfThen ifThen = (Constraints.IfThen) constraint;
+                collect(ifThen.condition, context * 8 + 1);
+                collect(ifThen.consequence, context * 8 + 2);
+            } else if (constraint instanceof Constraints.EitherOr) {
+                Constraints.EitherOr eitherOr = (Constraints.EitherOr) constraint;
+                collect(eitherOr.first, context * 8 + 3);
+                collect(eitherOr.second, context * 8 + 3);
+            } else if (constraint instanceof Constraints.Both) {
+                Constraints.Both both = (Constraints.Both) constraint;
+                collect(both.first, context * 8 + 4);
+                collect(both.second, context * 8 + 4);
+            } else {
+                throw new IllegalArgumentException("Unknown constraint: " + constraint);
+            }
+        }
+
+        private void atom(int category, int item, long usage) {
+            atoms.add(new long[] {category, owner[category][item], usage});
+        }
+
+        private void searchEntities() {
+            int first = -1;
+            for (int c = 0; c < categories; c++) {
+                if (ordered[c] && (first < 0 || position[c] < position[first])) first = c;
+            }
+            if (first >= 0) {
+                // Entities are ranked by their value in the ordered category: no ties to try
+                for (int e = 0; e < items; e++) rank[e] = assignment[first][e];
+                consider();
+                return;
+            }
+
+            // Two rounds of refinement: own usage, then the usage of entities sharing a clue
+            long[] signature = new long[items];
+            for (long[] atom : atoms) {
+                signature[(int) atom[1]] += Zobrist.mix(atom[2] * 64 + position[(int) atom[0]]);
+            }
+            long[] refined = new long[items];
+            // Every leaf clue adds its two items next to each other
+            for (int i = 0; i + 1 < atoms.size(); i += 2) {
+                long[] a = atoms.get(i);
+                long[] b = atoms.get(i + 1);
+                refined[(int) a[1]] += Zobrist.mix(signature[(int) b[1]] ^ a[2]);
+                refined[(int) b[1]] += Zobrist.mix(signature[(int) a[1]] ^ b[2]);
+            }
+            for (int e = 0; e < items; e++) {
+                refined[e] = signature[e] * 31 + refined[e];
+            }
+
+            int[] entityOrder = sortedBy(refined);
+            int[] entityGroups = groups(entityOrder, refined);
+            do {
+                for (int i = 0; i < items; i++) rank[entityOrder[i]] = i;
+                consider();
+            } while (candidates < MAX_CANDIDATES && nextArrangement(entityOrder, entityGroups));
+        }
+
+        private void consider() {
+            candidates++;
+            int[] form = encode();
+            if (best == null || compare(form, best) < 0) best = form;
+        }
+
+        private int[] encode() {
+            IntList out = new IntList();
+            out.add(categories);
+            out.add(items);
+            out.add(constraints.length);
+            // Values of each ordered category per entity rank, in category rank order
+            int[] byPosition = new int[categories];
+            for (int c = 0; c < categories; c++) byPosition[position[c]] = c;
+            for (int p = 0; p < categories; p++) {
+                int c = byPosition[p];
+                if (!ordered[c]) continue;
+                out.add(p);
+                int[] values = new int[items];
+                for (int e = 0; e < items; e++) values[rank[e]] = assignment[c][e];
+                out.addAll(values);
+            }
+
+            int[][] clues = new int[constraints.length][];
+            for (int i = 0; i < constraints.length; i++) {
+                IntList clue = new IntList();
+                encode(constraints[i], clue);
+                clues[i] = clue.toArray();
+            }
+            Arrays.sort(clues, LEXICOGRAPHIC);
+            for (int[] clue : clues) {
+                out.add(clue.length);
+                out.addAll(clue);
+            }
+            return out.toArray();
+        }
+
+        private int atom(int category, int item) {
+            return position[category] * 64 + rank[owner[category][item]];
+        }
+
+        private void encode(Constraint constraint, IntList out) {
+            if (constraint instanceof Constraints.Same) {
+                Constraints.Same same = (Constraints.Same) constraint;
+                pair(out, SAME, atom(same.categoryA, same.itemA), atom(same.categoryB, same.itemB));
+            } else if (constraint instanceof Constraints.Different) {
+                Constraints.Different different = (Constraints.Different) constraint;
+                pair(out, DIFFERENT, atom(different.categoryA, different.itemA),
+                        atom(different.categoryB, different.itemB));
+            } else if (constraint instanceof Constraints.Order) {
+                Constraints.Order order = (Constraints.Order) constraint;
+                out.add(order.orEqual ? NOT_AFTER : BEFORE);
+                out.add(atom(order.categoryA, order.itemA));
+                out.add(atom(order.categoryB, order.itemB));
+                out.add(position[order.orderCategory]);
+            } else if (constraint instanceof Constraints.IfThen) {
+                Constraints.IfThen ifThen = (Constraints.IfThen) constraint;
+                out.add(IF_THEN);
+                nested(out, ifThen.condition);
+                nested(out, ifThen.consequence);
+            } else if (constraint instanceof Constraints.EitherOr) {
+                Constraints.EitherOr eitherOr = (Constraints.EitherOr) constraint;
+                unordered(out, EITHER_OR, eitherOr.first, eitherOr.second);
+            } else {
+                Constraints.Both both = (Constraints.Both) constraint;
+                unordered(out, BOTH, both.first, both.second);
+            }
+        }
+
+        private static void pair(IntList out, int kind, int a, int b) {
+            out.add(kind);
+            out.add(Math.min(a, b));
+            out.add(Math.max(a, b));
+        }
+
+        private void nested(IntList out, Constraint constraint) {
+            IntList part = new IntList();
+            encode(constraint, part);
+            out.add(part.size);
+            out.addAll(part.toArray());
+        }
+
+        private void unordered(IntList out, int kind, Constraint first, Constraint second) {
+            IntList a = new IntList();
+            IntList b = new IntList();
+            encode(first, a);
+            encode(second, b);
+            int[] x = a.toArray();
+            int[] y = b.toArray();
+            if (compare(x, y) > 0) {
+                int[] t = x;
+                x = y;
+                y = t;
+            }
+            out.add(kind);
+            out.add(x.length);
+            out.addAll(x);
+            out.add(y.length);
+            out.addAll(y);
+        }
+    }
+
+    // Indices sorted by key, ties by index
+    private static int[] sortedBy(final long[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) boxed[i] = i;
+        Arrays.sort(boxed, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byKey = Long.compare(keys[a], keys[b]);
+                return byKey != 0 ? byKey : Integer.compare(a, b);
+            }
+        });
+        int[] order = new int[keys.length];
+        for (int i = 0; i < order.length; i++) order[i] = boxed[i];
+        return order;
+    }
+
+    // Start offsets of runs of equal keys in `order`, plus a final end offset
+    private static int[] groups(int[] order, long[] keys) {
+        IntList starts = new IntList();
+        for (int i = 0; i < order.length; i++) {
+            if (i == 0 || keys[order[i]] != keys[order[i - 1]]) starts.add(i);
+        }
+        starts.add(order.length);
+        return starts.toArray();
+    }
+
+    // Steps to the next arrangement that only reorders within groups, odometer style;
+    // false once every group has wrapped back to ascending order
+    private static boolean nextArrangement(int[] order, int[] groups) {
+        for (int g = groups.length - 2; g >= 0; g--) {
+            if (nextPermutation(order, groups[g], groups[g + 1])) return true;
+        }
+        return false;
+    }
+
+    // Lexicographic next permutation of order[from, to); resets to ascending and returns false at the end
+    private static boolean nextPermutation(int[] order, int from, int to) {
+        int i = to - 2;
+        while (i >= from && order[i] >= order[i + 1]) i--;
+        if (i >= from) {
+            int j = to - 1;
+            while (order[j] <= order[i]) j--;
+            swap(order, i, j);
+        }
+        for (int a = i + 1, b = to - 1; a < b; a++, b--) swap(order, a, b);
+        return i >= from;
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int t = array[i];
+        array[i] = array[j];
+        array[j] = t;
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(int[] more) {
+            for (int value : more) add(value);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
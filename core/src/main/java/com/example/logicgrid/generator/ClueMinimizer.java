@@ -0,0 +1,133 @@
+package com.example.logicgrid.generator;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Drops clues a puzzle does not need while keeping its solution unique. The result is
+ * the same as trying each clue in order and removing it when the rest still pins down
+ * one solution, but each round tests every remaining candidate in parallel. Removing
+ * clues only ever adds solutions, so a clue found necessary once stays necessary and
+ * is never tested again; a round keeps all of those and removes the first removable
+ * candidate. Every test is a solver run that stops at the second solution.
+ */
+public class ClueMinimizer {
+    // Below this many candidates a round runs on the calling thread
+    private static final int PARALLEL_THRESHOLD = 8;
+
+    public GameLogic.PuzzleData minimize(GameLogic.PuzzleData data) {
+        int count = data.constraints.length;
+        if (count != data.clues.length) {
+            throw new IllegalArgumentException("Every clue needs its constraint to be minimized");
+        }
+        int categories = data.categories.length;
+        int items = data.assignment[0].length;
+
+        boolean[] kept = new boolean[count];
+        Arrays.fill(kept, true);
+        // Candidates still to test, in clue order
+        int[] candidates = new int[count];
+        for (int i = 0; i < count; i++) candidates[i] = i;
+        int remaining = count;
+
+        boolean[] removable = new boolean[count];
+        while (remaining > 0) {
+            RoundTask round = new RoundTask(categories, items, data.constraints, kept, candidates, removable, 0, remaining);
+            if (remaining < PARALLEL_THRESHOLD) {
+                round.compute();
+            } else {
+                ForkJoinPool.commonPool().invoke(round);
+            }
+
+            int next = 0;
+            boolean removed = false;
+            for (int c = 0; c < remaining; c++) {
+                int clue = candidates[c];
+                if (!removable[clue]) continue;
+                if (!removed) {
+                    kept[clue] = false;
+                    removed = true;
+                } else {
+                    // Still removable without the clue just dropped? Test again next round
+                    candidates[next++] = clue;
+                }
+            }
+            remaining = removed ? next : 0;
+        }
+        return keep(data, kept);
+    }
+
+    private static GameLogic.PuzzleData keep(GameLogic.PuzzleData data, boolean[] kept) {
+        int count = 0;
+        for (boolean k : kept) {
+            if (k) count++;
+        }
+        String[] clues = new String[count];
+        Constraint[] constraints = new Constraint[count];
+        count = 0;
+        for (int i = 0; i < kept.length; i++) {
+            if (!kept[i]) continue;
+            clues[count] = data.clues[i];
+            constraints[count++] = data.constraints[i];
+        }
+        return new GameLogic.PuzzleData(data.categories, clues, data.solution, data.assignment, constraints);
+    }
+
+    // Tests candidates[from, to): is the puzzle still unique without that one clue?
+    private static class RoundTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int categories;
+        private final int items;
+        private final Constraint[] constraints;
+        private final boolean[] kept;
+        private final int[] candidates;
+        private final boolean[] removable;
+        private final int from;
+        private final int to;
+
+        RoundTask(int categories, int items, Constraint[] constraints, boolean[] kept,
+                  int[] candidates, boolean[] removable, int from, int to) {
+            this.categories = categories;
+            this.items = items;
+            this.constraints = constraints;
+            this.kept = kept;
+            this.candidates = candidates;
+            this.removable = removable;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && to - from >= PARALLEL_THRESHOLD / 2 && getPool() != null) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RoundTask(categories, items, constraints, kept, candidates, removable, from, mid),
+                        new RoundTask(categories, items, constraints, kept, candidates, removable, mid, to));
+                return;
+            }
+            for (int c = from; c < to; c++) {
+                int clue = candidates[c];
+                removable[clue] = isUniqueWithout(clue);
+            }
+        }
+
+        private boolean isUniqueWithout(int skip) {
+            int count = 0;
+            for (int i = 0; i < kept.length; i++) {
+                if (kept[i] && i != skip) count++;
+            }
+            Constraint[] rest = new Constraint[count];
+            count = 0;
+            for (int i = 0; i < kept.length; i++) {
+                if (kept[i] && i != skip) rest[count++] = constraints[i];
+            }
+            return new PuzzleSolver(categories, items, rest).hasUniqueSolution();
+        }
+    }
+}
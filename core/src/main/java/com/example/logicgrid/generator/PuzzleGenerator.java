@@ -0,0 +1,338 @@
+package com.example.logicgrid.generator;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+import com.example.logicgrid.solver.Domains;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds puzzles from a seed: a random solution, then random clues that hold for it,
+ * until the solver reports exactly one solution. The same seed always yields the
+ * same puzzle, and batch puzzle i is seeded from (seed, i), so batches are
+ * reproducible however the fork/join pool splits them.
+ */
+public class PuzzleGenerator {
+    private static final int IS = 0;
+    private static final int IS_NOT = 1;
+    private static final int BEFORE = 2;
+    private static final int IF_THEN = 3;
+    private static final int EITHER_OR = 4;
+
+    private static final int BATCH_THRESHOLD = 16;
+    // Uniqueness checks that need more search than this wait for more clues instead
+    private static final long NODE_BUDGET = 2000;
+
+    private final int categories;
+    private final int items;
+    private final int[] weights;
+    private final int totalWeight;
+
+    public PuzzleGenerator(int categories, int items, String difficulty) {
+        this.weights = weightsFor(difficulty);
+        int maxCategories = Theme.UNORDERED.length + (weights[BEFORE] > 0 ? 1 : 0);
+        if (categories < 2 || categories > maxCategories) {
+            throw new IllegalArgumentException("Unsupported category count: " + categories);
+        }
+        if (items < 2 || items > Domains.MAX_ITEMS) {
+            throw new IllegalArgumentException("Unsupported item count: " + items);
+        }
+        this.categories = categories;
+        this.items = items;
+        int total = 0;
+        for (int weight : weights) total += weight;
+        this.totalWeight = total;
+    }
+
+    private static int[] weightsFor(String difficulty) {
+        switch (difficulty) {
+            case "EASY":
+                return new int[] {35, 65, 0, 0, 0};
+            case "MEDIUM":
+                return new int[] {15, 45, 25, 15, 0};
+            case "HARD":
+                return new int[] {5, 35, 25, 20, 15};
+            default:
+                throw new IllegalArgumentException("Unknown difficulty: " + difficulty);
+        }
+    }
+
+    public GameLogic.PuzzleData[] generateBatch(long seed, int count) {
+        GameLogic.PuzzleData[] puzzles = new GameLogic.PuzzleData[count];
+        ForkJoinPool.commonPool().invoke(new BatchTask(seed, puzzles, 0, count));
+        return puzzles;
+    }
+
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final GameLogic.PuzzleData[] out;
+        private final int from;
+        private final int to;
+
+        BatchTask(long seed, GameLogic.PuzzleData[] out, int from, int to) {
+            this.seed = seed;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    out[i] = generate(seedFor(seed, i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(seed, out, from, mid), new BatchTask(seed, out, mid, to));
+        }
+    }
+
+    // SplitMix64 finalizer, so neighbouring indices get unrelated seeds
+    public static long seedFor(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public GameLogic.PuzzleData generate(long seed) {
+        Random random = new Random(seed);
+        Theme[] themes = pickThemes(random);
+        String[][] names = new String[categories][];
+        for (int c = 0; c < categories; c++) {
+            names[c] = themes[c].items(items);
+        }
+        int[][] solution = randomSolution(random);
+
+        List<Constraint> constraints = new ArrayList<>();
+        List<String> clues = new ArrayList<>();
+        Domains root = new PuzzleSolver(categories, items, new Constraint[0]).rootDomains();
+        int attempts = 0;
+        int maxAttempts = 64 * categories * items;
+        int sinceSearch = 0;
+        int pendingClues = 0;
+        while (!root.isSolved()) {
+            // Propagation alone settles most puzzles; only pay for a search every few clues
+            if (sinceSearch >= categories) {
+                sinceSearch = 0;
+                PuzzleSolver solver = new PuzzleSolver(categories, items, constraints.toArray(new Constraint[0]));
+                solver.setNodeLimit(NODE_BUDGET);
+                if (solver.hasUniqueSolution()) break;
+            }
+
+            Clue clue;
+            if (attempts++ < maxAttempts) {
+                clue = randomClue(random, solution, names, themes);
+                if (clue == null || clue.constraint.evaluate(root) == Constraint.TRUE) continue;
+            } else {
+                // Give up on random clues and pin down an undecided item directly
+                clue = fixingClue(root, solution, names, themes);
+            }
+
+            constraints.add(clue.constraint);
+            Domains next = new PuzzleSolver(categories, items, constraints.toArray(new Constraint[0]))
+                    .rootDomains(root);
+            if (!narrows(root, next)) {
+                // Adds nothing the earlier clues don't already give. A few undecided
+                // conditionals are kept since they pay off once their condition is known
+                boolean pending = clue.conditional && clue.constraint.evaluate(next) == Constraint.UNKNOWN;
+                if (!pending || pendingClues >= items) {
+                    constraints.remove(constraints.size() - 1);
+                    continue;
+                }
+                pendingClues++;
+            }
+            clues.add(clue.text);
+            root = next;
+            sinceSearch++;
+        }
+
+        return new GameLogic.PuzzleData(names, clues.toArray(new String[0]),
+                PuzzleSolver.toGrid(solution, 0, 1), solution, constraints.toArray(new Constraint[0]));
+    }
+
+    private Theme[] pickThemes(Random random) {
+        Theme[] pool = Theme.UNORDERED.clone();
+        shuffle(pool, random);
+        Theme[] themes = new Theme[categories];
+        boolean ordered = weights[BEFORE] > 0;
+        int unordered = ordered ? categories - 1 : categories;
+        System.arraycopy(pool, 0, themes, 0, unordered);
+        if (ordered) {
+            // The ordered category always comes last, which is where ordering clues look for it
+            themes[categories - 1] = Theme.ORDERED[random.nextInt(Theme.ORDERED.length)];
+        }
+        return themes;
+    }
+
+    private int[][] randomSolution(Random random) {
+        int[][] solution = new int[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) solution[c][e] = e;
+            if (c == 0) continue;
+            for (int e = items - 1; e > 0; e--) {
+                int j = random.nextInt(e + 1);
+                int t = solution[c][e];
+                solution[c][e] = solution[c][j];
+                solution[c][j] = t;
+            }
+        }
+        return solution;
+    }
+
+    private Clue randomClue(Random random, int[][] solution, String[][] names, Theme[] themes) {
+        int roll = random.nextInt(totalWeight);
+        int type = 0;
+        while (roll >= weights[type]) roll -= weights[type++];
+
+        switch (type) {
+            case IS:
+            case IS_NOT: {
+                Fact fact = randomFact(random, solution, true, type == IS);
+                return new Clue(fact.constraint(), capitalize(fact.text(names, themes)));
+            }
+            case BEFORE: {
+                int order = categories - 1;
+                int a = random.nextInt(order);
+                int b = random.nextInt(order);
+                int e = random.nextInt(items);
+                int f = random.nextInt(items);
+                if (e == f) return null;
+                if (solution[order][e] > solution[order][f]) {
+                    int t = e;
+                    e = f;
+                    f = t;
+                }
+                int x = solution[a][e];
+                int y = solution[b][f];
+                return new Clue(Constraints.before(a, x, b, y, order),
+                        capitalize(ref(a, x, names, themes) + " is " + themes[order].lessWord
+                                + " than " + ref(b, y, names, themes)));
+            }
+            case IF_THEN: {
+                Fact condition = randomFact(random, solution, random.nextBoolean(), true);
+                // With a false condition the consequence is false too, so the clue still says something
+                Fact consequence = randomFact(random, solution, condition.holds, random.nextBoolean());
+                return new Clue(Constraints.ifThen(condition.constraint(), consequence.constraint()),
+                        "If " + condition.text(names, themes) + ", then " + consequence.text(names, themes), true);
+            }
+            default: {
+                Fact first = randomFact(random, solution, true, true);
+                Fact second = randomFact(random, solution, false, true);
+                if (random.nextBoolean()) {
+                    Fact t = first;
+                    first = second;
+                    second = t;
+                }
+                return new Clue(Constraints.eitherOr(first.constraint(), second.constraint()),
+                        "Either " + first.text(names, themes) + " or " + second.text(names, themes), true);
+            }
+        }
+    }
+
+    // A positive ("is") or negative ("is not") fact that is true or false for the solution
+    private Fact randomFact(Random random, int[][] solution, boolean holds, boolean positive) {
+        int a = random.nextInt(categories);
+        int b = random.nextInt(categories - 1);
+        if (b >= a) b++;
+        int e = random.nextInt(items);
+        int f = e;
+        if (holds != positive) {
+            f = random.nextInt(items - 1);
+            if (f >= e) f++;
+        }
+        return new Fact(a, solution[a][e], b, solution[b][f], positive, holds);
+    }
+
+    private Clue fixingClue(Domains root, int[][] solution, String[][] names, Theme[] themes) {
+        for (int c = 1; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                if (Long.bitCount(root.items(c, e)) == 1) continue;
+                Fact fact = new Fact(0, e, c, solution[c][e], true, true);
+                return new Clue(fact.constraint(), capitalize(fact.text(names, themes)));
+            }
+        }
+        throw new IllegalStateException("Puzzle is fully determined but not unique");
+    }
+
+    private static boolean narrows(Domains before, Domains after) {
+        for (int c = 1; c < before.categories(); c++) {
+            for (int e = 0; e < before.items(); e++) {
+                if (before.items(c, e) != after.items(c, e)) return true;
+            }
+        }
+        return false;
+    }
+
+    static String ref(int category, int item, String[][] names, Theme[] themes) {
+        return (themes[category].article ? "the " : "") + names[category][item];
+    }
+
+    static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static <T> void shuffle(T[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+
+    private static class Fact {
+        final int categoryA;
+        final int itemA;
+        final int categoryB;
+        final int itemB;
+        final boolean positive;
+        final boolean holds;
+
+        Fact(int categoryA, int itemA, int categoryB, int itemB, boolean positive, boolean holds) {
+            this.categoryA = categoryA;
+            this.itemA = itemA;
+            this.categoryB = categoryB;
+            this.itemB = itemB;
+            this.positive = positive;
+            this.holds = holds;
+        }
+
+        Constraint constraint() {
+            return positive
+                    ? Constraints.same(categoryA, itemA, categoryB, itemB)
+                    : Constraints.different(categoryA, itemA, categoryB, itemB);
+        }
+
+        String text(String[][] names, Theme[] themes) {
+            return ref(categoryA, itemA, names, themes) + (positive ? " is " : " is not ")
+                    + names[categoryB][itemB];
+        }
+    }
+
+    private static class Clue {
+        final Constraint constraint;
+        final String text;
+        final boolean conditional;
+
+        Clue(Constraint constraint, String text) {
+            this(constraint, text, false);
+        }
+
+        Clue(Constraint constraint, String text, boolean conditional) {
+            this.constraint = constraint;
+            this.text = text;
+            this.conditional = conditional;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.logicgrid.generator;
+
+public class Theme {
+    public final String name;
+    private final String[] pool;
+    // Comparative used in ordering clues, null for unordered themes
+    public final String lessWord;
+    // Whether clues write "the" before an item ("the Cat" but not "the Alice")
+    public final boolean article;
+
+    Theme(String name, String lessWord, String... pool) {
+        this(name, lessWord, true, pool);
+    }
+
+    Theme(String name, String lessWord, boolean article, String... pool) {
+        this.name = name;
+        this.lessWord = lessWord;
+        this.article = article;
+        this.pool = pool;
+    }
+
+    public boolean isOrdered() {
+        return lessWord != null;
+    }
+
+    // Ordered themes keep their natural order; larger puzzles fall back to numbered items
+    public String[] items(int count) {
+        String[] items = new String[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = count <= pool.length ? pool[i] : name + " " + (i + 1);
+        }
+        return items;
+    }
+
+    static final Theme[] UNORDERED = {
+        new Theme("Pet", null, "Bird", "Cat", "Dog", "Fish", "Hamster", "Rabbit",
+                "Turtle", "Lizard", "Parrot", "Ferret", "Snake", "Mouse"),
+        new Theme("Color", null, "Red", "Blue", "Green", "Yellow", "Purple", "Orange",
+                "Pink", "White", "Black", "Brown", "Gray", "Silver"),
+        new Theme("Name", null, false, "Alice", "Bob", "Carol", "Dave", "Erin", "Frank",
+                "Grace", "Heidi", "Ivan", "Judy", "Ken", "Liam"),
+        new Theme("Food", null, "Pizza", "Burger", "Salad", "Pasta", "Soup", "Tacos",
+                "Sushi", "Curry", "Steak", "Noodles", "Omelet", "Sandwich"),
+        new Theme("Drink", null, "Coffee", "Tea", "Juice", "Milk", "Soda", "Water",
+                "Cocoa", "Lemonade", "Smoothie", "Cider", "Kefir", "Punch"),
+        new Theme("Sport", null, "Running", "Swimming", "Cycling", "Tennis", "Rowing", "Boxing",
+                "Hockey", "Golf", "Skiing", "Archery", "Fencing", "Judo"),
+        new Theme("City", null, "London", "Paris", "Rome", "Madrid", "Berlin", "Vienna",
+                "Prague", "Lisbon", "Oslo", "Athens", "Dublin", "Warsaw"),
+        new Theme("Hobby", null, "Chess", "Painting", "Hiking", "Baking", "Knitting", "Fishing",
+                "Gardening", "Dancing", "Reading", "Singing", "Pottery", "Surfing")
+    };
+
+    static final Theme[] ORDERED = {
+        new Theme("Day", "earlier", "Monday", "Tuesday", "Wednesday", "Thursday",
+                "Friday", "Saturday", "Sunday"),
+        new Theme("Time", "earlier", "6am", "7am", "8am", "9am", "10am", "11am",
+                "12pm", "1pm", "2pm", "3pm", "4pm", "5pm"),
+        new Theme("Price", "cheaper", "$5", "$10", "$15", "$20", "$25", "$30",
+                "$35", "$40", "$45", "$50", "$55", "$60")
+    };
+}
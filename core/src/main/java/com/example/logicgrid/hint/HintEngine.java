@@ -0,0 +1,295 @@
+package com.example.logicgrid.hint;
+
+import com.example.logicgrid.BoardSnapshot;
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+import com.example.logicgrid.solver.Domains;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the next cell a player can deduce and the clue that forces it. Everything the
+ * engine learns is a fact about the (unique) solution, so its domains only ever narrow:
+ * later hints continue from where the last one stopped instead of re-solving, and
+ * taking back a mark never invalidates what is already known.
+ */
+public class HintEngine {
+    // Clue index used when the one-YES-per-line rule alone forces the cell
+    public static final int GRID_RULE = -1;
+
+    public interface Callback {
+        // Called on the executor thread, with null once every cell is marked;
+        // not called for cancelled requests
+        void onHint(Hint hint);
+    }
+
+    private final int categories;
+    private final int items;
+    private final Constraint[] constraints;
+    // entityOf[c][item] is the entity holding that item in the solution
+    private final int[][] entityOf;
+    private final Domains known;
+    // Per category pair (a < b, GameLogic order) and cell: what `known` has settled and why
+    private final byte[][] knownState;
+    private final int[][] reason;
+
+    private final ExecutorService executor;
+    private final AtomicInteger generation = new AtomicInteger();
+    private Future<?> pending;
+
+    public HintEngine(GameLogic.PuzzleData data, ExecutorService executor) {
+        this.categories = data.categories.length;
+        this.items = data.assignment[0].length;
+        this.constraints = data.constraints;
+        this.executor = executor;
+        this.entityOf = new int[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                entityOf[c][data.assignment[c][e]] = e;
+            }
+        }
+        this.known = new Domains(categories, items);
+        int pairs = categories * (categories - 1) / 2;
+        this.knownState = new byte[pairs][items * items];
+        this.reason = new int[pairs][items * items];
+    }
+
+    // Takes the board's current snapshot and searches on the executor,
+    // dropping whatever request was still running
+    public void requestHint(GameLogic game, final Callback callback) {
+        final BoardSnapshot board = game.snapshot();
+        final int request = generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                Hint hint = search(cells(board), request);
+                if (!cancelled(request)) callback.onHint(hint);
+            }
+        });
+    }
+
+    // Call on every toggle; a running search stops at its next step
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) pending.cancel(false);
+        pending = null;
+    }
+
+    public Hint findHint(GameLogic game) {
+        return search(cells(game.snapshot()), -1);
+    }
+
+    private byte[][] cells(BoardSnapshot board) {
+        byte[][] grid = new byte[knownState.length][items * items];
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int i = 0; i < items; i++) {
+                    for (int j = 0; j < items; j++) {
+                        grid[p][i * items + j] = (byte) board.getCellState(a, i, b, j);
+                    }
+                }
+                p++;
+            }
+        }
+        return grid;
+    }
+
+    private boolean cancelled(int request) {
+        return request >= 0 && generation.get() != request;
+    }
+
+    private synchronized Hint search(byte[][] grid, int request) {
+        Hint mistake = findMistake(grid);
+        if (mistake != null) return mistake;
+
+        // With no mistakes on the board the player's marks are facts too
+        List<Constraint> premises = new ArrayList<>();
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int i = 0; i < items; i++) {
+                    for (int j = 0; j < items; j++) {
+                        int index = i * items + j;
+                        if (grid[p][index] == GameLogic.EMPTY || knownState[p][index] != GameLogic.EMPTY) continue;
+                        premises.add(grid[p][index] == GameLogic.YES
+                                ? Constraints.same(a, i, b, j) : Constraints.different(a, i, b, j));
+                    }
+                }
+                p++;
+            }
+        }
+
+        // Cells settled by earlier hints that the player has not marked yet
+        Hint hint = firstOpen(grid);
+        if (hint != null) return hint;
+
+        // Cheapest rule first: the grid rule, then each clue in order, until one settles an open cell
+        long[] before = new long[categories * items];
+        while (!cancelled(request)) {
+            save(before);
+            for (Constraint premise : premises) {
+                if (!premise.propagate(known)) throw new IllegalStateException("Marks contradict the solution");
+            }
+            hint = applyAndRefresh(null, grid, GRID_RULE);
+            if (hint != null) return hint;
+
+            for (int c = 0; c < constraints.length && !cancelled(request); c++) {
+                hint = applyAndRefresh(constraints[c], grid, c);
+                if (hint != null) return hint;
+            }
+            if (unchanged(before)) break;
+        }
+        if (cancelled(request)) return null;
+        return reveal(grid);
+    }
+
+    private Hint findMistake(byte[][] grid) {
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int i = 0; i < items; i++) {
+                    for (int j = 0; j < items; j++) {
+                        int state = grid[p][i * items + j];
+                        int correct = entityOf[a][i] == entityOf[b][j] ? GameLogic.YES : GameLogic.NO;
+                        if (state != GameLogic.EMPTY && state != correct) {
+                            return new Hint(Hint.MISTAKE, a, i, b, j, correct, GRID_RULE);
+                        }
+                    }
+                }
+                p++;
+            }
+        }
+        return null;
+    }
+
+    private Hint applyAndRefresh(Constraint rule, byte[][] grid, int cause) {
+        if (rule != null && !rule.propagate(known)) throw new IllegalStateException("Clue " + cause + " contradicts the solution");
+        if (!PuzzleSolver.propagateSingles(known)) throw new IllegalStateException("Grid contradicts the solution");
+        return refresh(grid, cause);
+    }
+
+    // Records cells `known` now settles, attributing them to `cause`; returns the first one left open
+    private Hint refresh(byte[][] grid, int cause) {
+        Hint first = null;
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                byte[] states = knownState[p];
+                for (int i = 0; i < items; i++) {
+                    long values = known.valuesOf(a, i, b);
+                    for (int j = 0; j < items; j++) {
+                        int index = i * items + j;
+                        if (states[index] != GameLogic.EMPTY) continue;
+                        long bit = 1L << j;
+                        int state = values == bit ? GameLogic.YES : (values & bit) == 0 ? GameLogic.NO : GameLogic.EMPTY;
+                        if (state == GameLogic.EMPTY) continue;
+                        states[index] = (byte) state;
+                        reason[p][index] = cause;
+                        if (first == null && grid[p][index] == GameLogic.EMPTY) {
+                            first = new Hint(Hint.DEDUCTION, a, i, b, j, state, cause);
+                        }
+                    }
+                }
+                p++;
+            }
+        }
+        return first;
+    }
+
+    private Hint firstOpen(byte[][] grid) {
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int index = 0; index < items * items; index++) {
+                    int state = knownState[p][index];
+                    if (state != GameLogic.EMPTY && grid[p][index] == GameLogic.EMPTY) {
+                        return new Hint(Hint.DEDUCTION, a, index / items, b, index % items, state, reason[p][index]);
+                    }
+                }
+                p++;
+            }
+        }
+        return null;
+    }
+
+    // No single clue moves the puzzle forward from here, so give away an open YES
+    private Hint reveal(byte[][] grid) {
+        int p = 0;
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int i = 0; i < items; i++) {
+                    int j = -1;
+                    for (int col = 0; col < items; col++) {
+                        if (entityOf[b][col] == entityOf[a][i]) j = col;
+                    }
+                    if (grid[p][i * items + j] == GameLogic.EMPTY) {
+                        return new Hint(Hint.REVEAL, a, i, b, j, GameLogic.YES, GRID_RULE);
+                    }
+                }
+                p++;
+            }
+        }
+        return null;
+    }
+
+    private void save(long[] target) {
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                target[c * items + e] = known.items(c, e);
+            }
+        }
+    }
+
+    private boolean unchanged(long[] saved) {
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                if (saved[c * items + e] != known.items(c, e)) return false;
+            }
+        }
+        return true;
+    }
+
+    public static class Hint {
+        // A mark on the board disagrees with the solution
+        public static final int MISTAKE = 0;
+        // The cell follows from the marks so far plus one clue (or the grid rule)
+        public static final int DEDUCTION = 1;
+        // Nothing follows from a single clue any more; the cell is given away
+        public static final int REVEAL = 2;
+
+        public final int kind;
+        public final int categoryA;
+        public final int itemA;
+        public final int categoryB;
+        public final int itemB;
+        // What the cell should be: GameLogic.YES or GameLogic.NO
+        public final int state;
+        // Index into the puzzle's clues, or GRID_RULE
+        public final int clue;
+
+        Hint(int kind, int categoryA, int itemA, int categoryB, int itemB, int state, int clue) {
+            this.kind = kind;
+            this.categoryA = categoryA;
+            this.itemA = itemA;
+            this.categoryB = categoryB;
+            this.itemB = itemB;
+            this.state = state;
+            this.clue = clue;
+        }
+
+        @Override
+        public String toString() {
+            String[] kinds = {"mistake", "deduction", "reveal"};
+            return kinds[kind] + " (" + categoryA + ":" + itemA + ", " + categoryB + ":" + itemB + ") = "
+                    + (state == GameLogic.YES ? "YES" : "NO") + (clue >= 0 ? " by clue " + (clue + 1) : "");
+        }
+    }
+}
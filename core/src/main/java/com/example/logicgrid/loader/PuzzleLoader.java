@@ -0,0 +1,107 @@
+package com.example.logicgrid.loader;
+
+import com.example.logicgrid.GameLogic;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Builds puzzles off the UI thread and keeps the next levels ready. Finished puzzles,
+ * and loads still running, sit in a small LRU keyed by (difficulty, level, seed); asking
+ * for a level that is already loading joins that load instead of starting another. Each
+ * request also queues the following levels, so moving on usually finds the next puzzle
+ * already built.
+ */
+public class PuzzleLoader {
+    public interface Source {
+        // Null when there is no such puzzle
+        GameLogic.PuzzleData load(String difficulty, int level, long seed);
+    }
+
+    public interface Callback {
+        // Called on the executor thread, or straight away on the calling thread when the
+        // puzzle is already built; null when there is no such puzzle or building it failed
+        void onLoaded(GameLogic.PuzzleData data);
+    }
+
+    // Levels generated on the fly, the same puzzle every time for a given level
+    public static final Source GENERATOR = new Source() {
+        @Override
+        public GameLogic.PuzzleData load(String difficulty, int level, long seed) {
+            return GameLogic.generatePuzzleFromSeed(difficulty, seed);
+        }
+    };
+
+    private final Source source;
+    private final ExecutorService executor;
+    private final int prefetch;
+    private final Map<Key, CompletableFuture<GameLogic.PuzzleData>> cache;
+
+    // Keeps `capacity` puzzles and builds `prefetch` levels ahead of every request
+    public PuzzleLoader(Source source, ExecutorService executor, final int capacity, int prefetch) {
+        if (capacity <= prefetch) {
+            throw new IllegalArgumentException("Cache of " + capacity + " cannot hold " + prefetch + " prefetched levels");
+        }
+        this.source = source;
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.cache = new LinkedHashMap<Key, CompletableFuture<GameLogic.PuzzleData>>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<GameLogic.PuzzleData>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public void load(String difficulty, int level, final Callback callback) {
+        request(difficulty, level).whenComplete((data, error) -> callback.onLoaded(error == null ? data : null));
+    }
+
+    public CompletableFuture<GameLogic.PuzzleData> request(String difficulty, int level) {
+        CompletableFuture<GameLogic.PuzzleData> future = start(difficulty, level);
+        for (int ahead = 1; ahead <= prefetch; ahead++) {
+            start(difficulty, level + ahead);
+        }
+        return future;
+    }
+
+    public synchronized boolean isCached(String difficulty, int level) {
+        return cache.containsKey(new Key(difficulty, level, GameLogic.levelSeed(difficulty, level)));
+    }
+
+    private synchronized CompletableFuture<GameLogic.PuzzleData> start(final String difficulty, final int level) {
+        final Key key = new Key(difficulty, level, GameLogic.levelSeed(difficulty, level));
+        CompletableFuture<GameLogic.PuzzleData> future = cache.get(key);
+        if (future == null || future.isCompletedExceptionally()) {
+            future = CompletableFuture.supplyAsync(() -> source.load(key.difficulty, key.level, key.seed), executor);
+            cache.put(key, future);
+        }
+        return future;
+    }
+
+    private static final class Key {
+        final String difficulty;
+        final int level;
+        final long seed;
+
+        Key(String difficulty, int level, long seed) {
+            this.difficulty = difficulty;
+            this.level = level;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return level == other.level && seed == other.seed && difficulty.equals(other.difficulty);
+        }
+
+        @Override
+        public int hashCode() {
+            return (difficulty.hashCode() * 31 + level) * 31 + Long.hashCode(seed);
+        }
+    }
+}
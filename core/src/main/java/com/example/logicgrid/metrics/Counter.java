@@ -0,0 +1,55 @@
+package com.example.logicgrid.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Event counter spread over cache-line-sized stripes, so threads counting at the same
+ * time (batch generation, hint searches) rarely touch the same line. Adding never
+ * allocates; reading sums the stripes and is only as exact as a moving target allows.
+ */
+public class Counter {
+    // Longs per cache line: each stripe uses the first slot of its own line
+    private static final int PAD = 8;
+    private static final int STRIPES;
+
+    static {
+        int wanted = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        STRIPES = Math.min(64, Integer.highestOneBit(wanted - 1) << 1);
+    }
+
+    private final String name;
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PAD);
+
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long delta) {
+        cells.getAndAdd(stripe() * PAD, delta);
+    }
+
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        // Thread ids are sequential; mixing keeps neighbours on different stripes
+        int h = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return h & (STRIPES - 1);
+    }
+
+    public long sum() {
+        long total = 0;
+        for (int i = 0; i < STRIPES; i++) total += cells.get(i * PAD);
+        return total;
+    }
+
+    public void reset() {
+        for (int i = 0; i < STRIPES; i++) cells.set(i * PAD, 0);
+    }
+}
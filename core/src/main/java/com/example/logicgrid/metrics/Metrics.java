@@ -0,0 +1,115 @@
+package com.example.logicgrid.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide registry of named counters and latency timers. Instruments are looked
+ * up once, into static fields, and recorded through on the hot path:
+ *
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * TOGGLE.recordSince(start);
+ * </pre>
+ *
+ * While disabled (the default) start() is one field read and returns 0, which
+ * recordSince ignores, so instrumented code can ship in release builds.
+ */
+public final class Metrics {
+    private static volatile boolean enabled;
+    private static final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter != null) return counter;
+        Counter created = new Counter(name);
+        Counter existing = counters.putIfAbsent(name, created);
+        return existing != null ? existing : created;
+    }
+
+    public static LatencyHistogram timer(String name) {
+        LatencyHistogram timer = timers.get(name);
+        if (timer != null) return timer;
+        LatencyHistogram created = new LatencyHistogram(name);
+        LatencyHistogram existing = timers.putIfAbsent(name, created);
+        return existing != null ? existing : created;
+    }
+
+    // A start time for recordSince, or 0 when metrics are off
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void count(Counter counter) {
+        if (enabled) counter.increment();
+    }
+
+    // Zeroes every instrument, e.g. between benchmark phases
+    public static void reset() {
+        for (Counter counter : counters.values()) counter.reset();
+        for (LatencyHistogram timer : timers.values()) timer.reset();
+    }
+
+    // One line per instrument, sorted by name; timers in microseconds
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : new TreeMap<>(counters).values()) {
+            out.append(counter.getName()).append(' ').append(counter.sum()).append('\n');
+        }
+        for (LatencyHistogram timer : new TreeMap<>(timers).values()) {
+            LatencyHistogram.Snapshot s = timer.snapshot();
+            if (s.count == 0) continue;
+            out.append(String.format(Locale.ROOT, "%s n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p999=%.1fus max=%.1fus%n",
+                    s.name, s.count, micros(s.meanNanos()), micros(s.percentile(50)), micros(s.percentile(90)),
+                    micros(s.percentile(99)), micros(s.percentile(99.9)), micros(s.maxNanos)));
+        }
+        return out.toString();
+    }
+
+    // The same as a single JSON object, timers in nanoseconds, for comparing across builds
+    public static String reportJson() {
+        StringBuilder out = new StringBuilder("{\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(entry.getKey()).append("\":").append(entry.getValue().sum());
+        }
+        out.append("},\"timers\":{");
+        first = true;
+        for (LatencyHistogram timer : new TreeMap<>(timers).values()) {
+            LatencyHistogram.Snapshot s = timer.snapshot();
+            if (s.count == 0) continue;
+            if (!first) out.append(',');
+            first = false;
+            out.append('"').append(s.name).append("\":{\"count\":").append(s.count)
+                    .append(",\"mean\":").append(s.meanNanos())
+                    .append(",\"p50\":").append(s.percentile(50))
+                    .append(",\"p90\":").append(s.percentile(90))
+                    .append(",\"p99\":").append(s.percentile(99))
+                    .append(",\"p999\":").append(s.percentile(99.9))
+                    .append(",\"max\":").append(s.maxNanos).append('}');
+        }
+        return out.append("}}").toString();
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.logicgrid.pack;
+
+/**
+ * Layout of a puzzle pack (big-endian):
+ * <pre>
+ * header     int magic "LGPK", short version, short difficultyCount,
+ *            int stringCount, int stringsOffset, int indexOffset, int puzzleCount
+ * directory  per difficulty: int nameId, int firstPuzzle, int puzzleCount
+ * strings    int[stringCount + 1] byte offsets into the UTF-8 blob that follows
+ * index      int[puzzleCount] absolute record offsets
+ * records    byte categories, byte items, varint clueCount,
+ *            varint[categories * items] item name ids, varint[clueCount] clue ids,
+ *            solution: for categories 1..k-1 each entity's item in ceil(log2 items) bits
+ * </pre>
+ * Item names, clue text and difficulty names are stored in the string table and
+ * records refer to them by id. Repeats usually share one entry, but the same text may
+ * appear under more than one id; readers must not assume ids are unique per string.
+ * The index lists each difficulty's levels in order, while the records themselves may
+ * lie in any order.
+ */
+final class PackFormat {
+    static final int MAGIC = 0x4C47504B;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 24;
+    static final int DIRECTORY_ENTRY_SIZE = 12;
+
+    private PackFormat() {
+    }
+
+    static int bitsFor(int items) {
+        return items <= 1 ? 1 : 32 - Integer.numberOfLeadingZeros(items - 1);
+    }
+}
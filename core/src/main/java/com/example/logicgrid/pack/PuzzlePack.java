@@ -0,0 +1,152 @@
+package com.example.logicgrid.pack;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.clue.Clue;
+import com.example.logicgrid.clue.ClueParser;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of a pack file mapped into memory. Opening reads only the header and
+ * the difficulty directory; {@link #getPuzzle} seeks through the index and decodes one
+ * record, so nothing else in the file is parsed or kept on the heap. Reads use absolute
+ * offsets only and are safe from any thread.
+ */
+public class PuzzlePack implements Closeable {
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int stringCount;
+    private final int stringsOffset;
+    private final int blobOffset;
+    private final int indexOffset;
+    private final int puzzleCount;
+    // difficulty -> {firstPuzzle, puzzleCount}
+    private final Map<String, int[]> directory = new HashMap<>();
+
+    private PuzzlePack(RandomAccessFile file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != PackFormat.MAGIC) throw new IOException("Not a puzzle pack");
+        short version = buffer.getShort(4);
+        if (version != PackFormat.VERSION) throw new IOException("Unsupported pack version " + version);
+        int difficulties = buffer.getShort(6);
+        this.stringCount = buffer.getInt(8);
+        this.stringsOffset = buffer.getInt(12);
+        this.indexOffset = buffer.getInt(16);
+        this.puzzleCount = buffer.getInt(20);
+        this.blobOffset = stringsOffset + (stringCount + 1) * 4;
+        for (int d = 0; d < difficulties; d++) {
+            int entry = PackFormat.HEADER_SIZE + d * PackFormat.DIRECTORY_ENTRY_SIZE;
+            directory.put(string(buffer.getInt(entry)),
+                    new int[] {buffer.getInt(entry + 4), buffer.getInt(entry + 8)});
+        }
+    }
+
+    public static PuzzlePack open(File path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PuzzlePack(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    public int getPuzzleCount() {
+        return puzzleCount;
+    }
+
+    public int getLevelCount(String difficulty) {
+        int[] range = directory.get(difficulty);
+        return range == null ? 0 : range[1];
+    }
+
+    // Levels are numbered from 1; returns null past the end, like GameLogic.generatePuzzle
+    public GameLogic.PuzzleData getPuzzle(String difficulty, int level) {
+        int[] range = directory.get(difficulty);
+        if (range == null || level < 1 || level > range[1]) return null;
+        return decode(buffer.getInt(indexOffset + (range[0] + level - 1) * 4));
+    }
+
+    private GameLogic.PuzzleData decode(int offset) {
+        int[] cursor = {offset + 2};
+        int categories = buffer.get(offset);
+        int items = buffer.get(offset + 1);
+        int clueCount = readVarint(cursor);
+
+        String[][] names = new String[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int i = 0; i < items; i++) names[c][i] = string(readVarint(cursor));
+        }
+        String[] clues = new String[clueCount];
+        for (int i = 0; i < clueCount; i++) clues[i] = string(readVarint(cursor));
+
+        int[][] assignment = new int[categories][items];
+        for (int e = 0; e < items; e++) assignment[0][e] = e;
+        int bits = PackFormat.bitsFor(items);
+        int mask = (1 << bits) - 1;
+        int position = cursor[0];
+        long pending = 0;
+        int available = 0;
+        for (int c = 1; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                while (available < bits) {
+                    pending |= (long) (buffer.get(position++) & 0xFF) << available;
+                    available += 8;
+                }
+                assignment[c][e] = (int) (pending & mask);
+                pending >>>= bits;
+                available -= bits;
+            }
+        }
+
+        List<Constraint> constraints = new ArrayList<>();
+        for (Clue clue : new ClueParser(names).parseAll(clues)) {
+            if (clue != null) constraints.add(clue.toConstraint());
+        }
+        return new GameLogic.PuzzleData(names, clues, PuzzleSolver.toGrid(assignment, 0, 1), assignment,
+                constraints.toArray(new Constraint[0]));
+    }
+
+    private int readVarint(int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get(cursor[0]++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            shift += 7;
+        }
+    }
+
+    private String string(int id) {
+        if (id < 0 || id >= stringCount) throw new IllegalStateException("Bad string id " + id);
+        int start = buffer.getInt(stringsOffset + id * 4);
+        int end = buffer.getInt(stringsOffset + id * 4 + 4);
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+        view.position(blobOffset + start);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
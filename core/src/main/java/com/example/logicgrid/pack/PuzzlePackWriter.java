@@ -0,0 +1,243 @@
+package com.example.logicgrid.pack;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.dedup.Fingerprint;
+import com.example.logicgrid.dedup.FingerprintIndex;
+import com.example.logicgrid.dedup.PuzzleCanonicalizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds a pack file. Records, strings and the per-difficulty indexes are spilled to
+ * temp files as puzzles are added and only stitched together by write(), so the heap
+ * holds a bounded cache of recent strings however many puzzles go in; the dedup index
+ * lives off-heap. close() deletes the temp files.
+ */
+public class PuzzlePackWriter implements Closeable {
+    private static final int DEFAULT_DEDUP_CAPACITY = 1 << 16;
+    // Strings remembered for interning; one evicted and seen again is stored again
+    private static final int STRING_CACHE = 1 << 16;
+
+    private final Map<String, Difficulty> difficulties = new LinkedHashMap<>();
+    private final Map<String, Integer> stringIds = new LinkedHashMap<String, Integer>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > STRING_CACHE;
+        }
+    };
+    private final PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+    // Canonical fingerprints of every puzzle in the pack, across difficulties
+    private final FingerprintIndex seen;
+    // Created by the first add; record offsets are relative to the start of `records`
+    private Spill records;
+    private Spill blob;
+    private Spill stringOffsets;
+    private long recordBytes;
+    private long blobBytes;
+    private int stringCount;
+    private int puzzleCount;
+
+    // One difficulty's record offsets, in level order
+    private static class Difficulty {
+        final int nameId;
+        final Spill index;
+        int count;
+
+        Difficulty(int nameId, Spill index) {
+            this.nameId = nameId;
+            this.index = index;
+        }
+    }
+
+    private static class Spill {
+        final File file;
+        final DataOutputStream out;
+
+        Spill() throws IOException {
+            file = File.createTempFile("pack", ".spill");
+            file.deleteOnExit();
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        }
+
+        InputStream read() throws IOException {
+            out.flush();
+            return new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        }
+
+        void copyTo(DataOutputStream target) throws IOException {
+            byte[] chunk = new byte[1 << 16];
+            try (InputStream in = read()) {
+                for (int n; (n = in.read(chunk)) > 0; ) target.write(chunk, 0, n);
+            }
+        }
+
+        void delete() throws IOException {
+            out.close();
+            file.delete();
+        }
+    }
+
+    public PuzzlePackWriter() {
+        this(DEFAULT_DEDUP_CAPACITY);
+    }
+
+    // Puzzles with clue constraints are deduplicated; `dedupCapacity` is how many of them
+    // the index is sized for up front, and it grows past that as needed
+    public PuzzlePackWriter(int dedupCapacity) {
+        this.seen = new FingerprintIndex(dedupCapacity);
+    }
+
+    // Levels are numbered from 1 in the order puzzles are added. False, and nothing added,
+    // when the pack already holds the same puzzle up to renaming and reordering
+    public boolean add(String difficulty, GameLogic.PuzzleData puzzle) throws IOException {
+        Fingerprint fingerprint = puzzle.constraints.length == puzzle.clues.length
+                ? canonicalizer.fingerprint(puzzle) : null;
+        if (fingerprint != null && seen.contains(fingerprint)) return false;
+        open();
+        byte[] record = encode(puzzle);
+        Difficulty entry = difficulties.get(difficulty);
+        if (entry == null) {
+            entry = new Difficulty(intern(difficulty), new Spill());
+            difficulties.put(difficulty, entry);
+        }
+        records.out.write(record);
+        entry.index.out.writeInt((int) recordBytes);
+        entry.count++;
+        recordBytes += record.length;
+        puzzleCount++;
+        // Only once the record is in: a puzzle that failed to encode may be sent again
+        if (fingerprint != null) seen.add(fingerprint);
+        return true;
+    }
+
+    public int size() {
+        return puzzleCount;
+    }
+
+    private void open() throws IOException {
+        if (records != null) return;
+        records = new Spill();
+        blob = new Spill();
+        stringOffsets = new Spill();
+    }
+
+    private int intern(String text) throws IOException {
+        Integer id = stringIds.get(text);
+        if (id == null) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            stringOffsets.out.writeInt((int) blobBytes);
+            blob.out.write(bytes);
+            blobBytes += bytes.length;
+            id = stringCount++;
+            stringIds.put(text, id);
+        }
+        return id;
+    }
+
+    private byte[] encode(GameLogic.PuzzleData puzzle) throws IOException {
+        int categories = puzzle.categories.length;
+        int items = puzzle.categories[0].length;
+        if (categories > 127 || items > 64) {
+            throw new IllegalArgumentException("Puzzle too large for pack: " + categories + "x" + items);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(categories);
+        out.write(items);
+        writeVarint(out, puzzle.clues.length);
+        for (String[] category : puzzle.categories) {
+            for (String item : category) writeVarint(out, intern(item));
+        }
+        for (String clue : puzzle.clues) writeVarint(out, intern(clue));
+
+        int bits = PackFormat.bitsFor(items);
+        long buffer = 0;
+        int filled = 0;
+        for (int c = 1; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                buffer |= (long) puzzle.assignment[c][e] << filled;
+                filled += bits;
+                while (filled >= 8) {
+                    out.write((int) buffer);
+                    buffer >>>= 8;
+                    filled -= 8;
+                }
+            }
+        }
+        if (filled > 0) out.write((int) buffer);
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    public void write(File file) throws IOException {
+        open();
+        int stringsOffset = PackFormat.HEADER_SIZE + difficulties.size() * PackFormat.DIRECTORY_ENTRY_SIZE;
+        long indexOffset = stringsOffset + (stringCount + 1L) * 4 + blobBytes;
+        long recordOffset = indexOffset + puzzleCount * 4L;
+        // Offsets in the pack are ints
+        if (recordOffset + recordBytes > Integer.MAX_VALUE) {
+            throw new IOException("Pack of " + puzzleCount + " puzzles exceeds 2 GB");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(PackFormat.MAGIC);
+            out.writeShort(PackFormat.VERSION);
+            out.writeShort(difficulties.size());
+            out.writeInt(stringCount);
+            out.writeInt(stringsOffset);
+            out.writeInt((int) indexOffset);
+            out.writeInt(puzzleCount);
+
+            int first = 0;
+            for (Difficulty entry : difficulties.values()) {
+                out.writeInt(entry.nameId);
+                out.writeInt(first);
+                out.writeInt(entry.count);
+                first += entry.count;
+            }
+
+            stringOffsets.copyTo(out);
+            out.writeInt((int) blobBytes);
+            blob.copyTo(out);
+
+            for (Difficulty entry : difficulties.values()) {
+                try (DataInputStream in = new DataInputStream(entry.index.read())) {
+                    for (int i = 0; i < entry.count; i++) out.writeInt((int) recordOffset + in.readInt());
+                } catch (EOFException e) {
+                    throw new IOException("Spilled index of " + entry.count + " puzzles is short", e);
+                }
+            }
+            records.copyTo(out);
+        }
+    }
+
+    // Deletes the temp files; the writer cannot be used afterwards
+    @Override
+    public void close() throws IOException {
+        if (records == null) return;
+        records.delete();
+        blob.delete();
+        stringOffsets.delete();
+        for (Difficulty entry : difficulties.values()) entry.index.delete();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.logicgrid.session;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind file for the latest {@link SessionState}. save() only swaps in the newest
+ * encoding and, if no write is pending, schedules one a moment later on a background
+ * thread, so a burst of moves costs one small write and the caller never touches the
+ * disk. Each write goes to a temp file that is then renamed over the journal, and a
+ * checksum guards the contents, so a crash mid-write leaves the previous session.
+ */
+public class SessionJournal {
+    // How long moves are batched before they are written
+    private static final long WRITE_DELAY_MS = 250;
+
+    private final File file;
+    private final File temp;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicReference<byte[]> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public SessionJournal(File file) {
+        this.file = file;
+        this.temp = new File(file.getPath() + ".tmp");
+    }
+
+    public void save(byte[] state) {
+        pending.set(state);
+        if (scheduled.compareAndSet(false, true)) {
+            writer.schedule(this::writePending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writes whatever is pending now instead of after the delay, still off the calling thread
+    public void flush() {
+        writer.execute(this::writePending);
+    }
+
+    // Forgets the saved session, e.g. once its puzzle is solved
+    public void clear() {
+        pending.set(null);
+        writer.execute(file::delete);
+    }
+
+    // Flushes and stops the writer thread; the last write still completes in the background
+    public void close() {
+        flush();
+        writer.shutdown();
+    }
+
+    boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        return writer.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // The last session written, or null when there is none or it is damaged
+    public byte[] load() {
+        if (!file.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            int length = in.readInt();
+            long checksum = in.readLong();
+            if (length < 0 || length > file.length()) return null;
+            byte[] state = new byte[length];
+            in.readFully(state);
+            return checksum(state) == checksum ? state : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writePending() {
+        scheduled.set(false);
+        byte[] state = pending.getAndSet(null);
+        if (state == null) return;
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(stream)) {
+                out.writeInt(state.length);
+                out.writeLong(checksum(state));
+                out.write(state);
+                out.flush();
+                stream.getFD().sync();
+            }
+            if (!temp.renameTo(file)) throw new IOException("Could not replace " + file);
+        } catch (IOException e) {
+            // Keep the state so the next save or flush tries again; the old file is still whole
+            pending.compareAndSet(null, state);
+        }
+    }
+
+    private static long checksum(byte[] state) {
+        CRC32 crc = new CRC32();
+        crc.update(state, 0, state.length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.logicgrid.session;
+
+import com.example.logicgrid.GameLogic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A game in progress as a few hundred bytes: which puzzle (difficulty and level, since
+ * levels are generated deterministically), every cell at 2 bits, and the tail of the move
+ * log so undo keeps working after a restore. Small enough for a saved-state Bundle and
+ * cheap enough to encode after every move.
+ */
+public final class SessionState {
+    private static final int MAGIC = 0x4C475331; // "LGS1"
+    // Undo steps carried across a restore
+    public static final int HISTORY_TAIL = 256;
+
+    public final String difficulty;
+    public final int level;
+    private final int categories;
+    private final int items;
+    private final byte[] cells;
+    private final int[] moves;
+
+    private SessionState(String difficulty, int level, int categories, int items, byte[] cells, int[] moves) {
+        this.difficulty = difficulty;
+        this.level = level;
+        this.categories = categories;
+        this.items = items;
+        this.cells = cells;
+        this.moves = moves;
+    }
+
+    public static byte[] encode(String difficulty, int level, GameLogic game) {
+        byte[] cells = game.getPackedCells();
+        int[] moves = game.getHistoryTail(HISTORY_TAIL);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + cells.length + moves.length * 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeUTF(difficulty);
+            out.writeInt(level);
+            out.writeByte(game.getCategoryCount());
+            out.writeByte(game.getSize());
+            out.writeShort(cells.length);
+            out.write(cells);
+            out.writeShort(moves.length);
+            for (int move : moves) out.writeInt(move);
+        } catch (IOException e) {
+            // Writing to memory never fails
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SessionState decode(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        if (in.readInt() != MAGIC) throw new IOException("Not a saved session");
+        String difficulty = in.readUTF();
+        int level = in.readInt();
+        int categories = in.readUnsignedByte();
+        int items = in.readUnsignedByte();
+        byte[] cells = new byte[in.readUnsignedShort()];
+        in.readFully(cells);
+        int[] moves = new int[in.readUnsignedShort()];
+        for (int i = 0; i < moves.length; i++) moves[i] = in.readInt();
+        return new SessionState(difficulty, level, categories, items, cells, moves);
+    }
+
+    // Puts the saved marks and undo history on a freshly built game of the same puzzle;
+    // false, leaving the game alone, if the board has a different shape
+    public boolean applyTo(GameLogic game) {
+        if (game.getCategoryCount() != categories || game.getSize() != items) return false;
+        game.restore(cells, moves);
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.logicgrid.solver;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers "can this board still be finished, and in how many ways" for one puzzle,
+ * through a shared {@link TranspositionTable}. Whole boards are looked up by their
+ * Zobrist hash, so returning to an earlier board (undo, cycling a cell back to empty)
+ * costs one probe. Boards whose marks all sit in category-0 blocks become start
+ * domains for the solver, and their sub-searches are cached too and shared between
+ * boards of the same puzzle.
+ */
+public class BoardAnalyzer {
+    private final int categories;
+    private final int items;
+    private final Constraint[] constraints;
+    private final TranspositionTable table;
+    // Separates this puzzle's entries from other puzzles sharing the table
+    private final long searchSalt;
+    private final long boardSalt;
+
+    public BoardAnalyzer(GameLogic.PuzzleData data, TranspositionTable table) {
+        this.categories = data.categories.length;
+        this.items = data.assignment[0].length;
+        this.constraints = data.constraints;
+        this.table = table;
+        long salt = categories * 31L + items;
+        for (String clue : data.clues) {
+            salt = Zobrist.mix(salt ^ clue.hashCode());
+        }
+        for (int[] line : data.assignment) {
+            for (int item : line) salt = Zobrist.mix(salt ^ item);
+        }
+        this.searchSalt = salt;
+        this.boardSalt = Zobrist.mix(salt + 1);
+    }
+
+    // TranspositionTable.SOLVABLE or CONTRADICTION
+    public int status(GameLogic game) {
+        return countSolutions(game, 1) > 0 ? TranspositionTable.SOLVABLE : TranspositionTable.CONTRADICTION;
+    }
+
+    // Completions of the player's marks, counted up to `limit`
+    public int countSolutions(GameLogic game, int limit) {
+        long key = boardSalt ^ game.getStateHash();
+        int entry = table.get(key);
+        if (entry != TranspositionTable.MISS) {
+            int cached = TranspositionTable.solutionCount(entry);
+            if (TranspositionTable.isExact(entry) || cached >= limit) return Math.min(cached, limit);
+        }
+
+        int count = solve(game, limit);
+        int status = count == 0 ? TranspositionTable.CONTRADICTION : TranspositionTable.SOLVABLE;
+        table.put(key, TranspositionTable.entry(status, count < limit, count));
+        return count;
+    }
+
+    private int solve(GameLogic game, int limit) {
+        Domains start = new Domains(categories, items);
+        List<Constraint> premises = new ArrayList<>();
+        for (int a = 0; a < categories; a++) {
+            for (int b = a + 1; b < categories; b++) {
+                for (int i = 0; i < items; i++) {
+                    for (int j = 0; j < items; j++) {
+                        int state = game.getCellState(a, i, b, j);
+                        if (state == GameLogic.EMPTY) continue;
+                        if (a == 0) {
+                            // Entity i is item i of category 0, so the mark is a plain domain restriction
+                            long bit = 1L << j;
+                            if (!start.restrict(b, i, state == GameLogic.YES ? bit : ~bit)) return 0;
+                        } else {
+                            premises.add(state == GameLogic.YES
+                                    ? Constraints.same(a, i, b, j) : Constraints.different(a, i, b, j));
+                        }
+                    }
+                }
+            }
+        }
+
+        PuzzleSolver solver;
+        if (premises.isEmpty()) {
+            solver = new PuzzleSolver(categories, items, constraints);
+            solver.setTranspositionTable(table, searchSalt);
+        } else {
+            // Extra premises change what a domain state means, so these searches stay uncached
+            premises.addAll(0, Arrays.asList(constraints));
+            solver = new PuzzleSolver(categories, items, premises.toArray(new Constraint[0]));
+        }
+        return solver.countSolutions(start, limit);
+    }
+}
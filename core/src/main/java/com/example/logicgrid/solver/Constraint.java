@@ -0,0 +1,19 @@
+package com.example.logicgrid.solver;
+
+/**
+ * A machine-readable puzzle rule over {@link Domains}. Entities are identified by the
+ * item index of category 0, so a rule only ever speaks about which items share an entity.
+ */
+public interface Constraint {
+    int UNKNOWN = 0;
+    int TRUE = 1;
+    int FALSE = 2;
+
+    // TRUE if every completion of the domains satisfies the rule, FALSE if none does
+    int evaluate(Domains domains);
+
+    // Removes domain values the rule rules out; returns false on contradiction
+    boolean propagate(Domains domains);
+
+    Constraint negate();
+}
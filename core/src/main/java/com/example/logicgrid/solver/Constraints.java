@@ -0,0 +1,323 @@
+package com.example.logicgrid.solver;
+
+public final class Constraints {
+    private Constraints() {
+    }
+
+    public static Constraint same(int categoryA, int itemA, int categoryB, int itemB) {
+        return new Same(categoryA, itemA, categoryB, itemB);
+    }
+
+    public static Constraint different(int categoryA, int itemA, int categoryB, int itemB) {
+        return new Different(categoryA, itemA, categoryB, itemB);
+    }
+
+    // The entity of A takes a strictly lower item of orderCategory than the entity of B
+    public static Constraint before(int categoryA, int itemA, int categoryB, int itemB, int orderCategory) {
+        return new Order(categoryA, itemA, categoryB, itemB, orderCategory, false);
+    }
+
+    public static Constraint ifThen(Constraint condition, Constraint consequence) {
+        return new IfThen(condition, consequence);
+    }
+
+    // Exactly one of the two holds
+    public static Constraint eitherOr(Constraint first, Constraint second) {
+        return new EitherOr(first, second);
+    }
+
+    public static Constraint both(Constraint first, Constraint second) {
+        return new Both(first, second);
+    }
+
+    private static boolean single(long mask) {
+        return mask != 0 && (mask & (mask - 1)) == 0;
+    }
+
+    private static long lowMask(int bits) {
+        return bits >= 64 ? -1L : bits <= 0 ? 0L : (1L << bits) - 1;
+    }
+
+    public static final class Same implements Constraint {
+        public final int categoryA;
+        public final int itemA;
+        public final int categoryB;
+        public final int itemB;
+
+        Same(int categoryA, int itemA, int categoryB, int itemB) {
+            this.categoryA = categoryA;
+            this.itemA = itemA;
+            this.categoryB = categoryB;
+            this.itemB = itemB;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            if (categoryA == categoryB) return itemA == itemB ? TRUE : FALSE;
+            long a = domains.entitiesOf(categoryA, itemA);
+            long b = domains.entitiesOf(categoryB, itemB);
+            if ((a & b) == 0) return FALSE;
+            if (a == b && single(a)) return TRUE;
+            return UNKNOWN;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            if (categoryA == categoryB) return itemA == itemB;
+            long both = domains.entitiesOf(categoryA, itemA) & domains.entitiesOf(categoryB, itemB);
+            return both != 0
+                    && domains.restrictItem(categoryA, itemA, both)
+                    && domains.restrictItem(categoryB, itemB, both);
+        }
+
+        @Override
+        public Constraint negate() {
+            return new Different(categoryA, itemA, categoryB, itemB);
+        }
+
+        @Override
+        public String toString() {
+            return "same(" + categoryA + ":" + itemA + ", " + categoryB + ":" + itemB + ")";
+        }
+    }
+
+    public static final class Different implements Constraint {
+        public final int categoryA;
+        public final int itemA;
+        public final int categoryB;
+        public final int itemB;
+
+        Different(int categoryA, int itemA, int categoryB, int itemB) {
+            this.categoryA = categoryA;
+            this.itemA = itemA;
+            this.categoryB = categoryB;
+            this.itemB = itemB;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            if (categoryA == categoryB) return itemA != itemB ? TRUE : FALSE;
+            long a = domains.entitiesOf(categoryA, itemA);
+            long b = domains.entitiesOf(categoryB, itemB);
+            if ((a & b) == 0) return TRUE;
+            if (a == b && single(a)) return FALSE;
+            return UNKNOWN;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            if (categoryA == categoryB) return itemA != itemB;
+            long a = domains.entitiesOf(categoryA, itemA);
+            if (single(a) && !domains.restrictItem(categoryB, itemB, ~a)) return false;
+            long b = domains.entitiesOf(categoryB, itemB);
+            return !single(b) || domains.restrictItem(categoryA, itemA, ~b);
+        }
+
+        @Override
+        public Constraint negate() {
+            return new Same(categoryA, itemA, categoryB, itemB);
+        }
+
+        @Override
+        public String toString() {
+            return "different(" + categoryA + ":" + itemA + ", " + categoryB + ":" + itemB + ")";
+        }
+    }
+
+    public static final class Order implements Constraint {
+        public final int categoryA;
+        public final int itemA;
+        public final int categoryB;
+        public final int itemB;
+        public final int orderCategory;
+        public final boolean orEqual;
+
+        Order(int categoryA, int itemA, int categoryB, int itemB, int orderCategory, boolean orEqual) {
+            this.categoryA = categoryA;
+            this.itemA = itemA;
+            this.categoryB = categoryB;
+            this.itemB = itemB;
+            this.orderCategory = orderCategory;
+            this.orEqual = orEqual;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            long a = domains.valuesOf(categoryA, itemA, orderCategory);
+            long b = domains.valuesOf(categoryB, itemB, orderCategory);
+            if (a == 0 || b == 0) return FALSE;
+            int minA = Long.numberOfTrailingZeros(a);
+            int maxA = 63 - Long.numberOfLeadingZeros(a);
+            int minB = Long.numberOfTrailingZeros(b);
+            int maxB = 63 - Long.numberOfLeadingZeros(b);
+            if (orEqual) {
+                if (maxA <= minB) return TRUE;
+                return minA > maxB ? FALSE : UNKNOWN;
+            }
+            if (maxA < minB) return TRUE;
+            return minA >= maxB ? FALSE : UNKNOWN;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            long a = domains.valuesOf(categoryA, itemA, orderCategory);
+            long b = domains.valuesOf(categoryB, itemB, orderCategory);
+            if (a == 0 || b == 0) return false;
+            int minA = Long.numberOfTrailingZeros(a);
+            int maxB = 63 - Long.numberOfLeadingZeros(b);
+            long allowedA = lowMask(orEqual ? maxB + 1 : maxB);
+            long allowedB = ~lowMask(orEqual ? minA : minA + 1);
+            return prune(domains, categoryA, itemA, allowedA)
+                    && prune(domains, categoryB, itemB, allowedB);
+        }
+
+        private boolean prune(Domains domains, int category, int item, long allowed) {
+            if (category == orderCategory) return (allowed & (1L << item)) != 0;
+            long entities = domains.entitiesOf(category, item);
+            long keep = 0;
+            for (long rest = entities; rest != 0; rest &= rest - 1) {
+                int e = Long.numberOfTrailingZeros(rest);
+                if ((domains.items(orderCategory, e) & allowed) != 0) keep |= 1L << e;
+            }
+            if (keep == 0) return false;
+            if (keep != entities && !domains.restrictItem(category, item, keep)) return false;
+            return !single(keep) || domains.restrict(orderCategory, Long.numberOfTrailingZeros(keep), allowed);
+        }
+
+        @Override
+        public Constraint negate() {
+            return new Order(categoryB, itemB, categoryA, itemA, orderCategory, !orEqual);
+        }
+
+        @Override
+        public String toString() {
+            return (orEqual ? "notAfter(" : "before(") + categoryA + ":" + itemA + ", "
+                    + categoryB + ":" + itemB + " by " + orderCategory + ")";
+        }
+    }
+
+    public static final class IfThen implements Constraint {
+        public final Constraint condition;
+        public final Constraint consequence;
+        private Constraint notCondition;
+
+        IfThen(Constraint condition, Constraint consequence) {
+            this.condition = condition;
+            this.consequence = consequence;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            int c = condition.evaluate(domains);
+            if (c == FALSE) return TRUE;
+            int t = consequence.evaluate(domains);
+            if (t == TRUE) return TRUE;
+            return c == TRUE && t == FALSE ? FALSE : UNKNOWN;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            if (condition.evaluate(domains) == TRUE) return consequence.propagate(domains);
+            if (consequence.evaluate(domains) == FALSE) {
+                if (notCondition == null) notCondition = condition.negate();
+                return notCondition.propagate(domains);
+            }
+            return true;
+        }
+
+        @Override
+        public Constraint negate() {
+            return new Both(condition, consequence.negate());
+        }
+
+        @Override
+        public String toString() {
+            return "if " + condition + " then " + consequence;
+        }
+    }
+
+    public static final class EitherOr implements Constraint {
+        public final Constraint first;
+        public final Constraint second;
+        private Constraint notFirst;
+        private Constraint notSecond;
+
+        EitherOr(Constraint first, Constraint second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            int a = first.evaluate(domains);
+            int b = second.evaluate(domains);
+            if (a == UNKNOWN || b == UNKNOWN) return UNKNOWN;
+            return a != b ? TRUE : FALSE;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            int a = first.evaluate(domains);
+            if (a == TRUE) return negatedSecond().propagate(domains);
+            if (a == FALSE) return second.propagate(domains);
+            int b = second.evaluate(domains);
+            if (b == TRUE) return negatedFirst().propagate(domains);
+            if (b == FALSE) return first.propagate(domains);
+            return true;
+        }
+
+        private Constraint negatedFirst() {
+            if (notFirst == null) notFirst = first.negate();
+            return notFirst;
+        }
+
+        private Constraint negatedSecond() {
+            if (notSecond == null) notSecond = second.negate();
+            return notSecond;
+        }
+
+        @Override
+        public Constraint negate() {
+            return new Both(new IfThen(first, second), new IfThen(second, first));
+        }
+
+        @Override
+        public String toString() {
+            return "either " + first + " or " + second;
+        }
+    }
+
+    public static final class Both implements Constraint {
+        public final Constraint first;
+        public final Constraint second;
+
+        Both(Constraint first, Constraint second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int evaluate(Domains domains) {
+            int a = first.evaluate(domains);
+            if (a == FALSE) return FALSE;
+            int b = second.evaluate(domains);
+            if (b == FALSE) return FALSE;
+            return a == TRUE && b == TRUE ? TRUE : UNKNOWN;
+        }
+
+        @Override
+        public boolean propagate(Domains domains) {
+            return first.propagate(domains) && second.propagate(domains);
+        }
+
+        @Override
+        public Constraint negate() {
+            return new IfThen(first, second.negate());
+        }
+
+        @Override
+        public String toString() {
+            return first + " and " + second;
+        }
+    }
+}
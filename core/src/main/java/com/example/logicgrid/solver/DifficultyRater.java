@@ -0,0 +1,204 @@
+package com.example.logicgrid.solver;
+
+import com.example.logicgrid.GameLogic;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rates puzzles by solving them the way a person would: no guessing, always the
+ * cheapest deduction that makes progress. Techniques, cheapest first: one match per
+ * line (singles), plain is/is-not clues, ordering clues, conditional clues, and
+ * finally contradiction, where assuming a value and propagating breaks the puzzle
+ * (nested one level deeper when that is not enough). The score adds up the cost of
+ * every step, so it grows with both the hardest technique and the number of steps.
+ */
+public class DifficultyRater {
+    public static final int SINGLES = 0;
+    public static final int DIRECT = 1;
+    public static final int ORDER = 2;
+    public static final int CONDITIONAL = 3;
+    public static final int CONTRADICTION = 4;
+    public static final int NESTED_CONTRADICTION = 5;
+
+    private static final String[] TECHNIQUES = {
+        "singles", "direct", "order", "conditional", "contradiction", "nested contradiction"
+    };
+    private static final int[] COST = {1, 2, 4, 6, 20, 60};
+    private static final int BATCH_THRESHOLD = 8;
+
+    public Rating rate(GameLogic.PuzzleData data) {
+        return rate(data.categories.length, data.assignment[0].length, data.constraints);
+    }
+
+    public Rating rate(int categories, int items, Constraint[] constraints) {
+        Constraint[][] byLevel = new Constraint[CONDITIONAL + 1][];
+        for (int level = DIRECT; level <= CONDITIONAL; level++) {
+            int count = 0;
+            for (Constraint constraint : constraints) {
+                if (levelOf(constraint) == level) count++;
+            }
+            byLevel[level] = new Constraint[count];
+            count = 0;
+            for (Constraint constraint : constraints) {
+                if (levelOf(constraint) == level) byLevel[level][count++] = constraint;
+            }
+        }
+
+        Domains domains = new Domains(categories, items);
+        Domains scratch = new Domains(categories, items);
+        Domains nested = new Domains(categories, items);
+        int[] uses = new int[TECHNIQUES.length];
+        int score = 0;
+        int hardest = SINGLES;
+        while (!domains.isSolved()) {
+            int technique = step(domains, byLevel, constraints, scratch, nested);
+            if (technique < 0) return new Rating(false, score, hardest, uses);
+            uses[technique]++;
+            score += COST[technique];
+            hardest = Math.max(hardest, technique);
+        }
+        return new Rating(true, score, hardest, uses);
+    }
+
+    // Batch-rates on the common fork/join pool; idle workers steal halves of the remaining range
+    public Rating[] rateAll(GameLogic.PuzzleData[] puzzles) {
+        Rating[] ratings = new Rating[puzzles.length];
+        ForkJoinPool.commonPool().invoke(new BatchTask(puzzles, ratings, 0, puzzles.length));
+        return ratings;
+    }
+
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final GameLogic.PuzzleData[] puzzles;
+        private final Rating[] out;
+        private final int from;
+        private final int to;
+
+        BatchTask(GameLogic.PuzzleData[] puzzles, Rating[] out, int from, int to) {
+            this.puzzles = puzzles;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    out[i] = rate(puzzles[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BatchTask(puzzles, out, from, mid), new BatchTask(puzzles, out, mid, to));
+        }
+    }
+
+    private static int levelOf(Constraint constraint) {
+        if (constraint instanceof Constraints.Same || constraint instanceof Constraints.Different) return DIRECT;
+        if (constraint instanceof Constraints.Order) return ORDER;
+        return CONDITIONAL;
+    }
+
+    // Applies the cheapest technique that narrows the domains; -1 when none does
+    private static int step(Domains domains, Constraint[][] byLevel, Constraint[] all,
+                            Domains scratch, Domains nested) {
+        domains.changed = false;
+        if (!PuzzleSolver.propagateSingles(domains)) return -1;
+        if (domains.changed) return SINGLES;
+        for (int level = DIRECT; level <= CONDITIONAL; level++) {
+            for (Constraint constraint : byLevel[level]) {
+                if (!constraint.propagate(domains)) return -1;
+                if (domains.changed) return level;
+            }
+        }
+        if (eliminateByContradiction(domains, all, scratch, null)) return CONTRADICTION;
+        if (eliminateByContradiction(domains, all, scratch, nested)) return NESTED_CONTRADICTION;
+        return -1;
+    }
+
+    // Removes the first value whose assumption propagates to a contradiction. With `nested`
+    // set, the assumption may itself be refuted by a one-level contradiction
+    private static boolean eliminateByContradiction(Domains domains, Constraint[] all,
+                                                    Domains scratch, Domains nested) {
+        int items = domains.items();
+        long[] masks = domains.masks;
+        for (int i = items; i < masks.length; i++) {
+            long mask = masks[i];
+            if ((mask & (mask - 1)) == 0) continue;
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                scratch.copyFrom(masks);
+                scratch.masks[i] = bit;
+                if (!refutes(scratch, all, nested)) continue;
+                masks[i] = mask & ~bit;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean refutes(Domains assumed, Constraint[] all, Domains nested) {
+        if (!propagateAll(assumed, all)) return true;
+        if (nested == null) return false;
+        while (!assumed.isSolved()) {
+            if (!eliminateByContradiction(assumed, all, nested, null)) return false;
+            if (!propagateAll(assumed, all)) return true;
+        }
+        return false;
+    }
+
+    // Every basic technique to a fixpoint; false on contradiction
+    private static boolean propagateAll(Domains domains, Constraint[] all) {
+        do {
+            domains.changed = false;
+            if (!PuzzleSolver.propagateSingles(domains)) return false;
+            for (Constraint constraint : all) {
+                if (!constraint.propagate(domains)) return false;
+            }
+        } while (domains.changed);
+        return true;
+    }
+
+    public static String techniqueName(int technique) {
+        return TECHNIQUES[technique];
+    }
+
+    public static class Rating {
+        // False when deduction alone gets stuck and the puzzle needs guessing
+        public final boolean solved;
+        public final int score;
+        public final int hardest;
+        // How many steps used each technique, indexed by technique
+        public final int[] uses;
+
+        Rating(boolean solved, int score, int hardest, int[] uses) {
+            this.solved = solved;
+            this.score = score;
+            this.hardest = hardest;
+            this.uses = uses;
+        }
+
+        public int steps() {
+            int steps = 0;
+            for (int count : uses) steps += count;
+            return steps;
+        }
+
+        // Measured tier: what the hardest technique needed says about the puzzle
+        public String tier() {
+            if (!solved) return "EXPERT";
+            if (hardest <= DIRECT) return "EASY";
+            if (hardest <= CONDITIONAL) return "MEDIUM";
+            return "HARD";
+        }
+
+        @Override
+        public String toString() {
+            return tier() + " (score " + score + ", " + steps() + " steps, hardest: "
+                    + techniqueName(hardest) + (solved ? "" : ", unsolved") + ")";
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.logicgrid.solver;
+
+import java.util.Arrays;
+
+/**
+ * Candidate sets for a k-category, n-item puzzle. For every category and every entity
+ * (an item of category 0) a bitmask holds the items of that category still possible.
+ */
+public class Domains {
+    public static final int MAX_ITEMS = 64;
+
+    private final int categories;
+    private final int items;
+    private final long full;
+    final long[] masks;
+    boolean changed;
+
+    public Domains(int categories, int items) {
+        if (items > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per category");
+        }
+        this.categories = categories;
+        this.items = items;
+        this.full = items == 64 ? -1L : (1L << items) - 1;
+        this.masks = new long[categories * items];
+        reset();
+    }
+
+    public void reset() {
+        for (int e = 0; e < items; e++) {
+            masks[e] = 1L << e;
+        }
+        Arrays.fill(masks, items, masks.length, full);
+        changed = false;
+    }
+
+    public int categories() {
+        return categories;
+    }
+
+    public int items() {
+        return items;
+    }
+
+    public long fullMask() {
+        return full;
+    }
+
+    public long items(int category, int entity) {
+        return masks[category * items + entity];
+    }
+
+    // Entities that may still own the item
+    public long entitiesOf(int category, int item) {
+        if (category == 0) return 1L << item;
+        long bit = 1L << item;
+        long result = 0;
+        int base = category * items;
+        for (int e = 0; e < items; e++) {
+            if ((masks[base + e] & bit) != 0) result |= 1L << e;
+        }
+        return result;
+    }
+
+    // Entity owning the item, or -1 while undecided
+    public int entityOf(int category, int item) {
+        long entities = entitiesOf(category, item);
+        return Long.bitCount(entities) == 1 ? Long.numberOfTrailingZeros(entities) : -1;
+    }
+
+    // Union of the order-category values the item's possible entities can still take
+    public long valuesOf(int category, int item, int valueCategory) {
+        if (category == valueCategory) return 1L << item;
+        long values = 0;
+        long entities = entitiesOf(category, item);
+        while (entities != 0) {
+            int e = Long.numberOfTrailingZeros(entities);
+            entities &= entities - 1;
+            values |= items(valueCategory, e);
+        }
+        return values;
+    }
+
+    public boolean restrict(int category, int entity, long mask) {
+        int index = category * items + entity;
+        long next = masks[index] & mask;
+        if (next == masks[index]) return next != 0;
+        masks[index] = next;
+        changed = true;
+        return next != 0;
+    }
+
+    // Keeps the item only on the given entities
+    public boolean restrictItem(int category, int item, long entities) {
+        if (category == 0) return (entities & (1L << item)) != 0;
+        long others = ~entities;
+        long bit = ~(1L << item);
+        for (int e = 0; e < items; e++) {
+            if ((others & (1L << e)) != 0 && !restrict(category, e, bit)) return false;
+        }
+        return entitiesOf(category, item) != 0;
+    }
+
+    public boolean isSolved() {
+        for (long mask : masks) {
+            if (Long.bitCount(mask) != 1) return false;
+        }
+        return true;
+    }
+
+    // assignment[c][e] is the item of category c owned by entity e
+    public int[][] toAssignment() {
+        int[][] assignment = new int[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                long mask = masks[c * items + e];
+                assignment[c][e] = Long.bitCount(mask) == 1 ? Long.numberOfTrailingZeros(mask) : -1;
+            }
+        }
+        return assignment;
+    }
+
+    public void load(int[][] assignment) {
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                masks[c * items + e] = 1L << assignment[c][e];
+            }
+        }
+        changed = false;
+    }
+
+    void copyFrom(long[] source) {
+        System.arraycopy(source, 0, masks, 0, masks.length);
+    }
+
+    void copyTo(long[] target) {
+        System.arraycopy(masks, 0, target, 0, masks.length);
+    }
+}
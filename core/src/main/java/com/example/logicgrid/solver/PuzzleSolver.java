@@ -0,0 +1,290 @@
+package com.example.logicgrid.solver;
+
+import com.example.logicgrid.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds every assignment of items to entities that satisfies a set of constraints.
+ * Search is bitmask backtracking: each category is a permutation (exact cover of
+ * entities and items), propagated with naked/hidden singles plus the constraints
+ * until a fixpoint, then branched on the smallest open domain.
+ */
+public class PuzzleSolver {
+    private final int categories;
+    private final int items;
+    private final Constraint[] constraints;
+    private final Domains domains;
+    private final long[][] trail;
+
+    private long nodeLimit = Long.MAX_VALUE;
+    private TranspositionTable table;
+    private long salt;
+    private long nodes;
+    private int solutionCount;
+    private int limit;
+    private List<int[][]> solutions;
+
+    public PuzzleSolver(String[][] categories, Constraint[] constraints) {
+        this(categories.length, categories[0].length, constraints);
+    }
+
+    public PuzzleSolver(int categories, int items, Constraint[] constraints) {
+        this.categories = categories;
+        this.items = items;
+        this.constraints = constraints;
+        this.domains = new Domains(categories, items);
+        // One saved domain copy per search depth; every branch fixes at least one cell
+        this.trail = new long[categories * items + 1][];
+    }
+
+    // Caps the search; a capped result reports complete == false
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    // Caches subtree solution counts while counting (not while collecting solutions).
+    // The salt must identify the constraint set: states are hashed by their domains alone
+    public void setTranspositionTable(TranspositionTable table, long salt) {
+        this.table = table;
+        this.salt = salt;
+    }
+
+    public Result solve() {
+        return solve(Integer.MAX_VALUE);
+    }
+
+    // Stops once `limit` solutions are found; limit 2 is enough for a uniqueness check
+    public Result solve(int limit) {
+        return solve(limit, true);
+    }
+
+    public int countSolutions(int limit) {
+        return solve(limit, false).solutionCount;
+    }
+
+    // Counts completions of domains already narrowed by the caller, e.g. from a player's marks
+    public int countSolutions(Domains start, int limit) {
+        return solve(start, limit, false).solutionCount;
+    }
+
+    public boolean hasUniqueSolution() {
+        return solve(2, false).isUnique();
+    }
+
+    private Result solve(int limit, boolean keepSolutions) {
+        return solve(null, limit, keepSolutions);
+    }
+
+    private Result solve(Domains from, int limit, boolean keepSolutions) {
+        long start = System.nanoTime();
+        this.nodes = 0;
+        this.solutionCount = 0;
+        this.limit = limit;
+        this.solutions = keepSolutions ? new ArrayList<int[][]>() : null;
+        if (from == null) {
+            domains.reset();
+        } else {
+            domains.copyFrom(from.masks);
+        }
+        if (propagate()) search(0);
+        boolean complete = nodes < nodeLimit || solutionCount >= limit;
+        return new Result(solutionCount, solutions, nodes, System.nanoTime() - start, complete);
+    }
+
+    // Domains after propagating every constraint at the root, or null on contradiction
+    public Domains rootDomains() {
+        domains.reset();
+        return propagateToCopy();
+    }
+
+    // Same, starting from domains already narrowed by a subset of the constraints
+    public Domains rootDomains(Domains start) {
+        domains.copyFrom(start.masks);
+        return propagateToCopy();
+    }
+
+    private Domains propagateToCopy() {
+        if (!propagate()) return null;
+        Domains copy = new Domains(categories, items);
+        domains.copyTo(copy.masks);
+        return copy;
+    }
+
+    private void search(int depth) {
+        if (table == null || solutions != null) {
+            explore(depth);
+            return;
+        }
+        long key = salt ^ hashDomains();
+        int entry = table.get(key);
+        int needed = limit - solutionCount;
+        if (entry != TranspositionTable.MISS) {
+            int cached = TranspositionTable.solutionCount(entry);
+            // A lower bound is as good as an exact count once it reaches the limit
+            if (TranspositionTable.isExact(entry) || cached >= needed) {
+                solutionCount += Math.min(cached, needed);
+                return;
+            }
+        }
+
+        int before = solutionCount;
+        explore(depth);
+        int found = solutionCount - before;
+        if (solutionCount < limit && nodes < nodeLimit) {
+            table.put(key, TranspositionTable.entry(found == 0
+                    ? TranspositionTable.CONTRADICTION : TranspositionTable.SOLVABLE, true, found));
+        } else if (found > 0) {
+            table.put(key, TranspositionTable.entry(TranspositionTable.SOLVABLE, false, found));
+        }
+    }
+
+    private long hashDomains() {
+        long hash = 0;
+        for (long mask : domains.masks) {
+            hash = Zobrist.mix(hash ^ mask);
+        }
+        return hash;
+    }
+
+    private void explore(int depth) {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        long[] masks = domains.masks;
+        for (int i = items; i < masks.length; i++) {
+            int count = Long.bitCount(masks[i]);
+            if (count > 1 && count < bestCount) {
+                best = i;
+                bestCount = count;
+                if (count == 2) break;
+            }
+        }
+        if (best < 0) {
+            if (allSatisfied()) {
+                solutionCount++;
+                if (solutions != null) solutions.add(domains.toAssignment());
+            }
+            return;
+        }
+
+        long[] saved = trail[depth];
+        if (saved == null) saved = trail[depth] = new long[masks.length];
+        domains.copyTo(saved);
+        for (long options = masks[best]; options != 0 && solutionCount < limit && nodes < nodeLimit;
+                options &= options - 1) {
+            nodes++;
+            masks[best] = options & -options;
+            if (propagate()) search(depth + 1);
+            domains.copyFrom(saved);
+        }
+    }
+
+    private boolean allSatisfied() {
+        for (Constraint constraint : constraints) {
+            if (constraint.evaluate(domains) != Constraint.TRUE) return false;
+        }
+        return true;
+    }
+
+    private boolean propagate() {
+        do {
+            domains.changed = false;
+            if (!propagateSingles(domains)) return false;
+            for (Constraint constraint : constraints) {
+                if (!constraint.propagate(domains)) return false;
+            }
+        } while (domains.changed);
+        return true;
+    }
+
+    // Each category is a permutation: a fixed item leaves every other entity,
+    // and an item with a single possible entity is fixed there
+    public static boolean propagateSingles(Domains domains) {
+        int items = domains.items();
+        long[] masks = domains.masks;
+        long full = domains.fullMask();
+        for (int c = 1; c < domains.categories(); c++) {
+            int base = c * items;
+            boolean again = true;
+            while (again) {
+                again = false;
+                long fixed = 0;
+                long seenOnce = 0;
+                long seenTwice = 0;
+                for (int e = 0; e < items; e++) {
+                    long mask = masks[base + e];
+                    if (mask == 0) return false;
+                    if ((mask & (mask - 1)) == 0) {
+                        if ((fixed & mask) != 0) return false;
+                        fixed |= mask;
+                    }
+                    seenTwice |= seenOnce & mask;
+                    seenOnce |= mask;
+                }
+                if (seenOnce != full) return false;
+                long hidden = seenOnce & ~seenTwice & ~fixed;
+                for (int e = 0; e < items; e++) {
+                    long mask = masks[base + e];
+                    long next;
+                    if ((mask & (mask - 1)) == 0) {
+                        continue;
+                    } else if ((mask & hidden) != 0) {
+                        next = mask & hidden;
+                        if ((next & (next - 1)) != 0) return false;
+                    } else {
+                        next = mask & ~fixed;
+                    }
+                    if (next != mask) {
+                        if (next == 0) return false;
+                        masks[base + e] = next;
+                        domains.changed = true;
+                        again = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // 2-category solution matrix (rows category 0, columns category 1) for an assignment
+    public static int[][] toGrid(int[][] assignment, int rowCategory, int colCategory) {
+        int n = assignment[0].length;
+        int[][] grid = new int[n][n];
+        for (int e = 0; e < n; e++) {
+            grid[assignment[rowCategory][e]][assignment[colCategory][e]] = 1;
+        }
+        return grid;
+    }
+
+    public static class Result {
+        public final int solutionCount;
+        public final List<int[][]> solutions;
+        public final long nodes;
+        public final long elapsedNanos;
+        // False when the node limit cut the search short
+        public final boolean complete;
+
+        Result(int solutionCount, List<int[][]> solutions, long nodes, long elapsedNanos, boolean complete) {
+            this.solutionCount = solutionCount;
+            this.solutions = solutions;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+            this.complete = complete;
+        }
+
+        public boolean isUnique() {
+            return complete && solutionCount == 1;
+        }
+
+        public double nodesPerSecond() {
+            return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return solutionCount + " solution(s), " + nodes + " nodes, "
+                    + (elapsedNanos / 1000) + " us";
+        }
+    }
+}
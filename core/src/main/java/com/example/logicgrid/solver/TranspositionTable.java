@@ -0,0 +1,141 @@
+package com.example.logicgrid.solver;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size cache of search results keyed by 64-bit state hashes. Entries live in
+ * 4-way buckets; a full bucket evicts its slots round-robin. Buckets are guarded by a
+ * fixed set of striped locks so any number of solver threads can share one table.
+ * Memory is allocated once, up front: 13 bytes per slot.
+ *
+ * Each entry packs a status, an exactness flag and a solution count into an int:
+ * exact counts come from fully searched states, inexact ones are lower bounds left
+ * by searches that stopped at their solution limit.
+ */
+public class TranspositionTable {
+    public static final int MISS = -1;
+    public static final int SOLVABLE = 1;
+    public static final int CONTRADICTION = 2;
+
+    private static final int WAYS = 4;
+    private static final int STRIPES = 64;
+    private static final int COUNT_BITS = 28;
+    private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+    private static final int EXACT = 1 << COUNT_BITS;
+
+    private final long[] keys;
+    private final int[] values;
+    // Next slot each bucket evicts
+    private final byte[] clock;
+    private final int bucketMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Capacity is rounded up to a power of two
+    public TranspositionTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity, WAYS) - 1) << 1;
+        int buckets = slots / WAYS;
+        this.keys = new long[slots];
+        this.values = new int[slots];
+        this.clock = new byte[buckets];
+        this.bucketMask = buckets - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        Arrays.fill(values, MISS);
+    }
+
+    public static int entry(int status, boolean exact, int solutionCount) {
+        int count = Math.min(solutionCount, COUNT_MASK);
+        return status << (COUNT_BITS + 1) | (exact ? EXACT : 0) | count;
+    }
+
+    public static int status(int entry) {
+        return entry >>> (COUNT_BITS + 1);
+    }
+
+    public static boolean isExact(int entry) {
+        return (entry & EXACT) != 0;
+    }
+
+    public static int solutionCount(int entry) {
+        return entry & COUNT_MASK;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // The packed entry for `key`, or MISS
+    public int get(long key) {
+        int bucket = bucketOf(key);
+        int base = bucket * WAYS;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            for (int i = base; i < base + WAYS; i++) {
+                if (values[i] != MISS && keys[i] == key) {
+                    hits.increment();
+                    return values[i];
+                }
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    public void put(long key, int entry) {
+        int bucket = bucketOf(key);
+        int base = bucket * WAYS;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            int free = -1;
+            for (int i = base; i < base + WAYS; i++) {
+                if (values[i] == MISS) {
+                    if (free < 0) free = i;
+                } else if (keys[i] == key) {
+                    // Never let a lower bound overwrite an exact count
+                    if (isExact(values[i]) && !isExact(entry)) return;
+                    values[i] = entry;
+                    return;
+                }
+            }
+            if (free < 0) {
+                free = base + clock[bucket];
+                clock[bucket] = (byte) ((clock[bucket] + 1) & (WAYS - 1));
+                evictions.increment();
+            }
+            keys[free] = key;
+            values[free] = entry;
+        }
+    }
+
+    public void clear() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int bucket = stripe; bucket <= bucketMask; bucket += STRIPES) {
+                    Arrays.fill(values, bucket * WAYS, bucket * WAYS + WAYS, MISS);
+                    clock[bucket] = 0;
+                }
+            }
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private int bucketOf(long key) {
+        // Keys are already well mixed, fold the high bits in anyway for weak user hashes
+        return (int) (key ^ (key >>> 32)) & bucketMask;
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.logicgrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Randomized differential testing of two-category grid engines against Reference, the
+ * original int[][] GameLogic. Each seed expands to a random board and move sequence that
+ * every candidate replays in lockstep with the reference, comparing each toggle's
+ * verdict, the touched row and column, checkSolution() and isComplete(), and the whole
+ * board after clears and at the end. Seeds are spread over every core until the time
+ * budget runs out; the first divergence is shrunk to a few moves that still show it.
+ */
+final class DifferentialHarness {
+    // Op meaning "clearGrid()"; any other op is row * size + col to toggle
+    static final int CLEAR = -1;
+
+    private DifferentialHarness() {
+    }
+
+    interface Engine {
+        // The move's verdict, or null where the engine does not judge this kind of move
+        Boolean toggle(int row, int col);
+
+        void clear();
+
+        int cell(int row, int col);
+
+        boolean checkSolution();
+
+        boolean isComplete();
+    }
+
+    abstract static class Candidate {
+        final String name;
+
+        Candidate(String name) {
+            this.name = name;
+        }
+
+        abstract Engine create(int size, int[][] solution);
+    }
+
+    // The baseline rules, kept verbatim so optimized engines have a fixed target
+    static final class Reference implements Engine {
+        private final int size;
+        private final int[][] grid;
+        private final int[][] solution;
+
+        Reference(int size, int[][] solution) {
+            this.size = size;
+            this.grid = new int[size][size];
+            this.solution = solution;
+        }
+
+        @Override
+        public Boolean toggle(int row, int col) {
+            grid[row][col] = (grid[row][col] + 1) % 3;
+            return validateMove(row, col);
+        }
+
+        private boolean validateMove(int row, int col) {
+            int yesCount = 0;
+            for (int j = 0; j < size; j++) {
+                if (grid[row][j] == GameLogic.YES) yesCount++;
+            }
+            if (yesCount > 1) return false;
+            yesCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (grid[i][col] == GameLogic.YES) yesCount++;
+            }
+            return yesCount <= 1;
+        }
+
+        @Override
+        public void clear() {
+            for (int[] row : grid) Arrays.fill(row, GameLogic.EMPTY);
+        }
+
+        @Override
+        public int cell(int row, int col) {
+            return grid[row][col];
+        }
+
+        @Override
+        public boolean checkSolution() {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (solution[i][j] == GameLogic.YES && grid[i][j] != GameLogic.YES) return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isComplete() {
+            int yesCount = 0;
+            for (int[] row : grid) {
+                for (int state : row) {
+                    if (state == GameLogic.YES) yesCount++;
+                }
+            }
+            return yesCount == size;
+        }
+    }
+
+    // A board and the moves made on it
+    static final class Case {
+        final long seed;
+        final int size;
+        // Solution column of each row
+        final int[] permutation;
+        final int[] ops;
+
+        Case(long seed, int size, int[] permutation, int[] ops) {
+            this.seed = seed;
+            this.size = size;
+            this.permutation = permutation;
+            this.ops = ops;
+        }
+
+        int[][] solution() {
+            int[][] solution = new int[size][size];
+            for (int row = 0; row < size; row++) solution[row][permutation[row]] = GameLogic.YES;
+            return solution;
+        }
+
+        Case withOps(int[] fewer) {
+            return new Case(seed, size, permutation, fewer);
+        }
+
+        String describe(int op) {
+            return ops[op] == CLEAR ? "clear" : "toggle(" + ops[op] / size + ", " + ops[op] % size + ")";
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("seed ").append(seed).append(", size ").append(size)
+                    .append(", solution columns ").append(Arrays.toString(permutation)).append(", ops [");
+            for (int i = 0; i < ops.length; i++) {
+                if (i > 0) text.append(", ");
+                text.append(describe(i));
+            }
+            return text.append(']').toString();
+        }
+    }
+
+    static final class Failure {
+        final String candidate;
+        final Case reproducer;
+        final String divergence;
+        // Moves in the case as generated, before shrinking
+        final int originalOps;
+
+        Failure(String candidate, Case reproducer, String divergence, int originalOps) {
+            this.candidate = candidate;
+            this.reproducer = reproducer;
+            this.divergence = divergence;
+            this.originalOps = originalOps;
+        }
+
+        @Override
+        public String toString() {
+            return candidate + " diverges from the reference: " + divergence + "\n  reproducer (shrunk from "
+                    + originalOps + " ops): " + reproducer;
+        }
+    }
+
+    static final class Result {
+        final long cases;
+        final long ops;
+        final long nanos;
+        // Null when every candidate agreed on every case
+        final Failure failure;
+
+        Result(long cases, long ops, long nanos, Failure failure) {
+            this.cases = cases;
+            this.ops = ops;
+            this.nanos = nanos;
+            this.failure = failure;
+        }
+    }
+
+    // Mostly small boards, where rows fill and clash quickly, and a few that straddle the
+    // 64-column word boundary of BitGrid
+    static Case generate(long seed) {
+        // Unlike Random, nearby seeds give unrelated streams
+        SplittableRandom random = new SplittableRandom(seed);
+        int size = random.nextInt(16) > 0 ? 2 + random.nextInt(7) : 63 + random.nextInt(3);
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            int j = random.nextInt(i + 1);
+            permutation[i] = permutation[j];
+            permutation[j] = i;
+        }
+        // Moves favour a few hot lines and the solution cells so that large boards still
+        // see clashes and small ones get solved
+        int hot = Math.min(size, 3);
+        int[] ops = new int[1 + random.nextInt(size > 8 ? 200 : 120)];
+        for (int i = 0; i < ops.length; i++) {
+            int pick = random.nextInt(100);
+            int row = pick < 60 ? random.nextInt(hot) : random.nextInt(size);
+            int col = pick < 30 ? permutation[row] : pick < 60 ? random.nextInt(hot) : random.nextInt(size);
+            ops[i] = pick == 99 ? CLEAR : row * size + col;
+        }
+        return new Case(seed, size, permutation, ops);
+    }
+
+    // First divergence of the candidate from the reference on this case, or null
+    static String check(Candidate candidate, Case c) {
+        int[][] solution = c.solution();
+        Reference reference = new Reference(c.size, solution);
+        int op = 0;
+        try {
+            Engine engine = candidate.create(c.size, solution);
+            for (; op < c.ops.length; op++) {
+                String diff;
+                if (c.ops[op] == CLEAR) {
+                    reference.clear();
+                    engine.clear();
+                    diff = compareBoards(reference, engine, c.size);
+                } else {
+                    int row = c.ops[op] / c.size;
+                    int col = c.ops[op] % c.size;
+                    boolean expected = reference.toggle(row, col);
+                    Boolean actual = engine.toggle(row, col);
+                    diff = actual != null && actual != expected
+                            ? "returned " + actual + ", reference " + expected
+                            : compareLines(reference, engine, c.size, row, col);
+                }
+                if (diff == null) diff = compareQueries(reference, engine);
+                if (diff != null) return "after op " + op + " " + c.describe(op) + ": " + diff;
+            }
+            String diff = compareBoards(reference, engine, c.size);
+            return diff == null ? null : "at the end: " + diff;
+        } catch (RuntimeException e) {
+            return (op < c.ops.length ? "op " + op + " " + c.describe(op) : "setup") + " threw " + e;
+        }
+    }
+
+    private static String compareLines(Engine reference, Engine engine, int size, int row, int col) {
+        for (int i = 0; i < size; i++) {
+            String diff = compareCell(reference, engine, row, i);
+            if (diff == null) diff = compareCell(reference, engine, i, col);
+            if (diff != null) return diff;
+        }
+        return null;
+    }
+
+    private static String compareBoards(Engine reference, Engine engine, int size) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                String diff = compareCell(reference, engine, row, col);
+                if (diff != null) return diff;
+            }
+        }
+        return null;
+    }
+
+    private static String compareCell(Engine reference, Engine engine, int row, int col) {
+        int expected = reference.cell(row, col);
+        int actual = engine.cell(row, col);
+        return actual == expected ? null : "cell (" + row + ", " + col + ") is " + actual + ", reference " + expected;
+    }
+
+    private static String compareQueries(Engine reference, Engine engine) {
+        if (engine.checkSolution() != reference.checkSolution()) {
+            return "checkSolution() is " + !reference.checkSolution() + ", reference " + reference.checkSolution();
+        }
+        if (engine.isComplete() != reference.isComplete()) {
+            return "isComplete() is " + !reference.isComplete() + ", reference " + reference.isComplete();
+        }
+        return null;
+    }
+
+    // Removes runs of moves, halving the run length down to single moves, and toggles of
+    // one cell three at a time (a full cycle), for as long as the candidate still
+    // diverges; no single move or cycle in the result can go on its own
+    static Case shrink(Candidate candidate, Case failing) {
+        Case smallest = failing;
+        int before;
+        do {
+            before = smallest.ops.length;
+            smallest = dropRuns(candidate, smallest);
+            smallest = dropCycles(candidate, smallest);
+        } while (smallest.ops.length < before);
+        return smallest;
+    }
+
+    private static Case dropRuns(Candidate candidate, Case failing) {
+        int[] ops = failing.ops;
+        for (int run = Math.max(1, ops.length / 2); run >= 1; run /= 2) {
+            int from = 0;
+            while (from < ops.length) {
+                int[] fewer = new int[ops.length - Math.min(run, ops.length - from)];
+                System.arraycopy(ops, 0, fewer, 0, from);
+                System.arraycopy(ops, from + ops.length - fewer.length, fewer, from, fewer.length - from);
+                if (check(candidate, failing.withOps(fewer)) != null) {
+                    ops = fewer;
+                } else {
+                    from += run;
+                }
+            }
+        }
+        return failing.withOps(ops);
+    }
+
+    // Three toggles of a cell leave it as it was, but dropping one or two of them does not
+    private static Case dropCycles(Candidate candidate, Case failing) {
+        int[] ops = failing.ops;
+        for (int first = 0; first < ops.length; first++) {
+            if (ops[first] == CLEAR) continue;
+            int second = next(ops, first);
+            int third = second < 0 ? -1 : next(ops, second);
+            if (third < 0) continue;
+            int[] fewer = new int[ops.length - 3];
+            for (int i = 0, j = 0; i < ops.length; i++) {
+                if (i != first && i != second && i != third) fewer[j++] = ops[i];
+            }
+            if (check(candidate, failing.withOps(fewer)) != null) {
+                ops = fewer;
+                first--;
+            }
+        }
+        return failing.withOps(ops);
+    }
+
+    // Index of the next toggle of the same cell, or -1
+    private static int next(int[] ops, int from) {
+        for (int i = from + 1; i < ops.length; i++) {
+            if (ops[i] == ops[from]) return i;
+        }
+        return -1;
+    }
+
+    // Runs seeds firstSeed, firstSeed + 1, ... on `threads` threads until `millis` pass or
+    // a candidate diverges
+    static Result run(final List<Candidate> candidates, long firstSeed, long millis, int threads)
+            throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + millis * 1000000L;
+        final AtomicLong nextSeed = new AtomicLong(firstSeed);
+        final AtomicLong cases = new AtomicLong();
+        final AtomicLong ops = new AtomicLong();
+        final AtomicReference<Failure> failure = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        while (failure.get() == null && System.nanoTime() < deadline) {
+                            // Seeds in small blocks keep the shared counter off the hot path
+                            long seed = nextSeed.getAndAdd(16);
+                            for (long s = seed; s < seed + 16 && failure.get() == null; s++) {
+                                Case c = generate(s);
+                                for (Candidate candidate : candidates) {
+                                    String divergence = check(candidate, c);
+                                    if (divergence != null) {
+                                        Case small = shrink(candidate, c);
+                                        failure.compareAndSet(null, new Failure(candidate.name, small,
+                                                check(candidate, small), c.ops.length));
+                                        return;
+                                    }
+                                }
+                                cases.incrementAndGet();
+                                ops.addAndGet(c.ops.length);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) worker.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Stress worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(cases.get(), ops.get(), System.nanoTime() - start, failure.get());
+    }
+}
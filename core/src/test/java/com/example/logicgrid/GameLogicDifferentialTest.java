@@ -0,0 +1,191 @@
+package com.example.logicgrid;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Holds every way of driving GameLogic to the original int[][] rules. The default budget
+ * suits the normal test run; soak with e.g. -Dlogicgrid.stress.millis=600000, and replay
+ * a reported seed with -Dlogicgrid.stress.seed.
+ */
+public class GameLogicDifferentialTest {
+    private static final long BUDGET_MILLIS = Long.getLong("logicgrid.stress.millis", 2000);
+    private static final long FIRST_SEED = Long.getLong("logicgrid.stress.seed", 1);
+
+    private static GameLogic newGame(int size, int[][] solution) {
+        String[][] categories = new String[2][size];
+        for (int i = 0; i < size; i++) {
+            categories[0][i] = "Row" + i;
+            categories[1][i] = "Col" + i;
+        }
+        return new GameLogic(size, categories, new String[0], solution);
+    }
+
+    // GameLogic as the app drives it, one toggleCell per tap
+    private static class Direct implements DifferentialHarness.Engine {
+        GameLogic game;
+
+        Direct(GameLogic game) {
+            this.game = game;
+        }
+
+        @Override
+        public Boolean toggle(int row, int col) {
+            return game.toggleCell(row, col);
+        }
+
+        @Override
+        public void clear() {
+            game.clearGrid();
+        }
+
+        @Override
+        public int cell(int row, int col) {
+            return game.getCellState(row, col);
+        }
+
+        @Override
+        public boolean checkSolution() {
+            return game.checkSolution();
+        }
+
+        @Override
+        public boolean isComplete() {
+            return game.isComplete();
+        }
+    }
+
+    private static final List<DifferentialHarness.Candidate> CANDIDATES = Arrays.asList(
+            new DifferentialHarness.Candidate("toggleCell") {
+                @Override
+                DifferentialHarness.Engine create(int size, int[][] solution) {
+                    return new Direct(newGame(size, solution));
+                }
+            },
+            // Reads go through the published snapshot instead of the live blocks
+            new DifferentialHarness.Candidate("snapshot") {
+                @Override
+                DifferentialHarness.Engine create(int size, int[][] solution) {
+                    return new Direct(newGame(size, solution)) {
+                        @Override
+                        public int cell(int row, int col) {
+                            return game.snapshot().getCellState(0, row, 1, col);
+                        }
+                    };
+                }
+            },
+            // Each move is undone and redone before anything is read back
+            new DifferentialHarness.Candidate("undoRedo") {
+                @Override
+                DifferentialHarness.Engine create(int size, int[][] solution) {
+                    return new Direct(newGame(size, solution)) {
+                        @Override
+                        public Boolean toggle(int row, int col) {
+                            boolean valid = game.toggleCell(row, col);
+                            if (!game.undo() || !game.redo()) throw new IllegalStateException("No history step");
+                            return valid;
+                        }
+
+                        @Override
+                        public void clear() {
+                            // Clearing an empty board records nothing, and then undo steps
+                            // back over the previous move instead, which is just as good
+                            game.clearGrid();
+                            if (game.undo() && !game.redo()) throw new IllegalStateException("No redo step");
+                        }
+                    };
+                }
+            },
+            // Every move is a one-cell applyChanges batch, and every few moves the board is
+            // saved and restored into another game as after process death
+            new DifferentialHarness.Candidate("applyChanges+restore") {
+                @Override
+                DifferentialHarness.Engine create(final int size, final int[][] solution) {
+                    return new Direct(newGame(size, solution)) {
+                        // Restores alternate between two games, which keeps constructors
+                        // (clue pattern compiling) out of the loop
+                        private GameLogic spare = newGame(size, solution);
+                        private int moves;
+
+                        @Override
+                        public Boolean toggle(int row, int col) {
+                            int state = (game.getCellState(row, col) + 1) % 3;
+                            GameLogic.BatchResult result = game.applyChanges(
+                                    new int[] {game.packChange(0, row, 1, col, state)});
+                            if (++moves % 5 == 0) {
+                                spare.restore(game.getPackedCells(), game.getHistoryTail(64));
+                                GameLogic previous = game;
+                                game = spare;
+                                spare = previous;
+                            }
+                            // Batches report only the changed cells that break a rule, so a
+                            // move to NO or EMPTY in an already broken line is not judged
+                            return state == GameLogic.YES ? result.isValid() : null;
+                        }
+                    };
+                }
+            });
+
+    @Test
+    public void candidates_agreeWithReference() throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        DifferentialHarness.Result result = DifferentialHarness.run(CANDIDATES, FIRST_SEED, BUDGET_MILLIS, threads);
+        if (result.failure != null) fail(result.failure.toString());
+        assertTrue(result.cases > 0);
+    }
+
+    @Test
+    public void reference_keepsOriginalRules() {
+        int[][] solution = {{0, 1, 0}, {1, 0, 0}, {0, 0, 1}};
+        DifferentialHarness.Reference reference = new DifferentialHarness.Reference(3, solution);
+        assertTrue(reference.toggle(0, 1));
+        assertFalse(reference.toggle(0, 2));
+        // Turning the second YES into a NO mends the row
+        assertTrue(reference.toggle(0, 2));
+        assertTrue(reference.toggle(1, 0));
+        assertFalse(reference.isComplete());
+        assertTrue(reference.toggle(2, 2));
+        assertTrue(reference.isComplete());
+        assertTrue(reference.checkSolution());
+        reference.clear();
+        assertFalse(reference.checkSolution());
+        assertEquals(GameLogic.EMPTY, reference.cell(0, 1));
+    }
+
+    @Test
+    public void run_shrinksDivergenceToMinimalReproducer() throws InterruptedException {
+        // Off by one: a YES anywhere in the last column is never counted toward completion
+        DifferentialHarness.Candidate broken = new DifferentialHarness.Candidate("broken") {
+            @Override
+            DifferentialHarness.Engine create(final int size, int[][] solution) {
+                return new Direct(newGame(size, solution)) {
+                    @Override
+                    public boolean isComplete() {
+                        int yes = 0;
+                        for (int row = 0; row < size; row++) {
+                            for (int col = 0; col < size - 1; col++) {
+                                if (game.getCellState(row, col) == GameLogic.YES) yes++;
+                            }
+                        }
+                        return yes == size;
+                    }
+                };
+            }
+        };
+        DifferentialHarness.Result result = DifferentialHarness.run(Collections.singletonList(broken), 1, 10000, 1);
+        DifferentialHarness.Failure failure = result.failure;
+        assertNotNull(failure);
+        assertEquals("broken", failure.candidate);
+        assertTrue(failure.divergence, failure.divergence.contains("isComplete()"));
+        // One YES per row, and no other move needed
+        DifferentialHarness.Case reproducer = failure.reproducer;
+        assertEquals(reproducer.toString(), reproducer.size, reproducer.ops.length);
+        assertNotNull(DifferentialHarness.check(broken, reproducer));
+        assertNull(DifferentialHarness.check(CANDIDATES.get(0), reproducer));
+    }
+}
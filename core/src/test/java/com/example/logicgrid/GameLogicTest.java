@@ -0,0 +1,508 @@
+package com.example.logicgrid;
+
+import com.example.logicgrid.clue.CompiledClue;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class GameLogicTest {
+    private final GameLogic.PuzzleData data = GameLogic.generatePuzzle("EASY", 1);
+
+    private GameLogic newGame() {
+        return new GameLogic(3, data.categories, data.clues, data.solution);
+    }
+
+    private int solutionCol(int row) {
+        for (int j = 0; j < 3; j++) {
+            if (data.solution[row][j] == GameLogic.YES) return j;
+        }
+        throw new AssertionError("No solution cell in row " + row);
+    }
+
+    @Test
+    public void toggleCell_cyclesStates() {
+        GameLogic game = newGame();
+        assertEquals(GameLogic.EMPTY, game.getCellState(1, 2));
+        game.toggleCell(1, 2);
+        assertEquals(GameLogic.YES, game.getCellState(1, 2));
+        game.toggleCell(1, 2);
+        assertEquals(GameLogic.NO, game.getCellState(1, 2));
+        game.toggleCell(1, 2);
+        assertEquals(GameLogic.EMPTY, game.getCellState(1, 2));
+    }
+
+    @Test
+    public void toggleCell_rejectsSecondYesInRowOrColumn() {
+        GameLogic game = newGame();
+        assertTrue(game.toggleCell(0, 0));
+        assertFalse(game.toggleCell(0, 1));
+        // Cell (0, 1) is now NO, so the row is valid again
+        assertTrue(game.toggleCell(0, 1));
+        assertFalse(game.toggleCell(2, 0));
+    }
+
+    @Test
+    public void checkSolution_tracksSolutionCells() {
+        GameLogic game = newGame();
+        game.toggleCell(0, solutionCol(0));
+        game.toggleCell(1, solutionCol(1));
+        assertFalse(game.isComplete());
+        game.toggleCell(2, solutionCol(2));
+        assertTrue(game.isComplete());
+        assertTrue(game.checkSolution());
+
+        game.toggleCell(1, solutionCol(1));
+        assertFalse(game.checkSolution());
+
+        game.clearGrid();
+        assertFalse(game.isComplete());
+        assertEquals(GameLogic.EMPTY, game.getCellState(0, solutionCol(0)));
+    }
+
+    @Test
+    public void generatePuzzle_isDeterministicAndUnique() {
+        GameLogic.PuzzleData again = GameLogic.generatePuzzle("EASY", 1);
+        assertArrayEquals(data.clues, again.clues);
+        assertArrayEquals(data.solution, again.solution);
+        assertEquals(1, new PuzzleSolver(data.categories, data.constraints).countSolutions(2));
+        assertNull(GameLogic.generatePuzzle("IMPOSSIBLE", 1));
+    }
+
+    @Test
+    public void inference_followsYesChainsAcrossBlocks() {
+        GameLogic game = pets();
+
+        // Bird = Red and Red = Monday, so Bird = Monday and Cat != Monday
+        assertTrue(game.toggleCell(0, 0, 1, 0));
+        assertTrue(game.toggleCell(1, 0, 2, 0));
+        assertEquals(GameLogic.YES, game.getInferredState(0, 0, 2, 0));
+        assertEquals(GameLogic.NO, game.getInferredState(0, 1, 2, 0));
+        assertEquals(GameLogic.NO, game.getInferredState(2, 1, 1, 0));
+
+        // Blue != Tuesday and Cat = Blue, so Cat != Tuesday
+        game.toggleCell(1, 1, 2, 1);
+        game.toggleCell(1, 1, 2, 1);
+        assertTrue(game.toggleCell(0, 1, 1, 1));
+        assertEquals(GameLogic.NO, game.getInferredState(0, 1, 2, 1));
+        assertFalse(game.toggleCell(0, 1, 2, 1));
+
+        // Turning Red = Monday into a NO flips the inference, clearing it removes it
+        game.toggleCell(1, 0, 2, 0);
+        assertEquals(GameLogic.NO, game.getInferredState(0, 0, 2, 0));
+        game.toggleCell(1, 0, 2, 0);
+        assertEquals(GameLogic.EMPTY, game.getInferredState(0, 0, 2, 0));
+        assertFalse(game.isComplete());
+    }
+
+    @Test
+    public void toggleCell_rejectsCellsOffTheBoard() {
+        GameLogic game = pets();
+        int[][] bad = {{1, 0, 1, 1}, {0, 0, 0, 1}, {0, 3, 1, 0}, {0, -1, 2, 0}, {0, 0, 3, 0}, {-1, 0, 1, 0}};
+        for (int[] cell : bad) {
+            try {
+                game.toggleCell(cell[0], cell[1], cell[2], cell[3]);
+                fail("Accepted " + Arrays.toString(cell));
+            } catch (IllegalArgumentException expected) {
+                // The board and its history stay untouched
+            }
+        }
+        assertFalse(game.canUndo());
+        assertEquals(0, game.getStateHash());
+    }
+
+    @Test
+    public void constructor_keepsPuzzlesWithSharedNames() {
+        // The importer rejects these, but a puzzle from elsewhere must still load
+        String[][] categories = {{"Red", "Tea", "Blue"}, {"tea", "Monday", "Tuesday"}};
+        String[] clues = {"Red is Monday", "Tea is Tuesday"};
+        GameLogic game = new GameLogic(3, categories, clues, new int[][] {{0, 1, 0}, {1, 0, 0}, {0, 0, 1}});
+        assertTrue(game.toggleCell(0, 2));
+        assertEquals(CompiledClue.VIOLATED, game.getClueStatus(0));
+        // Display-only: never judged
+        assertTrue(game.toggleCell(1, 0));
+        assertEquals(CompiledClue.UNDECIDED, game.getClueStatus(1));
+    }
+
+    @Test
+    public void constructor_rejectsBoardsTooLargeToRecord() {
+        // The largest boards a move history can describe still play and undo
+        GameLogic wide = new GameLogic(256, names(256), new String[0], diagonal(256));
+        assertTrue(wide.toggleCell(255, 255));
+        assertTrue(wide.undo());
+        GameLogic deep = new GameLogic(categories(64, 1));
+        assertTrue(deep.toggleCell(62, 0, 63, 0));
+        assertTrue(deep.undo());
+
+        try {
+            new GameLogic(257, names(257), new String[0], diagonal(257));
+            fail("Accepted 257 items");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("too large"));
+        }
+        try {
+            // 2080 category pairs
+            new GameLogic(categories(65, 1));
+            fail("Accepted 65 categories");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("too large"));
+        }
+    }
+
+    @Test
+    public void stateHash_identifiesBoards() {
+        GameLogic game = newGame();
+        assertEquals(0, game.getStateHash());
+        game.toggleCell(0, 1);
+        game.toggleCell(2, 2);
+        long marked = game.getStateHash();
+        assertNotEquals(0, marked);
+
+        // Same marks in another order, and a full cycle of one cell, change nothing
+        GameLogic other = newGame();
+        other.toggleCell(2, 2);
+        other.toggleCell(1, 0);
+        other.toggleCell(1, 0);
+        other.toggleCell(1, 0);
+        other.toggleCell(0, 1);
+        assertEquals(marked, other.getStateHash());
+
+        game.toggleCell(0, 1);
+        assertNotEquals(marked, game.getStateHash());
+        game.clearGrid();
+        assertEquals(0, game.getStateHash());
+    }
+
+    @Test
+    public void undoRedo_walksBackAndForthThroughMoves() {
+        GameLogic game = newGame();
+        assertFalse(game.undo());
+        game.toggleCell(0, 1);
+        game.toggleCell(0, 1);
+        game.toggleCell(2, 2);
+        long marked = game.getStateHash();
+
+        assertTrue(game.undo());
+        assertEquals(GameLogic.EMPTY, game.getCellState(2, 2));
+        assertTrue(game.undo());
+        assertEquals(GameLogic.YES, game.getCellState(0, 1));
+        assertTrue(game.redo());
+        assertTrue(game.redo());
+        assertFalse(game.redo());
+        assertEquals(marked, game.getStateHash());
+
+        // Clearing is one move; a new move after an undo drops the redo branch
+        game.clearGrid();
+        assertTrue(game.undo());
+        assertEquals(marked, game.getStateHash());
+        assertEquals(GameLogic.NO, game.getCellState(0, 1));
+        game.undo();
+        game.toggleCell(1, 1);
+        assertFalse(game.canRedo());
+    }
+
+    @Test
+    public void applyChanges_isOneMoveAndMatchesSingleToggles() {
+        GameLogic batched = newGame();
+        GameLogic toggled = newGame();
+        int yes = solutionCol(0);
+        int[] changes = new int[3];
+        for (int col = 0; col < 3; col++) {
+            changes[col] = batched.packChange(0, 0, 1, col, col == yes ? GameLogic.YES : GameLogic.NO);
+            toggled.toggleCell(0, col);
+            if (col != yes) toggled.toggleCell(0, col);
+        }
+        long version = batched.getVersion();
+        GameLogic.BatchResult result = batched.applyChanges(changes);
+        assertTrue(result.isValid());
+        assertEquals(3, result.changed);
+        assertEquals(version + 1, batched.getVersion());
+        assertEquals(toggled.getStateHash(), batched.getStateHash());
+        assertArrayEquals(toggled.getPackedCells(), batched.getPackedCells());
+
+        // Already in place: nothing changes
+        assertEquals(0, batched.applyChanges(changes).changed);
+        assertTrue(batched.undo());
+        assertEquals(0, batched.getStateHash());
+        assertFalse(batched.canUndo());
+        assertTrue(batched.redo());
+        assertEquals(toggled.getStateHash(), batched.getStateHash());
+    }
+
+    @Test
+    public void applyChanges_reportsEveryViolationAtOnce() {
+        GameLogic game = newGame();
+        int[] changes = {
+                game.packChange(0, 0, 1, 0, GameLogic.YES),
+                game.packChange(0, 0, 1, 1, GameLogic.YES),
+                game.packChange(0, 2, 1, 2, GameLogic.NO),
+                game.packChange(0, 1, 1, 2, GameLogic.YES),
+        };
+        GameLogic.BatchResult result = game.applyChanges(changes);
+        assertArrayEquals(new int[] {changes[0], changes[1]}, result.violations);
+        assertFalse(result.isValid());
+
+        // Malformed input changes nothing
+        try {
+            game.applyChanges(new int[] {game.packChange(0, 0, 1, 0, GameLogic.EMPTY), -1});
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(GameLogic.YES, game.getCellState(0, 0));
+    }
+
+    @Test
+    public void applyChanges_checksMarksAgainstOtherBlocks() {
+        GameLogic game = pets();
+        // Bird = Red and Red = Monday, yet Bird is not Monday
+        int[] changes = {
+                game.packChange(0, 0, 1, 0, GameLogic.YES),
+                game.packChange(1, 0, 2, 0, GameLogic.YES),
+                game.packChange(2, 0, 0, 0, GameLogic.NO),
+        };
+        assertEquals(3, game.applyChanges(changes).violations.length);
+        assertEquals(GameLogic.YES, game.getInferredState(0, 0, 2, 0));
+
+        // Taking the NO back leaves a consistent board
+        assertTrue(game.applyChanges(new int[] {game.packChange(0, 0, 2, 0, GameLogic.YES)}).isValid());
+    }
+
+    @Test
+    public void undo_restoresInferences() {
+        GameLogic game = pets();
+        game.toggleCell(0, 0, 1, 0);
+        game.toggleCell(1, 0, 2, 0);
+        assertEquals(GameLogic.YES, game.getInferredState(0, 0, 2, 0));
+        game.undo();
+        assertEquals(GameLogic.EMPTY, game.getInferredState(0, 0, 2, 0));
+        game.redo();
+        assertEquals(GameLogic.YES, game.getInferredState(0, 0, 2, 0));
+    }
+
+    @Test
+    public void checkpoint_restoresBoardWithoutTouchingIt() {
+        GameLogic game = newGame();
+        game.toggleCell(0, solutionCol(0));
+        game.saveCheckpoint("branch");
+        long saved = game.getStateHash();
+
+        game.toggleCell(1, solutionCol(1));
+        game.toggleCell(2, solutionCol(2));
+        assertTrue(game.checkSolution());
+        game.clearGrid();
+        assertTrue(game.restoreCheckpoint("branch"));
+        assertEquals(saved, game.getStateHash());
+        assertEquals(GameLogic.YES, game.getCellState(0, solutionCol(0)));
+        assertEquals(GameLogic.EMPTY, game.getCellState(1, solutionCol(1)));
+        assertFalse(game.checkSolution());
+
+        // Restoring is undoable, and the checkpoint survives edits to the restored board
+        game.undo();
+        assertEquals(0, game.getStateHash());
+        game.redo();
+        game.toggleCell(0, solutionCol(0));
+        assertTrue(game.restoreCheckpoint("branch"));
+        assertEquals(saved, game.getStateHash());
+        assertFalse(game.restoreCheckpoint("missing"));
+    }
+
+    @Test
+    public void moveHistory_dropsOldestWholeMoves() {
+        MoveHistory history = new MoveHistory(4);
+        history.record(MoveHistory.pack(0, 0, 0, 0, 1), false);
+        history.record(MoveHistory.pack(0, 0, 1, 0, 1), true);
+        history.record(MoveHistory.pack(0, 0, 2, 0, 1), false);
+        history.record(MoveHistory.pack(0, 1, 0, 0, 1), false);
+        // Full: making room drops the whole two-cell move, not just its first cell
+        history.record(MoveHistory.pack(3, 200, 255, 2, 0), false);
+        int change = history.undo();
+        assertEquals(3, MoveHistory.pair(change));
+        assertEquals(200, MoveHistory.row(change));
+        assertEquals(255, MoveHistory.col(change));
+        assertEquals(GameLogic.NO, MoveHistory.oldState(change));
+        assertEquals(GameLogic.EMPTY, MoveHistory.newState(change));
+        assertFalse(MoveHistory.isLinked(change));
+        history.undo();
+        history.undo();
+        assertFalse(history.canUndo());
+        assertTrue(history.canRedo());
+    }
+
+    @Test
+    public void snapshot_staysFrozenWhileGameMoves() {
+        GameLogic game = newGame();
+        BoardSnapshot empty = game.snapshot();
+        game.toggleCell(0, 1);
+        BoardSnapshot marked = game.snapshot();
+        assertTrue(marked.getVersion() > empty.getVersion());
+        assertEquals(game.getVersion(), marked.getVersion());
+
+        game.toggleCell(0, 1);
+        game.clearGrid();
+        assertEquals(GameLogic.EMPTY, empty.getCellState(0, 0, 1, 1));
+        assertEquals(GameLogic.YES, marked.getCellState(0, 0, 1, 1));
+        assertEquals(GameLogic.YES, marked.getCellState(1, 1, 0, 0));
+        assertNotEquals(game.getVersion(), marked.getVersion());
+    }
+
+    @Test
+    public void toggleCell_allocatesNothingOnceWarm() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Only HotSpot-style JVMs count allocated bytes per thread
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return;
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        if (!allocations.isThreadAllocatedMemorySupported() || !allocations.isThreadAllocatedMemoryEnabled()) return;
+
+        for (int size : new int[] {3, 16, 64}) {
+            GameLogic game = new GameLogic(size, names(size), new String[0], diagonal(size));
+            Random random = new Random(size);
+            int[] moves = new int[4096];
+            for (int i = 0; i < moves.length; i++) moves[i] = random.nextInt(size * size);
+            for (int round = 0; round < 20; round++) {
+                for (int move : moves) game.toggleCell(move / size, move % size);
+            }
+            long thread = Thread.currentThread().getId();
+            long before = allocations.getThreadAllocatedBytes(thread);
+            for (int move : moves) game.toggleCell(move / size, move % size);
+            long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+            // Slack for the measurement itself, far below one byte per toggle
+            assertTrue(size + "x" + size + ": " + allocated + " bytes over " + moves.length + " toggles",
+                    allocated < 1024);
+        }
+    }
+
+    @Test
+    public void restore_rejectsBadSavesWithoutTouchingBoard() {
+        GameLogic saved = newGame();
+        saved.toggleCell(0, 0);
+        saved.toggleCell(1, 2);
+        saved.toggleCell(1, 2);
+        byte[] cells = saved.getPackedCells();
+        int[] history = saved.getHistoryTail(16);
+
+        GameLogic game = newGame();
+        game.toggleCell(2, 1);
+        byte[] before = game.getPackedCells();
+        long hash = game.getStateHash();
+
+        byte[] badCell = cells.clone();
+        // Cell 4 packed as 3, which is no state
+        badCell[1] |= 3;
+        int[] badRow = history.clone();
+        badRow[0] |= 0xFF << 12;
+        int[] badPair = history.clone();
+        badPair[1] |= 1 << 20;
+        Object[][] saves = {{badCell, history}, {cells, badRow}, {cells, badPair}};
+        for (Object[] save : saves) {
+            try {
+                game.restore((byte[]) save[0], (int[]) save[1]);
+                fail("Accepted " + Arrays.toString((int[]) save[1]));
+            } catch (IllegalArgumentException expected) {
+                assertArrayEquals(before, game.getPackedCells());
+                assertEquals(hash, game.getStateHash());
+                assertTrue(game.undo());
+                assertTrue(game.redo());
+            }
+        }
+
+        game.restore(cells, history);
+        assertArrayEquals(cells, game.getPackedCells());
+        assertEquals(saved.getStateHash(), game.getStateHash());
+    }
+
+    @Test
+    public void snapshot_isConsistentForConcurrentReaders() throws Exception {
+        final GameLogic game = newGame();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long last = 0;
+            while (!done.get()) {
+                BoardSnapshot board = game.snapshot();
+                // The snapshot's hash must describe exactly its cells
+                long hash = 0;
+                for (int row = 0; row < 3; row++) {
+                    for (int col = 0; col < 3; col++) {
+                        hash ^= Zobrist.key(0, row, col, board.getCellState(0, row, 1, col));
+                    }
+                }
+                if (hash != board.getStateHash() || board.getVersion() < last) {
+                    failure.set("Torn snapshot at version " + board.getVersion());
+                }
+                last = board.getVersion();
+            }
+        });
+        reader.start();
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++) {
+            if (random.nextInt(50) == 0) {
+                game.undo();
+            } else {
+                game.toggleCell(random.nextInt(3), random.nextInt(3));
+            }
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void bitGrid_handlesMultiWordLines() {
+        BitGrid grid = new BitGrid(100);
+        grid.set(70, 99, GameLogic.YES);
+        grid.set(70, 3, GameLogic.NO);
+        assertEquals(GameLogic.YES, grid.get(70, 99));
+        assertEquals(GameLogic.NO, grid.get(70, 3));
+        assertEquals(99, grid.firstYesInRow(70));
+        assertEquals(70, grid.firstYesInCol(99));
+        grid.set(10, 99, GameLogic.YES);
+        assertTrue(grid.hasOverfullLine());
+        grid.set(10, 99, GameLogic.EMPTY);
+        assertFalse(grid.hasOverfullLine());
+    }
+
+    // Three categories of three, each item matched with the same index elsewhere
+    private static GameLogic pets() {
+        String[][] categories = {{"Bird", "Cat", "Dog"}, {"Red", "Blue", "Green"}, {"Monday", "Tuesday", "Wednesday"}};
+        int[][] assignment = {{0, 1, 2}, {0, 1, 2}, {0, 1, 2}};
+        return new GameLogic(new GameLogic.PuzzleData(categories, new String[0], diagonal(3), assignment,
+                new Constraint[0]));
+    }
+
+    private static String[][] names(int size) {
+        String[][] names = new String[2][size];
+        for (int i = 0; i < size; i++) {
+            names[0][i] = "Row" + i;
+            names[1][i] = "Col" + i;
+        }
+        return names;
+    }
+
+    // `count` categories of `size` items, each item matched with the same index elsewhere
+    private static GameLogic.PuzzleData categories(int count, int size) {
+        String[][] names = new String[count][size];
+        int[][] assignment = new int[count][size];
+        for (int c = 0; c < count; c++) {
+            for (int i = 0; i < size; i++) {
+                names[c][i] = "C" + c + "I" + i;
+                assignment[c][i] = i;
+            }
+        }
+        return new GameLogic.PuzzleData(names, new String[0], diagonal(size), assignment, new Constraint[0]);
+    }
+
+    private static int[][] diagonal(int size) {
+        int[][] solution = new int[size][size];
+        for (int i = 0; i < size; i++) solution[i][i] = GameLogic.YES;
+        return solution;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.logicgrid.analytics;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LogAggregatorTest {
+    @Test
+    public void writerAndReader_roundTripAndStopAtTruncatedEvent() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveLogWriter log = new MoveLogWriter(bytes);
+        log.startGame("HARD", 7, 5, 1000);
+        log.move(0x12345, true, 1250);
+        log.clueViolated(3, 1250);
+        log.checked(true, 61000);
+        finish(log);
+        assertNull(log.getError());
+
+        MoveLogReader reader = new MoveLogReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(reader.next());
+        assertEquals(LogFormat.START, reader.type);
+        assertEquals("HARD", reader.difficulty);
+        assertEquals(7, reader.level);
+        assertEquals(5, reader.clueCount);
+        assertTrue(reader.next());
+        assertEquals(LogFormat.MOVE, reader.type);
+        assertEquals(250, reader.elapsed);
+        assertEquals(0x12345, reader.value);
+        assertTrue(reader.next());
+        assertEquals(LogFormat.CLUE_VIOLATED, reader.type);
+        assertEquals(0, reader.elapsed);
+        assertTrue(reader.next());
+        assertEquals(LogFormat.SOLVED, reader.type);
+        assertEquals(59750, reader.elapsed);
+        assertFalse(reader.next());
+
+        // Cut inside the last event: everything before it still reads
+        byte[] cut = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 2);
+        reader = new MoveLogReader(new ByteArrayInputStream(cut));
+        int events = 0;
+        while (reader.next()) events++;
+        assertEquals(3, events);
+    }
+
+    @Test
+    public void writer_opensAndWritesFileOffTheCallingThread() throws IOException, InterruptedException {
+        File file = File.createTempFile("moves", ".log");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[100]);
+        }
+        // Past the limit the log starts over
+        MoveLogWriter log = new MoveLogWriter(file, 50);
+        for (int game = 0; game < 2000; game++) {
+            log.startGame("MEDIUM", game, 4, game * 1000L);
+            log.move(game, true, game * 1000L + 500);
+        }
+        finish(log);
+        assertNull(log.getError());
+        LogAggregator aggregator = new LogAggregator();
+        try (FileInputStream in = new FileInputStream(file)) {
+            aggregator.add(in);
+        }
+        assertEquals(4000, aggregator.getEvents());
+
+        MoveLogWriter broken = new MoveLogWriter(new File(file, "not-a-directory/moves.log"), 50);
+        broken.startGame("EASY", 1, 3, 0);
+        finish(broken);
+        assertNotNull(broken.getError());
+    }
+
+    @Test
+    public void add_countsGamesSolvesAndClueStalls() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveLogWriter log = new MoveLogWriter(bytes);
+        log.startGame("EASY", 1, 2, 0);
+        log.move(1, true, 1000);
+        log.move(2, false, 2000);
+        log.clueSatisfied(0, 3000);
+        log.undo(4000);
+        log.clueSatisfied(0, 5000);
+        log.checked(false, 6000);
+        log.checked(true, 10000);
+        // Abandoned after one move
+        log.startGame("EASY", 1, 2, 20000);
+        log.move(1, true, 21000);
+        log.clueViolated(1, 21000);
+        log.startGame("HARD", 2, 3, 30000);
+        finish(log);
+
+        LogAggregator aggregator = new LogAggregator();
+        aggregator.add(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(2, aggregator.getPuzzleCount());
+        PuzzleStats easy = aggregator.getStats("EASY", 1);
+        assertEquals(2, easy.getGames());
+        assertEquals(1, easy.getSolved());
+        assertEquals(3, easy.getMoves());
+        assertEquals(1, easy.getInvalidMoves());
+        assertEquals(10000, easy.getSolveMillis().quantile(0.5));
+        // 500 and 0 invalid moves per thousand
+        assertEquals(2, easy.getErrorPermille().getCount());
+        assertEquals(500, easy.getErrorPermille().getMax());
+        // Only the first satisfaction in a game counts
+        assertEquals(3000, easy.getClueMeanMillis(0));
+        assertEquals(-1, easy.getClueMeanMillis(1));
+        assertEquals(1, easy.getClueViolations(1));
+        assertEquals(1, aggregator.getStats("HARD", 2).getGames());
+        assertNull(aggregator.getStats("HARD", 3));
+    }
+
+    @Test
+    public void resumeGame_continuesTheLoggedGame() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveLogWriter log = new MoveLogWriter(bytes);
+        log.startGame("EASY", 1, 2, 0);
+        log.move(1, true, 1000);
+        finish(log);
+        // As after process death: a new writer picks the game up where it was
+        MoveLogWriter restored = new MoveLogWriter(bytes);
+        restored.resumeGame(50000);
+        restored.move(2, true, 51000);
+        restored.checked(true, 52000);
+        finish(restored);
+
+        LogAggregator aggregator = new LogAggregator();
+        aggregator.add(new ByteArrayInputStream(bytes.toByteArray()));
+        PuzzleStats easy = aggregator.getStats("EASY", 1);
+        assertEquals(1, easy.getGames());
+        assertEquals(2, easy.getMoves());
+        // The time the app was gone is not counted
+        assertEquals(3000, easy.getSolveMillis().quantile(0.5));
+    }
+
+    @Test
+    public void add_rejectsCorruptSizesAndReportEscapesNames() throws IOException {
+        // START, elapsed 0, version, empty name, level 1, then a clue count of 2^28
+        byte[] huge = {LogFormat.START, 0, LogFormat.VERSION, 0, 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        try {
+            new LogAggregator().add(new ByteArrayInputStream(huge));
+            fail("Accepted a clue count of 2^28");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("clue count"));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        MoveLogWriter log = new MoveLogWriter(bytes);
+        log.startGame("say \"hi\"\\", 1, 1, 0);
+        finish(log);
+        LogAggregator aggregator = new LogAggregator();
+        aggregator.add(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(report(aggregator).startsWith("{\"difficulty\":\"say \\\"hi\\\"\\\\\",\"level\":1,"));
+    }
+
+    @Test
+    public void aggregate_mergesParallelPartialsExactly() throws IOException {
+        Random random = new Random(5);
+        File[] logs = new File[7];
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (int f = 0; f < logs.length; f++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writeRandomGames(new MoveLogWriter(bytes), random, 40);
+            logs[f] = File.createTempFile("moves", ".log");
+            logs[f].deleteOnExit();
+            try (FileOutputStream out = new FileOutputStream(logs[f])) {
+                bytes.writeTo(out);
+            }
+            bytes.writeTo(all);
+        }
+
+        LogAggregator serial = new LogAggregator();
+        serial.add(new ByteArrayInputStream(all.toByteArray()));
+        LogAggregator parallel = LogAggregator.aggregate(logs);
+        assertEquals(serial.getEvents(), parallel.getEvents());
+        assertEquals(report(serial), report(parallel));
+        assertEquals(serial.getStats("MEDIUM", 3).getSolveMillis(), parallel.getStats("MEDIUM", 3).getSolveMillis());
+    }
+
+    @Test
+    public void quantileSketch_staysWithinBucketPrecision() {
+        Random random = new Random(8);
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        long[] values = new long[20001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 14);
+            (i % 3 == 0 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+        Arrays.sort(values);
+        assertEquals(values.length, left.getCount());
+        for (double q : new double[] {0.1, 0.5, 0.9, 0.99}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertEquals(exact, left.quantile(q), exact / 32.0 + 1);
+        }
+        assertEquals(values[0], left.getMin());
+        assertEquals(values[values.length - 1], left.quantile(1));
+    }
+
+    private static void writeRandomGames(MoveLogWriter log, Random random, int games) {
+        long now = 0;
+        for (int g = 0; g < games; g++) {
+            int clues = 3 + random.nextInt(4);
+            log.startGame(random.nextBoolean() ? "EASY" : "MEDIUM", 1 + random.nextInt(4), clues, now);
+            int events = random.nextInt(60);
+            for (int e = 0; e < events; e++) {
+                now += random.nextInt(5000);
+                int kind = random.nextInt(10);
+                if (kind < 6) {
+                    log.move(random.nextInt(1 << 20), random.nextInt(5) > 0, now);
+                } else if (kind == 6) {
+                    log.undo(now);
+                } else if (kind == 7) {
+                    log.clueSatisfied(random.nextInt(clues), now);
+                } else if (kind == 8) {
+                    log.clueViolated(random.nextInt(clues), now);
+                } else {
+                    log.checked(random.nextInt(3) == 0, now);
+                }
+            }
+        }
+        finish(log);
+    }
+
+    private static void finish(MoveLogWriter log) {
+        log.close();
+        try {
+            assertTrue(log.awaitTermination(5000));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String report(LogAggregator aggregator) throws IOException {
+        StringWriter out = new StringWriter();
+        aggregator.writeReport(out);
+        return out.toString();
+    }
+}
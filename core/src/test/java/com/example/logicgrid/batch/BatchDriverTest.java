@@ -0,0 +1,45 @@
+package com.example.logicgrid.batch;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class BatchDriverTest {
+    @Test
+    public void run_streamsValidPuzzlesInIndexOrder() throws Exception {
+        StringWriter parallel = new StringWriter();
+        assertEquals(0, new BatchDriver(3, 4, "HARD", 4).run(5, 40, parallel));
+        String[] lines = parallel.toString().split("\n");
+        assertEquals(40, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith("{\"index\":" + i + ","));
+            assertTrue(lines[i].contains("\"unique\":true"));
+        }
+
+        // Same seed, one thread: same puzzles apart from the timings
+        StringWriter serial = new StringWriter();
+        new BatchDriver(3, 4, "HARD", 1).run(5, 40, serial);
+        assertEquals(withoutTimings(parallel.toString()), withoutTimings(serial.toString()));
+    }
+
+    @Test
+    public void run_withDedupSkipsRepeatedPuzzles() throws Exception {
+        BatchDriver driver = new BatchDriver(2, 3, "EASY", 2);
+        driver.setDedup(true);
+        StringWriter out = new StringWriter();
+        assertEquals(0, driver.run(1, 30, out));
+        assertTrue(driver.getDuplicates() > 0);
+        assertEquals(30 - driver.getDuplicates(), out.toString().split("\n").length);
+    }
+
+    @Test
+    public void quote_escapesJson() {
+        assertEquals("\"say \\\"hi\\\"\\\\\\u000a\"", BatchDriver.quote("say \"hi\"\\\n"));
+    }
+
+    private static String withoutTimings(String lines) {
+        return lines.replaceAll(",\"(generate|solve)Micros\":\\d+", "");
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.logicgrid.batch;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.pack.PuzzlePack;
+import com.example.logicgrid.pack.PuzzlePackWriter;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+import com.example.logicgrid.solver.DifficultyRater;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PuzzleImporterTest {
+    @Test
+    public void run_importsBatchDriverOutputIntoPack() throws Exception {
+        StringWriter generated = new StringWriter();
+        new BatchDriver(3, 4, "HARD", 2).run(9, 30, generated);
+
+        PuzzlePackWriter writer = new PuzzlePackWriter();
+        StringWriter rejects = new StringWriter();
+        PuzzleImporter importer = new PuzzleImporter(4);
+        assertEquals(30, importer.run(new StringReader(generated.toString()), PuzzleImporter.Format.JSON_LINES,
+                PuzzleImporter.into(writer), rejects));
+        assertEquals(0, importer.getRejected());
+        assertEquals("", rejects.toString());
+
+        File file = File.createTempFile("imported", ".pack");
+        file.deleteOnExit();
+        writer.write(file);
+        try (PuzzlePack pack = PuzzlePack.open(file)) {
+            assertEquals(30, pack.getPuzzleCount());
+        }
+
+        // The same file again: every puzzle is now a duplicate
+        importer.run(new StringReader(generated.toString()), PuzzleImporter.Format.JSON_LINES,
+                PuzzleImporter.into(writer), rejects);
+        assertEquals(0, importer.getImported());
+        assertEquals(30, importer.getRejected());
+        assertTrue(rejects.toString().contains("\"reason\":\"duplicate of an earlier puzzle\""));
+    }
+
+    @Test
+    public void run_rejectsBadRecordsWithReasonsInInputOrder() throws Exception {
+        String csv = "difficulty,categories,clues,assignment\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob is Blue,0|1|2;0|1|2\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red,0|1|2;0|1|2\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob is Blue,0|1|2;0|1|1\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Ann is Blue,0|1|2;0|1|2\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob is Blue,0|1|2;0|2|1\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue,Ann is Red,0|1|2;0|1|2\n"
+                + "EASY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob likes Blue,0|1|2;0|1|2\n"
+                + "\n"
+                + "SILLY,Ann|Bob|Cy;Red|Blue|Green,Ann is Red|Bob is Blue,0|1|2;0|1|2\n"
+                // Entities listed in another order are the same puzzle once normalized
+                + ",\"Ann|Bob|Cy\";Red|Blue|Green,\"Ann is Red|Bob is Blue\",2|0|1;2|0|1\n";
+        final List<GameLogic.PuzzleData> kept = new ArrayList<>();
+        final List<String> difficulties = new ArrayList<>();
+        StringWriter rejects = new StringWriter();
+        PuzzleImporter importer = new PuzzleImporter(3);
+        importer.run(new StringReader(csv), PuzzleImporter.Format.CSV, new PuzzleImporter.Sink() {
+            @Override
+            public boolean accept(String difficulty, GameLogic.PuzzleData puzzle) {
+                kept.add(puzzle);
+                difficulties.add(difficulty);
+                return true;
+            }
+        }, rejects);
+
+        assertEquals(2, importer.getImported());
+        assertEquals("EASY", difficulties.get(0));
+        assertArrayEquals(new int[][] {{0, 1, 2}, {0, 1, 2}}, kept.get(0).assignment);
+        assertArrayEquals(new int[][] {{0, 1, 2}, {0, 1, 2}}, kept.get(1).assignment);
+        assertArrayEquals(new int[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, kept.get(1).solution);
+        assertEquals(2, kept.get(1).constraints.length);
+
+        String[] lines = rejects.toString().split("\n");
+        assertEquals(7, lines.length);
+        assertTrue(lines[0], lines[0].startsWith("{\"line\":3,\"reason\":\"clues allow more than one solution\""));
+        assertTrue(lines[1], lines[1].startsWith("{\"line\":4,\"reason\":\"assignment row 1 is not a permutation"));
+        assertTrue(lines[2], lines[2].startsWith("{\"line\":5,\"reason\":\"clues contradict each other\""));
+        assertTrue(lines[3], lines[3].startsWith("{\"line\":6,\"reason\":\"clues solve to a different answer"));
+        assertTrue(lines[4], lines[4].startsWith("{\"line\":7,\"reason\":\"category 1 has 2 items, expected 3\""));
+        assertTrue(lines[5], lines[5].startsWith("{\"line\":8,\"reason\":\"clue 2 not understood: Bob likes Blue\""));
+        assertTrue(lines[6], lines[6].startsWith("{\"line\":10,\"reason\":\"unknown difficulty SILLY\""));
+    }
+
+    @Test
+    public void check_acceptsSolutionGridsAndReportsJsonErrors() {
+        PuzzleImporter.Checked grid = PuzzleImporter.check(1, "{\"difficulty\":\"easy\","
+                + "\"categories\":[[\"Ann\",\"Bob\"],[\"Red\",\"Blue\"]],\"clues\":[\"Ann is Blue\"],"
+                + "\"solution\":[[0,1],[1,0]]}", PuzzleImporter.Format.JSON_LINES);
+        assertNull(grid.reason);
+        assertEquals("EASY", grid.difficulty);
+        assertArrayEquals(new int[][] {{0, 1}, {1, 0}}, grid.puzzle.assignment);
+
+        PuzzleImporter.Checked notPermutation = PuzzleImporter.check(2, "{\"difficulty\":\"EASY\","
+                + "\"categories\":[[\"Ann\",\"Bob\"],[\"Red\",\"Blue\"]],\"clues\":[\"Ann is Blue\"],"
+                + "\"solution\":[[1,1],[0,0]]}", PuzzleImporter.Format.JSON_LINES);
+        assertEquals("solution is not a permutation at row 0", notPermutation.reason);
+
+        PuzzleImporter.Checked broken = PuzzleImporter.check(3, "{\"categories\":[[\"Ann\"", PuzzleImporter.Format.JSON_LINES);
+        assertTrue(broken.reason, broken.reason.startsWith("JSON "));
+    }
+
+    @Test
+    public void check_mapsExpertToHardOnBothPaths() {
+        PuzzleImporter.Checked expert = PuzzleImporter.check(1, "{\"difficulty\":\"expert\","
+                + "\"categories\":[[\"Ann\",\"Bob\"],[\"Red\",\"Blue\"]],\"clues\":[\"Ann is Blue\"],"
+                + "\"solution\":[[0,1],[1,0]]}", PuzzleImporter.Format.JSON_LINES);
+        assertNull(expert.reason);
+        assertEquals("HARD", expert.difficulty);
+
+        // What the rater calls a puzzle deduction alone cannot finish
+        Constraint[] guessing = {Constraints.same(0, 0, 1, 0)};
+        String tier = new DifficultyRater().rate(2, 3, guessing).tier();
+        assertEquals("EXPERT", tier);
+        assertEquals("HARD", PuzzleImporter.levelFor(tier));
+        for (String level : new String[] {"EASY", "MEDIUM", "HARD"}) assertEquals(level, PuzzleImporter.levelFor(level));
+        assertNull(PuzzleImporter.levelFor("SILLY"));
+    }
+
+    @Test
+    public void splitCsv_handlesQuotedCommas() {
+        assertEquals(Arrays.asList("a", "b,c", "say \"hi\"", ""), PuzzleImporter.splitCsv("a,\"b,c\",\"say \"\"hi\"\"\","));
+    }
+}
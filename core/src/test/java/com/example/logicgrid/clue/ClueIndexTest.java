@@ -0,0 +1,84 @@
+package com.example.logicgrid.clue;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.solver.Constraint;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClueIndexTest {
+    @Test
+    public void incrementalStatus_matchesFullEvaluation() {
+        Random random = new Random(11);
+        for (String difficulty : new String[] {"EASY", "HARD"}) {
+            for (GameLogic.PuzzleData data : new PuzzleGenerator(4, 4, difficulty).generateBatch(5, 10)) {
+                Clue[] parsed = new ClueParser(data.categories).parseAll(data.clues);
+                CompiledClue[] compiled = new CompiledClue[parsed.length];
+                for (int i = 0; i < parsed.length; i++) compiled[i] = parsed[i].compile(4);
+
+                GameLogic game = new GameLogic(data);
+                int[] before = statuses(game, compiled.length);
+                for (int step = 0; step < 300; step++) {
+                    int move = random.nextInt(40);
+                    if (move == 0) {
+                        // With nothing to step over there is no move, and nothing to compare
+                        if (!game.undo()) continue;
+                    } else if (move == 1) {
+                        if (!game.redo()) continue;
+                    } else if (move == 2) {
+                        game.clearGrid();
+                    } else {
+                        int a = random.nextInt(4);
+                        int b = (a + 1 + random.nextInt(3)) % 4;
+                        game.toggleCell(a, random.nextInt(4), b, random.nextInt(4));
+                    }
+
+                    int[] after = statuses(game, compiled.length);
+                    int violated = 0;
+                    for (int i = 0; i < compiled.length; i++) {
+                        assertEquals(compiled[i].evaluate(game), after[i]);
+                        if (after[i] == CompiledClue.VIOLATED) violated++;
+                    }
+                    assertEquals(violated, game.getViolatedClues().length);
+                    // Every clue that changed is reported, and nothing else
+                    for (int clue : game.getChangedClues()) assertNotEquals(before[clue], after[clue]);
+                    int changed = 0;
+                    for (int i = 0; i < compiled.length; i++) {
+                        if (before[i] != after[i]) changed++;
+                    }
+                    assertEquals(changed, game.getChangedClues().length);
+                    before = after;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cellChanged_onlyReadsDependentClues() {
+        String[][] categories = {{"Bird", "Cat", "Dog"}, {"Red", "Blue", "Green"}, {"Monday", "Tuesday", "Wednesday"}};
+        String[] clues = {"The Cat is Blue", "The Dog is not Monday"};
+        int[][] assignment = {{0, 1, 2}, {0, 1, 2}, {0, 1, 2}};
+        GameLogic game = new GameLogic(new GameLogic.PuzzleData(categories, clues,
+                new int[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, assignment, new Constraint[0]));
+        // Bird = Green sits outside both clues' rows and columns
+        game.toggleCell(0, 0, 1, 2);
+        assertEquals(0, game.getChangedClues().length);
+        // Cat = Red rules Cat = Blue out
+        game.toggleCell(0, 1, 1, 0);
+        assertArrayEquals(new int[] {0}, game.getChangedClues());
+        assertArrayEquals(new int[] {0}, game.getViolatedClues());
+        game.undo();
+        assertArrayEquals(new int[] {0}, game.getChangedClues());
+        assertEquals(0, game.getViolatedClues().length);
+    }
+
+    private static int[] statuses(GameLogic game, int count) {
+        int[] statuses = new int[count];
+        for (int i = 0; i < count; i++) statuses[i] = game.getClueStatus(i);
+        return statuses;
+    }
+}
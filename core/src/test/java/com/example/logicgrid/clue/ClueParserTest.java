@@ -0,0 +1,94 @@
+package com.example.logicgrid.clue;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Domains;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClueParserTest {
+    private static final String[][] ORDERS = {
+        {"Pizza", "Burger", "Salad"},
+        {"Monday", "Tuesday", "Wednesday"}
+    };
+
+    @Test
+    public void parse_recognisesEachForm() {
+        ClueParser parser = new ClueParser(ORDERS);
+        assertTrue(parser.parse("The Pizza is Monday") instanceof Clue.Is);
+        assertTrue(parser.parse("Salad was not ordered on Wednesday") == null);
+        assertTrue(parser.parse("The Salad is not Wednesday.") instanceof Clue.IsNot);
+        assertTrue(parser.parse("If the Pizza is Monday, then the Salad is not Tuesday") instanceof Clue.IfThen);
+        assertTrue(parser.parse("Either the Burger is Monday or the Salad is Monday") instanceof Clue.EitherOr);
+        assertNull(parser.parse("The Dog is darker than the other pets"));
+
+        Clue.Before after = (Clue.Before) parser.parse("Pizza was ordered after Burger");
+        assertEquals(new Clue.Item(0, 1), after.a);
+        assertEquals(new Clue.Item(0, 0), after.b);
+        assertEquals(1, after.orderCategory);
+    }
+
+    @Test
+    public void parse_leavesCluesNamingSharedNamesUnparsed() {
+        ClueParser parser = new ClueParser(new String[][] {
+            {"Pizza", "Burger", "Salad"}, {"Monday", "Tuesday", "pizza"}
+        });
+        assertNull(parser.parse("The Pizza is Monday"));
+        assertNull(parser.parse("Burger is not pizza"));
+        assertNull(parser.parse("If the Burger is Monday, then the Pizza is Tuesday"));
+        assertTrue(parser.parse("The Burger is Tuesday") instanceof Clue.Is);
+    }
+
+    @Test
+    public void compiled_tracksGridMarks() {
+        String[] clues = {
+            "The Pizza is Wednesday",
+            "The Burger is earlier than the Pizza",
+            "If the Salad is Monday, then the Burger is Tuesday"
+        };
+        int[][] solution = {{0, 0, 1}, {1, 0, 0}, {0, 1, 0}};
+        GameLogic game = new GameLogic(3, ORDERS, clues, solution);
+        assertEquals(0, game.getViolatedClues().length);
+
+        game.toggleCell(0, 0);
+        assertArrayEquals(new int[] {0, 1}, game.getViolatedClues());
+        game.toggleCell(0, 0);
+        game.toggleCell(0, 0);
+        game.toggleCell(0, 2);
+        assertEquals(CompiledClue.SATISFIED, game.getClueStatus(0));
+        assertEquals(CompiledClue.SATISFIED, game.getClueStatus(1));
+
+        game.toggleCell(2, 0);
+        game.toggleCell(1, 1);
+        game.toggleCell(1, 1);
+        assertEquals(CompiledClue.VIOLATED, game.getClueStatus(2));
+    }
+
+    @Test
+    public void generatedClues_roundTripThroughParser() {
+        for (String difficulty : new String[] {"EASY", "MEDIUM", "HARD"}) {
+            GameLogic.PuzzleData[] batch = new PuzzleGenerator(3, 4, difficulty).generateBatch(3, 20);
+            for (GameLogic.PuzzleData data : batch) {
+                Clue[] parsed = new ClueParser(data.categories).parseAll(data.clues);
+                Constraint[] constraints = new Constraint[parsed.length];
+                for (int i = 0; i < parsed.length; i++) {
+                    assertNotNull(data.clues[i], parsed[i]);
+                    constraints[i] = parsed[i].toConstraint();
+                }
+                PuzzleSolver.Result result = new PuzzleSolver(data.categories, constraints).solve();
+                assertTrue(result.isUnique());
+                assertArrayEquals(data.solution, PuzzleSolver.toGrid(result.solutions.get(0), 0, 1));
+
+                Domains solved = new Domains(3, 4);
+                solved.load(result.solutions.get(0));
+                for (Constraint constraint : data.constraints) {
+                    assertEquals(Constraint.TRUE, constraint.evaluate(solved));
+                }
+            }
+        }
+    }
+}
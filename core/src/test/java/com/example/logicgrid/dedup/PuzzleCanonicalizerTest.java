@@ -0,0 +1,202 @@
+package com.example.logicgrid.dedup;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.Constraints;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PuzzleCanonicalizerTest {
+    private final PuzzleCanonicalizer canonicalizer = new PuzzleCanonicalizer();
+
+    @Test
+    public void fingerprint_ignoresRenamingAndReordering() {
+        Random random = new Random(7);
+        String[] difficulties = {"EASY", "HARD"};
+        for (String difficulty : difficulties) {
+            PuzzleGenerator generator = new PuzzleGenerator(4, 5, difficulty);
+            for (int seed = 0; seed < 10; seed++) {
+                GameLogic.PuzzleData data = generator.generate(seed);
+                Fingerprint expected = canonicalizer.fingerprint(data);
+                for (int round = 0; round < 5; round++) {
+                    assertEquals(difficulty + " seed " + seed, expected, canonicalizer.fingerprint(relabel(data, random)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fingerprint_separatesDifferentPuzzles() {
+        PuzzleGenerator generator = new PuzzleGenerator(4, 5, "HARD");
+        Set<Fingerprint> fingerprints = new HashSet<>();
+        Set<String> clueSets = new HashSet<>();
+        for (int seed = 0; seed < 100; seed++) {
+            GameLogic.PuzzleData data = generator.generate(seed);
+            if (!clueSets.add(String.join("|", data.clues))) continue;
+            assertTrue("seed " + seed, fingerprints.add(canonicalizer.fingerprint(data)));
+        }
+        assertTrue(fingerprints.size() > 90);
+    }
+
+    @Test
+    public void canonicalForm_keepsNonStrictOrder() {
+        Constraint notAfter = Constraints.before(1, 2, 1, 0, 2).negate();
+        Constraint before = Constraints.before(1, 0, 1, 2, 2);
+        int[][] assignment = {{0, 1, 2}, {0, 1, 2}, {0, 1, 2}};
+        String[][] names = {{"a", "b", "c"}, {"d", "e", "f"}, {"1", "2", "3"}};
+        GameLogic.PuzzleData a = new GameLogic.PuzzleData(names, new String[] {"x"}, new int[0][],
+                assignment, new Constraint[] {notAfter});
+        GameLogic.PuzzleData b = new GameLogic.PuzzleData(names, new String[] {"x"}, new int[0][],
+                assignment, new Constraint[] {before});
+        assertNotEquals(canonicalizer.fingerprint(a), canonicalizer.fingerprint(b));
+    }
+
+    @Test
+    public void index_addsContainsAndGrowsPastCapacity() {
+        FingerprintIndex index = new FingerprintIndex(3);
+        assertTrue(index.add(new Fingerprint(1, 2)));
+        assertTrue(index.add(new Fingerprint(0, 0)));
+        assertFalse(index.add(new Fingerprint(1, 2)));
+        assertTrue(index.contains(new Fingerprint(0, 0)));
+        assertFalse(index.contains(new Fingerprint(2, 1)));
+        assertTrue(index.add(new Fingerprint(2, 1)));
+        assertEquals(3, index.size());
+
+        // Thousands of times the initial capacity, with every earlier entry still found
+        Random random = new Random(4);
+        long[] highs = new long[100000];
+        for (int i = 0; i < highs.length; i++) {
+            highs[i] = random.nextLong();
+            assertTrue(index.add(new Fingerprint(highs[i], i + 3)));
+        }
+        assertEquals(highs.length + 3, index.size());
+        assertTrue(index.contains(new Fingerprint(1, 2)));
+        assertTrue(index.contains(new Fingerprint(0, 0)));
+        for (int i = 0; i < highs.length; i++) {
+            assertFalse(index.add(new Fingerprint(highs[i], i + 3)));
+        }
+    }
+
+    // Same puzzle with categories, unordered items, entities and clues shuffled
+    private static GameLogic.PuzzleData relabel(GameLogic.PuzzleData data, Random random) {
+        int categories = data.categories.length;
+        int items = data.assignment[0].length;
+        boolean[] ordered = new boolean[categories];
+        for (Constraint constraint : data.constraints) markOrdered(constraint, ordered);
+
+        final int[] categoryMap = shuffled(categories, random);
+        final int[][] itemMap = new int[categories][];
+        for (int c = 0; c < categories; c++) {
+            itemMap[c] = ordered[c] ? identity(items) : shuffled(items, random);
+        }
+
+        // The new category 0 decides how entities are numbered
+        int first = 0;
+        while (categoryMap[first] != 0) first++;
+        int[][] assignment = new int[categories][items];
+        String[][] names = new String[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) {
+                int entity = itemMap[first][data.assignment[first][e]];
+                assignment[categoryMap[c]][entity] = itemMap[c][data.assignment[c][e]];
+                names[categoryMap[c]][itemMap[c][e]] = data.categories[c][e];
+            }
+        }
+
+        int[] clueOrder = shuffled(data.constraints.length, random);
+        Constraint[] constraints = new Constraint[clueOrder.length];
+        String[] clues = new String[clueOrder.length];
+        for (int i = 0; i < clueOrder.length; i++) {
+            constraints[clueOrder[i]] = map(data.constraints[i], categoryMap, itemMap, random);
+            clues[clueOrder[i]] = data.clues[i];
+        }
+        return new GameLogic.PuzzleData(names, clues, data.solution, assignment, constraints);
+    }
+
+    private static Constraint map(Constraint constraint, int[] categoryMap, int[][] itemMap, Random random) {
+        if (constraint instanceof Constraints.Same) {
+            Constraints.Same same = (Constraints.Same) constraint;
+            return Constraints.same(categoryMap[same.categoryB], itemMap[same.categoryB][same.itemB],
+                    categoryMap[same.categoryA], itemMap[same.categoryA][same.itemA]);
+        }
+        if (constraint instanceof Constraints.Different) {
+            Constraints.Different different = (Constraints.Different) constraint;
+            return Constraints.different(categoryMap[different.categoryA], itemMap[different.categoryA][different.itemA],
+                    categoryMap[different.categoryB], itemMap[different.categoryB][different.itemB]);
+        }
+        if (constraint instanceof Constraints.Order) {
+            Constraints.Order order = (Constraints.Order) constraint;
+            int categoryA = categoryMap[order.categoryA];
+            int itemA = itemMap[order.categoryA][order.itemA];
+            int categoryB = categoryMap[order.categoryB];
+            int itemB = itemMap[order.categoryB][order.itemB];
+            int orderCategory = categoryMap[order.orderCategory];
+            // "A not after B" is "B not before A"
+            return order.orEqual
+                    ? Constraints.before(categoryB, itemB, categoryA, itemA, orderCategory).negate()
+                    : Constraints.before(categoryA, itemA, categoryB, itemB, orderCategory);
+        }
+        if (constraint instanceof Constraints.IfThen) {
+            Constraints.IfThen ifThen = (Constraints.IfThen) constraint;
+            return Constraints.ifThen(map(ifThen.condition, categoryMap, itemMap, random),
+                    map(ifThen.consequence, categoryMap, itemMap, random));
+        }
+        Constraint first;
+        Constraint second;
+        boolean either = constraint instanceof Constraints.EitherOr;
+        if (either) {
+            first = ((Constraints.EitherOr) constraint).first;
+            second = ((Constraints.EitherOr) constraint).second;
+        } else {
+            first = ((Constraints.Both) constraint).first;
+            second = ((Constraints.Both) constraint).second;
+        }
+        first = map(first, categoryMap, itemMap, random);
+        second = map(second, categoryMap, itemMap, random);
+        if (random.nextBoolean()) {
+            Constraint t = first;
+            first = second;
+            second = t;
+        }
+        return either ? Constraints.eitherOr(first, second) : Constraints.both(first, second);
+    }
+
+    private static void markOrdered(Constraint constraint, boolean[] ordered) {
+        if (constraint instanceof Constraints.Order) {
+            ordered[((Constraints.Order) constraint).orderCategory] = true;
+        } else if (constraint instanceof Constraints.IfThen) {
+            markOrdered(((Constraints.IfThen) constraint).condition, ordered);
+            markOrdered(((Constraints.IfThen) constraint).consequence, ordered);
+        } else if (constraint instanceof Constraints.EitherOr) {
+            markOrdered(((Constraints.EitherOr) constraint).first, ordered);
+            markOrdered(((Constraints.EitherOr) constraint).second, ordered);
+        } else if (constraint instanceof Constraints.Both) {
+            markOrdered(((Constraints.Both) constraint).first, ordered);
+            markOrdered(((Constraints.Both) constraint).second, ordered);
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        return values;
+    }
+
+    private static int[] shuffled(int n, Random random) {
+        int[] values = identity(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return values;
+    }
+}
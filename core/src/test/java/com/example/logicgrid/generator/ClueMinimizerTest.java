@@ -0,0 +1,52 @@
+package com.example.logicgrid.generator;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.solver.Constraint;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClueMinimizerTest {
+    @Test
+    public void minimize_keepsUniquenessAndMatchesGreedyOrder() {
+        PuzzleGenerator generator = new PuzzleGenerator(4, 5, "HARD");
+        ClueMinimizer minimizer = new ClueMinimizer();
+        for (int seed = 0; seed < 10; seed++) {
+            GameLogic.PuzzleData data = generator.generate(seed);
+            GameLogic.PuzzleData minimal = minimizer.minimize(data);
+
+            assertTrue(new PuzzleSolver(minimal.categories, minimal.constraints).hasUniqueSolution());
+            assertArrayEquals(greedy(data), minimal.clues);
+            // Nothing left can go
+            for (int skip = 0; skip < minimal.constraints.length; skip++) {
+                List<Constraint> rest = new ArrayList<>(Arrays.asList(minimal.constraints));
+                rest.remove(skip);
+                assertFalse(new PuzzleSolver(minimal.categories, rest.toArray(new Constraint[0])).hasUniqueSolution());
+            }
+        }
+    }
+
+    // Reference: try each clue in order, one solver run each
+    private static String[] greedy(GameLogic.PuzzleData data) {
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < data.clues.length; i++) kept.add(i);
+        for (int i = 0; i < data.clues.length; i++) {
+            List<Constraint> rest = new ArrayList<>();
+            for (int k : kept) {
+                if (k != i) rest.add(data.constraints[k]);
+            }
+            if (new PuzzleSolver(data.categories, rest.toArray(new Constraint[0])).hasUniqueSolution()) {
+                kept.remove(Integer.valueOf(i));
+            }
+        }
+        String[] clues = new String[kept.size()];
+        for (int i = 0; i < clues.length; i++) clues[i] = data.clues[kept.get(i)];
+        return clues;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.logicgrid.generator;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.solver.PuzzleSolver;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PuzzleGeneratorTest {
+    @Test
+    public void generate_sameSeedSamePuzzle() {
+        PuzzleGenerator generator = new PuzzleGenerator(3, 4, "HARD");
+        GameLogic.PuzzleData first = generator.generate(7);
+        GameLogic.PuzzleData second = generator.generate(7);
+        assertArrayEquals(first.categories, second.categories);
+        assertArrayEquals(first.clues, second.clues);
+        assertEquals(first.clues.length, first.constraints.length);
+    }
+
+    @Test
+    public void generateBatch_producesUniquePuzzlesInSeedOrder() {
+        PuzzleGenerator generator = new PuzzleGenerator(4, 5, "MEDIUM");
+        GameLogic.PuzzleData[] batch = generator.generateBatch(99, 64);
+        for (int i = 0; i < batch.length; i++) {
+            GameLogic.PuzzleData data = batch[i];
+            PuzzleSolver.Result result = new PuzzleSolver(data.categories, data.constraints).solve();
+            assertTrue(result.isUnique());
+            assertArrayEquals(data.solution, PuzzleSolver.toGrid(result.solutions.get(0), 0, 1));
+            assertArrayEquals(data.clues, generator.generate(PuzzleGenerator.seedFor(99, i)).clues);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.logicgrid.hint;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class HintEngineTest {
+    private static void mark(GameLogic game, HintEngine.Hint hint) {
+        while (game.getCellState(hint.categoryA, hint.itemA, hint.categoryB, hint.itemB) != hint.state) {
+            game.toggleCell(hint.categoryA, hint.itemA, hint.categoryB, hint.itemB);
+        }
+    }
+
+    @Test
+    public void hints_solveThePuzzleByDeduction() {
+        GameLogic.PuzzleData data = new PuzzleGenerator(3, 4, "HARD").generate(7);
+        GameLogic game = new GameLogic(data);
+        HintEngine engine = new HintEngine(data, null);
+
+        int deductions = 0;
+        HintEngine.Hint hint;
+        while ((hint = engine.findHint(game)) != null) {
+            assertNotEquals(HintEngine.Hint.MISTAKE, hint.kind);
+            if (hint.kind == HintEngine.Hint.DEDUCTION) deductions++;
+            mark(game, hint);
+        }
+        assertTrue(game.checkSolution());
+        // A uniquely solvable puzzle never needs a cell given away
+        assertEquals(3 * 16, deductions);
+    }
+
+    @Test
+    public void hints_pointOutWrongMarksFirst() {
+        GameLogic.PuzzleData data = GameLogic.generatePuzzle("EASY", 1);
+        GameLogic game = new GameLogic(data);
+        HintEngine engine = new HintEngine(data, null);
+        int wrong = data.solution[0][0] == GameLogic.YES ? 1 : 0;
+        game.toggleCell(0, wrong);
+
+        HintEngine.Hint hint = engine.findHint(game);
+        assertEquals(HintEngine.Hint.MISTAKE, hint.kind);
+        assertEquals(0, hint.itemA);
+        assertEquals(wrong, hint.itemB);
+        assertEquals(GameLogic.NO, hint.state);
+    }
+
+    @Test
+    public void requestHint_deliversOnTheExecutor() throws Exception {
+        GameLogic.PuzzleData data = GameLogic.generatePuzzle("MEDIUM", 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            HintEngine engine = new HintEngine(data, executor);
+            final ArrayBlockingQueue<HintEngine.Hint> result = new ArrayBlockingQueue<>(1);
+            engine.requestHint(new GameLogic(data), new HintEngine.Callback() {
+                @Override
+                public void onHint(HintEngine.Hint hint) {
+                    result.offer(hint);
+                }
+            });
+            HintEngine.Hint hint = result.poll(5, TimeUnit.SECONDS);
+            assertNotNull(hint);
+            assertEquals(HintEngine.Hint.DEDUCTION, hint.kind);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
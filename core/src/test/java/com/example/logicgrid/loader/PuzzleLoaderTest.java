@@ -0,0 +1,70 @@
+package com.example.logicgrid.loader;
+
+import com.example.logicgrid.GameLogic;
+
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PuzzleLoaderTest {
+    @Test
+    public void request_prefetchesNextLevelsAndReusesLoads() throws Exception {
+        final AtomicInteger builds = new AtomicInteger();
+        PuzzleLoader.Source counting = (difficulty, level, seed) -> {
+            builds.incrementAndGet();
+            return PuzzleLoader.GENERATOR.load(difficulty, level, seed);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PuzzleLoader loader = new PuzzleLoader(counting, executor, 4, 2);
+            GameLogic.PuzzleData first = loader.request("EASY", 1).get(10, TimeUnit.SECONDS);
+            assertArrayEquals(GameLogic.generatePuzzle("EASY", 1).clues, first.clues);
+            assertTrue(loader.isCached("EASY", 2));
+            assertTrue(loader.isCached("EASY", 3));
+
+            // Levels 2 and 3 are built once, whether asked for again or not
+            loader.request("EASY", 2).get(10, TimeUnit.SECONDS);
+            executor.submit(() -> { }).get();
+            assertEquals(4, builds.get());
+            assertSame(first, loader.request("EASY", 1).get());
+
+            // Least recently used goes first
+            PuzzleLoader small = new PuzzleLoader(counting, executor, 2, 0);
+            small.request("HARD", 1);
+            small.request("HARD", 2);
+            small.request("HARD", 1);
+            small.request("HARD", 3);
+            assertTrue(small.isCached("HARD", 1));
+            assertFalse(small.isCached("HARD", 2));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void load_reportsMissingAndFailedPuzzlesAsNull() throws Exception {
+        PuzzleLoader.Source failing = (difficulty, level, seed) -> {
+            if (level == 2) throw new IllegalStateException("Broken level");
+            return PuzzleLoader.GENERATOR.load(difficulty, level, seed);
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PuzzleLoader loader = new PuzzleLoader(failing, executor, 2, 0);
+            final BlockingQueue<Object> results = new ArrayBlockingQueue<>(2);
+            PuzzleLoader.Callback callback = data -> results.add(data == null ? "none" : data);
+            loader.load("IMPOSSIBLE", 1, callback);
+            assertEquals("none", results.poll(10, TimeUnit.SECONDS));
+            loader.load("EASY", 2, callback);
+            assertEquals("none", results.poll(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
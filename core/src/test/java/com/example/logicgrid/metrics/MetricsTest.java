@@ -0,0 +1,100 @@
+package com.example.logicgrid.metrics;
+
+import com.example.logicgrid.GameLogic;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void buckets_coverEveryValueWithinThreePercent() {
+        assertEquals(0, LatencyHistogram.lowest(0));
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            // Contiguous, no gaps or overlaps
+            assertEquals(LatencyHistogram.highest(i - 1) + 1, LatencyHistogram.lowest(i));
+        }
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highest(LatencyHistogram.BUCKETS - 1));
+
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() & LatencyHistogram.MAX_VALUE >>> random.nextInt(36);
+            int index = LatencyHistogram.index(value);
+            assertTrue(LatencyHistogram.lowest(index) <= value && value <= LatencyHistogram.highest(index));
+            assertTrue(LatencyHistogram.highest(index) - LatencyHistogram.lowest(index) <= value / 32);
+        }
+    }
+
+    @Test
+    public void percentiles_matchRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 10000; i++) histogram.record(i * 1000L);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.count);
+        assertEquals(10000000, snapshot.maxNanos);
+        assertEquals(5000500, snapshot.meanNanos());
+        assertEquals(5000000, snapshot.percentile(50), 5000000 / 32.0);
+        assertEquals(9900000, snapshot.percentile(99), 9900000 / 32.0);
+        assertEquals(10000000, snapshot.percentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().percentile(50));
+    }
+
+    @Test
+    public void counter_sumsAcrossThreads() throws Exception {
+        final Counter counter = new Counter("test");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100000; i++) counter.increment();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(800000, counter.sum());
+    }
+
+    @Test
+    public void gameLogic_recordsOnlyWhileEnabled() {
+        GameLogic game = new GameLogic(GameLogic.generatePuzzle("EASY", 1));
+        LatencyHistogram toggles = Metrics.timer("game.toggleCell");
+        game.toggleCell(0, 0);
+        game.checkSolution();
+        assertEquals(0, toggles.getCount());
+        assertEquals(0, Metrics.start());
+
+        Metrics.setEnabled(true);
+        game.toggleCell(0, 0);
+        game.toggleCell(0, 1);
+        game.checkSolution();
+        assertEquals(2, toggles.getCount());
+        assertEquals(2, Metrics.timer("game.validateMove").getCount());
+        assertEquals(1, Metrics.timer("game.checkSolution").getCount());
+        // Cell (0, 0) is now NO and (0, 1) YES: no second YES in a row, so both moves were valid
+        assertEquals(0, Metrics.counter("game.invalidMoves").sum());
+
+        String text = Metrics.report();
+        assertTrue(text.contains("game.toggleCell n=2 "));
+        assertFalse(text.contains("game.generatePuzzle"));
+        String json = Metrics.reportJson();
+        assertTrue(json.startsWith("{\"counters\":{"));
+        assertTrue(json.contains("\"game.toggleCell\":{\"count\":2,"));
+        assertTrue(json.endsWith("}}"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.logicgrid.pack;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+import com.example.logicgrid.solver.Constraint;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PuzzlePackTest {
+    @Test
+    public void writeThenOpen_decodesPuzzlesByLevel() throws IOException {
+        GameLogic.PuzzleData[] easy = new PuzzleGenerator(3, 4, "EASY").generateBatch(1, 10);
+        GameLogic.PuzzleData[] hard = new PuzzleGenerator(4, 7, "HARD").generateBatch(2, 10);
+        PuzzlePackWriter writer = new PuzzlePackWriter();
+        for (GameLogic.PuzzleData puzzle : easy) assertTrue(writer.add("EASY", puzzle));
+        for (GameLogic.PuzzleData puzzle : hard) assertTrue(writer.add("HARD", puzzle));
+
+        File file = File.createTempFile("puzzles", ".pack");
+        file.deleteOnExit();
+        writer.write(file);
+
+        try (PuzzlePack pack = PuzzlePack.open(file)) {
+            assertEquals(20, pack.getPuzzleCount());
+            assertEquals(10, pack.getLevelCount("HARD"));
+            assertEquals(0, pack.getLevelCount("MEDIUM"));
+            assertNull(pack.getPuzzle("EASY", 11));
+
+            for (int level = 1; level <= 10; level++) {
+                assertSamePuzzle(easy[level - 1], pack.getPuzzle("EASY", level));
+                assertSamePuzzle(hard[level - 1], pack.getPuzzle("HARD", level));
+            }
+        }
+    }
+
+    @Test
+    public void add_skipsPuzzlesAlreadyInPack() throws IOException {
+        // Tiny puzzles repeat the same clue pattern under different names
+        GameLogic.PuzzleData[] tiny = new PuzzleGenerator(2, 3, "EASY").generateBatch(1, 10);
+        PuzzlePackWriter writer = new PuzzlePackWriter();
+        int added = 0;
+        for (GameLogic.PuzzleData puzzle : tiny) {
+            if (writer.add("EASY", puzzle)) added++;
+        }
+        assertTrue(added < tiny.length);
+        assertEquals(added, writer.size());
+        assertFalse(writer.add("HARD", tiny[0]));
+    }
+
+    @Test
+    public void add_keepsDeduplicatingPastInitialCapacity() throws IOException {
+        GameLogic.PuzzleData[] puzzles = new PuzzleGenerator(3, 4, "EASY").generateBatch(7, 40);
+        PuzzlePackWriter writer = new PuzzlePackWriter(2);
+        int added = 0;
+        for (GameLogic.PuzzleData puzzle : puzzles) {
+            if (writer.add("EASY", puzzle)) added++;
+        }
+        assertTrue(added > 2);
+        assertEquals(added, writer.size());
+        for (GameLogic.PuzzleData puzzle : puzzles) assertFalse(writer.add("MEDIUM", puzzle));
+    }
+
+    @Test
+    public void add_remembersOnlyPuzzlesItWrote() throws IOException {
+        // Too many items for a pack record
+        String[][] names = new String[2][65];
+        int[][] assignment = new int[2][65];
+        int[][] solution = new int[65][65];
+        for (int i = 0; i < 65; i++) {
+            names[0][i] = "Row" + i;
+            names[1][i] = "Col" + i;
+            assignment[0][i] = i;
+            assignment[1][i] = i;
+            solution[i][i] = GameLogic.YES;
+        }
+        GameLogic.PuzzleData large = new GameLogic.PuzzleData(names, new String[0], solution, assignment,
+                new Constraint[0]);
+        try (PuzzlePackWriter writer = new PuzzlePackWriter()) {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try {
+                    writer.add("EASY", large);
+                    fail("Encoded 65 items");
+                } catch (IllegalArgumentException expected) {
+                    // Not taken for a duplicate the second time
+                }
+            }
+            assertEquals(0, writer.size());
+        }
+    }
+
+    @Test
+    public void write_groupsInterleavedDifficultiesFromSpill() throws IOException {
+        GameLogic.PuzzleData[] easy = new PuzzleGenerator(3, 4, "EASY").generateBatch(3, 25);
+        GameLogic.PuzzleData[] medium = new PuzzleGenerator(3, 5, "MEDIUM").generateBatch(4, 25);
+        File file = File.createTempFile("puzzles", ".pack");
+        file.deleteOnExit();
+        try (PuzzlePackWriter writer = new PuzzlePackWriter()) {
+            // Records reach the spill alternating, but levels are numbered per difficulty
+            for (int i = 0; i < 25; i++) {
+                assertTrue(writer.add("MEDIUM", medium[i]));
+                assertTrue(writer.add("EASY", easy[i]));
+            }
+            writer.write(file);
+            // The spills stay open for more puzzles until the writer is closed
+            assertTrue(writer.add("EASY", new PuzzleGenerator(4, 4, "EASY").generateBatch(5, 1)[0]));
+        }
+
+        try (PuzzlePack pack = PuzzlePack.open(file)) {
+            assertEquals(50, pack.getPuzzleCount());
+            for (int level = 1; level <= 25; level++) {
+                assertSamePuzzle(easy[level - 1], pack.getPuzzle("EASY", level));
+                assertSamePuzzle(medium[level - 1], pack.getPuzzle("MEDIUM", level));
+            }
+        }
+    }
+
+    private static void assertSamePuzzle(GameLogic.PuzzleData expected, GameLogic.PuzzleData actual) {
+        assertArrayEquals(expected.categories, actual.categories);
+        assertArrayEquals(expected.clues, actual.clues);
+        assertArrayEquals(expected.assignment, actual.assignment);
+        assertArrayEquals(expected.solution, actual.solution);
+        assertEquals(expected.constraints.length, actual.constraints.length);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.logicgrid.session;
+
+import com.example.logicgrid.GameLogic;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class SessionStateTest {
+    private final GameLogic.PuzzleData data = GameLogic.generatePuzzle("MEDIUM", 3);
+
+    @Test
+    public void encodeDecode_restoresMarksAndUndo() throws IOException {
+        GameLogic game = new GameLogic(data);
+        game.toggleCell(0, 0, 1, 1);
+        game.toggleCell(0, 2, 1, 0);
+        game.toggleCell(0, 2, 1, 0);
+        game.toggleCell(0, 1, 1, 2);
+        byte[] encoded = SessionState.encode("MEDIUM", 3, game);
+        assertTrue(encoded.length < 64);
+
+        SessionState state = SessionState.decode(encoded);
+        assertEquals("MEDIUM", state.difficulty);
+        assertEquals(3, state.level);
+        GameLogic restored = new GameLogic(GameLogic.generatePuzzle(state.difficulty, state.level));
+        assertTrue(state.applyTo(restored));
+        assertEquals(game.getStateHash(), restored.getStateHash());
+        assertEquals(GameLogic.NO, restored.getCellState(0, 2, 1, 0));
+
+        // The move log came along: undo walks back exactly like the original game
+        while (game.canUndo()) {
+            assertTrue(restored.undo());
+            game.undo();
+            assertEquals(game.getStateHash(), restored.getStateHash());
+        }
+        assertFalse(restored.canUndo());
+    }
+
+    @Test
+    public void decode_rejectsOtherData() {
+        try {
+            SessionState.decode(new byte[] {1, 2, 3, 4, 5, 6});
+            fail("Garbage should not decode");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void journal_keepsLatestStateAcrossRestart() throws Exception {
+        File file = File.createTempFile("session", ".bin");
+        assertTrue(file.delete());
+        file.deleteOnExit();
+        SessionJournal journal = new SessionJournal(file);
+        assertNull(journal.load());
+
+        GameLogic game = new GameLogic(data);
+        for (int i = 0; i < 20; i++) {
+            game.toggleCell(0, i % 3, 1, (i / 3) % 3);
+            journal.save(SessionState.encode("MEDIUM", 3, game));
+        }
+        byte[] latest = SessionState.encode("MEDIUM", 3, game);
+        journal.close();
+        assertTrue(journal.awaitTermination(5000));
+        assertArrayEquals(latest, new SessionJournal(file).load());
+
+        // A damaged file reads as no session rather than a wrong one
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 1);
+            int last = raw.read();
+            raw.seek(raw.length() - 1);
+            raw.write(last ^ 0xFF);
+        }
+        assertNull(new SessionJournal(file).load());
+        Files.deleteIfExists(file.toPath());
+    }
+}
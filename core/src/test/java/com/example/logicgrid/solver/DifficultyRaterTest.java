@@ -0,0 +1,59 @@
+package com.example.logicgrid.solver;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DifficultyRaterTest {
+    private static final String[][] PETS = {
+        {"Bird", "Cat", "Dog"},
+        {"Brown", "White", "Black"}
+    };
+
+    @Test
+    public void rate_directCluesAreEasy() {
+        Constraint[] constraints = {
+            Constraints.same(0, 0, 1, 2),
+            Constraints.different(0, 1, 1, 0)
+        };
+        DifficultyRater.Rating rating = new DifficultyRater().rate(2, 3, constraints);
+        assertTrue(rating.solved);
+        assertEquals("EASY", rating.tier());
+        assertEquals(DifficultyRater.DIRECT, rating.hardest);
+    }
+
+    @Test
+    public void rate_guessingPuzzleIsNotSolved() {
+        // Two solutions: deduction alone can never finish
+        Constraint[] constraints = {Constraints.same(0, 0, 1, 0)};
+        DifficultyRater.Rating rating = new DifficultyRater().rate(2, 3, constraints);
+        assertFalse(rating.solved);
+        assertEquals("EXPERT", rating.tier());
+    }
+
+    @Test
+    public void rateAll_matchesSingleRatingsAndSolvesGeneratedPuzzles() {
+        GameLogic.PuzzleData[] puzzles = new PuzzleGenerator(3, 4, "HARD").generateBatch(5, 100);
+        DifficultyRater rater = new DifficultyRater();
+        DifficultyRater.Rating[] ratings = rater.rateAll(puzzles);
+        for (int i = 0; i < puzzles.length; i++) {
+            assertTrue(ratings[i].solved);
+            assertEquals(rater.rate(puzzles[i]).score, ratings[i].score);
+            assertTrue(ratings[i].score >= ratings[i].steps());
+        }
+    }
+
+    @Test
+    public void generatePuzzle_labelsMatchMeasuredTier() {
+        DifficultyRater rater = new DifficultyRater();
+        for (String difficulty : new String[] {"EASY", "MEDIUM", "HARD"}) {
+            for (int level = 1; level <= 5; level++) {
+                GameLogic.PuzzleData data = GameLogic.generatePuzzle(difficulty, level);
+                assertEquals(difficulty, rater.rate(data).tier());
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.logicgrid.solver;
+
+import com.example.logicgrid.GameLogic;
+import com.example.logicgrid.generator.PuzzleGenerator;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PuzzleSolverTest {
+    private static final String[][] PETS = {
+        {"Bird", "Cat", "Dog"},
+        {"Brown", "White", "Black"}
+    };
+
+    @Test
+    public void solve_withoutConstraintsCountsAllPermutations() {
+        PuzzleSolver.Result result = new PuzzleSolver(PETS, new Constraint[0]).solve();
+        assertEquals(6, result.solutionCount);
+        assertEquals(6, result.solutions.size());
+    }
+
+    @Test
+    public void solve_findsUniqueSolution() {
+        Constraint[] constraints = {
+            Constraints.different(0, 0, 1, 0),
+            Constraints.same(0, 1, 1, 1),
+            // The Dog's colour comes earlier in the list than the Bird's
+            Constraints.before(0, 2, 0, 0, 1)
+        };
+        PuzzleSolver.Result result = new PuzzleSolver(PETS, constraints).solve();
+        assertTrue(result.isUnique());
+        assertArrayEquals(new int[] {2, 1, 0}, result.solutions.get(0)[1]);
+        assertArrayEquals(new int[][] {{0, 0, 1}, {0, 1, 0}, {1, 0, 0}},
+                PuzzleSolver.toGrid(result.solutions.get(0), 0, 1));
+    }
+
+    @Test
+    public void solve_handlesConditionalAndEitherOr() {
+        Constraint[] constraints = {
+            Constraints.ifThen(Constraints.same(0, 0, 1, 0), Constraints.same(0, 1, 1, 2)),
+            Constraints.eitherOr(Constraints.same(0, 0, 1, 0), Constraints.same(0, 2, 1, 0)),
+            Constraints.different(0, 2, 1, 1)
+        };
+        PuzzleSolver.Result result = new PuzzleSolver(PETS, constraints).solve();
+        for (int[][] solution : result.solutions) {
+            Domains domains = new Domains(2, 3);
+            domains.load(solution);
+            for (Constraint constraint : constraints) {
+                assertEquals(Constraint.TRUE, constraint.evaluate(domains));
+            }
+        }
+        assertEquals(2, result.solutionCount);
+    }
+
+    @Test
+    public void solve_scalesToEightCategoriesOfTenItems() {
+        int categories = 8;
+        int items = 10;
+        Random random = new Random(42);
+        int[][] planted = new int[categories][items];
+        for (int c = 0; c < categories; c++) {
+            for (int e = 0; e < items; e++) planted[c][e] = e;
+            if (c == 0) continue;
+            for (int e = items - 1; e > 0; e--) {
+                int j = random.nextInt(e + 1);
+                int t = planted[c][e];
+                planted[c][e] = planted[c][j];
+                planted[c][j] = t;
+            }
+        }
+
+        List<Constraint> constraints = new ArrayList<>();
+        int count = Integer.MAX_VALUE;
+        while (count > 1) {
+            int a = random.nextInt(categories);
+            int b = random.nextInt(categories);
+            int e = random.nextInt(items);
+            int f = random.nextInt(items);
+            if (a == b || e == f) continue;
+            if (random.nextInt(4) == 0) {
+                constraints.add(Constraints.same(a, planted[a][e], b, planted[b][e]));
+            } else {
+                constraints.add(Constraints.different(a, planted[a][e], b, planted[b][f]));
+            }
+            if (constraints.size() % 10 == 0) {
+                count = new PuzzleSolver(categories, items,
+                        constraints.toArray(new Constraint[0])).countSolutions(2);
+            }
+        }
+
+        PuzzleSolver.Result result = new PuzzleSolver(categories, items,
+                constraints.toArray(new Constraint[0])).solve();
+        assertTrue(result.isUnique());
+        assertArrayEquals(planted, result.solutions.get(0));
+    }
+
+    @Test
+    public void transpositionTable_keepsCountsAndEvicts() {
+        TranspositionTable table = new TranspositionTable(8);
+        assertEquals(8, table.capacity());
+        table.put(42, TranspositionTable.entry(TranspositionTable.SOLVABLE, true, 3));
+        int entry = table.get(42);
+        assertEquals(TranspositionTable.SOLVABLE, TranspositionTable.status(entry));
+        assertTrue(TranspositionTable.isExact(entry));
+        assertEquals(3, TranspositionTable.solutionCount(entry));
+
+        // A lower bound never replaces an exact count
+        table.put(42, TranspositionTable.entry(TranspositionTable.SOLVABLE, false, 1));
+        assertEquals(entry, table.get(42));
+
+        for (long key = 100; key < 200; key++) {
+            table.put(key, TranspositionTable.entry(TranspositionTable.CONTRADICTION, true, 0));
+        }
+        assertTrue(table.evictions() > 0);
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.get(150));
+    }
+
+    @Test
+    public void countSolutions_sameWithTranspositionTable() {
+        Random random = new Random(3);
+        TranspositionTable table = new TranspositionTable(1 << 12);
+        for (int round = 0; round < 20; round++) {
+            List<Constraint> constraints = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                constraints.add(Constraints.different(random.nextInt(3), random.nextInt(4),
+                        random.nextInt(3), random.nextInt(4)));
+            }
+            Constraint[] array = constraints.toArray(new Constraint[0]);
+            int expected = new PuzzleSolver(3, 4, array).countSolutions(Integer.MAX_VALUE);
+            for (int pass = 0; pass < 2; pass++) {
+                PuzzleSolver cached = new PuzzleSolver(3, 4, array);
+                cached.setTranspositionTable(table, round);
+                assertEquals(expected, cached.countSolutions(Integer.MAX_VALUE));
+                assertEquals(Math.min(expected, 5), cached.countSolutions(5));
+            }
+        }
+        assertTrue(table.hits() > 0);
+    }
+
+    @Test
+    public void boardAnalyzer_tracksSolvability() {
+        GameLogic.PuzzleData data = new PuzzleGenerator(3, 4, "HARD").generate(11);
+        GameLogic game = new GameLogic(data);
+        BoardAnalyzer analyzer = new BoardAnalyzer(data, new TranspositionTable(1 << 10));
+        assertEquals(1, analyzer.countSolutions(game, 2));
+
+        // Ruling out entity 0's own category-1 item leaves no solution
+        game.toggleCell(0, 0, 1, data.assignment[1][0]);
+        game.toggleCell(0, 0, 1, data.assignment[1][0]);
+        assertEquals(TranspositionTable.CONTRADICTION, analyzer.status(game));
+        game.toggleCell(0, 0, 1, data.assignment[1][0]);
+        assertEquals(TranspositionTable.SOLVABLE, analyzer.status(game));
+
+        // A correct mark between two non-zero categories keeps the board solvable
+        game.toggleCell(1, data.assignment[1][2], 2, data.assignment[2][2]);
+        assertEquals(1, analyzer.countSolutions(game, 2));
+    }
+}
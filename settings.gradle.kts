@@ -20,5 +20,7 @@ dependencyResolutionManagement {
 }
 
 rootProject.name = "LogicGrid"
+include(":core")
 include(":app")
+include(":benchmark")
  
\ No newline at end of file